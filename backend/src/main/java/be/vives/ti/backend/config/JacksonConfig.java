@@ -0,0 +1,50 @@
+package be.vives.ti.backend.config;
+
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Tuning of the application's ObjectMapper, used for the responses and the in-memory JSON (reference data).
+ * Blackbird replaces the reflective calls to the record accessors and constructors with generated lambdas. Jackson's
+ * read and write buffers are recycled through a shared pool instead of the default thread-local one, which would
+ * allocate a set of buffers per request on virtual threads (spring.threads.virtual.enabled).
+ * <p>
+ * Clients that send {@code Accept: application/cbor} or {@code application/x-jackson-smile} get the same responses
+ * in that binary encoding, written by a mapper configured like the JSON one; the field names and structure are those
+ * of the JSON schema in the OpenAPI docs. JSON stays the default.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    public BlackbirdModule blackbirdModule() {
+        return new BlackbirdModule();
+    }
+
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sharedBufferPool() {
+        return builder -> builder.postConfigurer(objectMapper ->
+                objectMapper.getFactory().setRecyclerPool(JsonRecyclerPools.newConcurrentDequePool()));
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build()
+                .disable(SerializationFeature.INDENT_OUTPUT));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build()
+                .disable(SerializationFeature.INDENT_OUTPUT));
+    }
+}
@@ -0,0 +1,135 @@
+package be.vives.ti.backend.config;
+
+import be.vives.ti.backend.dto.response.ThreadDiagnosticsResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * What the request threads are doing, for the admin API: whether they are virtual threads, the JVM thread counts, the
+ * JDBC pool (a waiting count above zero means the pool, not the thread count, is the limit) and, when thread events are
+ * recorded, the virtual threads pinned to their carrier and the monitors threads had to wait for. Both come from JFR
+ * (jdk.VirtualThreadPinned and jdk.JavaMonitorEnter) for waits longer than the threshold; the last few are kept with
+ * the frame they happened in.
+ */
+@Component
+public class ThreadDiagnostics {
+    private static final Logger log = LoggerFactory.getLogger(ThreadDiagnostics.class);
+    private static final int RECENT_EVENTS = 20;
+
+    private final boolean virtualThreads;
+    private final boolean recordThreadEvents;
+    private final Duration threshold;
+    private final DataSource dataSource;
+
+    private final LongAdder pinned = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+    private final Deque<ThreadDiagnosticsResponse.ThreadEvent> recent = new ArrayDeque<>();
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private RecordingStream recording;
+
+    public ThreadDiagnostics(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                             @Value("${diagnostics.thread-events.enabled:false}") boolean recordThreadEvents,
+                             @Value("${diagnostics.thread-events.threshold:20ms}") Duration threshold,
+                             DataSource dataSource) {
+        this.virtualThreads = virtualThreads;
+        this.recordThreadEvents = recordThreadEvents;
+        this.threshold = threshold;
+        this.dataSource = dataSource;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!recordThreadEvents || recording != null) {
+            return;
+        }
+        recording = new RecordingStream();
+        recording.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        recording.enable("jdk.JavaMonitorEnter").withThreshold(threshold).withStackTrace();
+        recording.onEvent("jdk.VirtualThreadPinned", event -> record(pinned, event));
+        recording.onEvent("jdk.JavaMonitorEnter", event -> record(contended, event));
+        recording.startAsync();
+        log.info("Recording pinned virtual threads and contended monitors longer than {}", threshold);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (recording != null) {
+            recording.close();
+        }
+    }
+
+    public ThreadDiagnosticsResponse snapshot() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        List<ThreadDiagnosticsResponse.ThreadEvent> events;
+        recentLock.lock();
+        try {
+            events = List.copyOf(recent);
+        } finally {
+            recentLock.unlock();
+        }
+        return new ThreadDiagnosticsResponse(virtualThreads, threads.getThreadCount(), threads.getPeakThreadCount(),
+                connectionPool(), recording != null, pinned.sum(), contended.sum(), events);
+    }
+
+    private ThreadDiagnosticsResponse.ConnectionPool connectionPool() {
+        if (!(dataSource instanceof HikariDataSource hikari) || hikari.getHikariPoolMXBean() == null) {
+            return null;
+        }
+        HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+        return new ThreadDiagnosticsResponse.ConnectionPool(hikari.getMaximumPoolSize(), pool.getActiveConnections(),
+                pool.getIdleConnections(), pool.getThreadsAwaitingConnection());
+    }
+
+    private void record(LongAdder counter, RecordedEvent event) {
+        counter.increment();
+        RecordedThread thread = event.getThread();
+        ThreadDiagnosticsResponse.ThreadEvent summary = new ThreadDiagnosticsResponse.ThreadEvent(
+                event.getEventType().getName(),
+                thread == null ? null : thread.getJavaName(),
+                event.getDuration().toMillis(),
+                topApplicationFrame(event.getStackTrace()));
+        recentLock.lock();
+        try {
+            if (recent.size() == RECENT_EVENTS) {
+                recent.removeFirst();
+            }
+            recent.addLast(summary);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    // the first frame of our own code, else the top frame
+    private static String topApplicationFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        RecordedFrame frame = stackTrace.getFrames().stream()
+                .filter(f -> f.getMethod().getType().getName().startsWith("be.vives.ti.backend"))
+                .findFirst()
+                .orElse(stackTrace.getFrames().get(0));
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -1,7 +1,12 @@
 package be.vives.ti.backend.config;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -20,4 +25,19 @@ public class WebConfig implements WebMvcConfigurer {
         registry.addResourceHandler("/uploads/images/**")
                 .addResourceLocations(uploadPath);
     }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // the API answers in JSON, CBOR or Smile depending on Accept (see JacksonConfig), so caches must key on it;
+        // set before the handler runs, so 304 responses carry it too. Images have a single representation.
+        registry.addInterceptor(new HandlerInterceptor() {
+                    @Override
+                    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                        return true;
+                    }
+                })
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/images/**");
+    }
 }
\ No newline at end of file
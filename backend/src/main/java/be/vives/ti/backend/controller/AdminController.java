@@ -0,0 +1,156 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.config.ThreadDiagnostics;
+import be.vives.ti.backend.dto.response.CacheStatsResponse;
+import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.dto.response.PasswordHashingStatsResponse;
+import be.vives.ti.backend.dto.response.ThreadDiagnosticsResponse;
+import be.vives.ti.backend.security.PasswordHashingBulkhead;
+import be.vives.ti.backend.service.RecipeResponseCache;
+import be.vives.ti.backend.service.ReferenceDataRegistry;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administration", description = "APIs for inspecting and managing the running application")
+@SecurityRequirement(name = "bearerAuth")
+public class AdminController {
+    private static final Logger log = LoggerFactory.getLogger(AdminController.class);
+
+    private final RecipeResponseCache recipeResponseCache;
+    private final ReferenceDataRegistry referenceDataRegistry;
+    private final PasswordHashingBulkhead passwordHashing;
+    private final ThreadDiagnostics threadDiagnostics;
+
+    public AdminController(RecipeResponseCache recipeResponseCache, ReferenceDataRegistry referenceDataRegistry,
+                           PasswordHashingBulkhead passwordHashing, ThreadDiagnostics threadDiagnostics) {
+        this.recipeResponseCache = recipeResponseCache;
+        this.referenceDataRegistry = referenceDataRegistry;
+        this.passwordHashing = passwordHashing;
+        this.threadDiagnostics = threadDiagnostics;
+    }
+
+    @GetMapping("/cache/recipes")
+    @Operation(
+            summary = "Get recipe cache statistics",
+            description = "Returns the size, hit/miss counts and evictions of the recipe response cache. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved cache statistics",
+                    content = @Content(schema = @Schema(implementation = CacheStatsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<CacheStatsResponse> getRecipeCacheStats() {
+        log.debug("GET /api/admin/cache/recipes");
+        return ResponseEntity.ok(recipeResponseCache.stats());
+    }
+
+    @DeleteMapping("/cache/recipes")
+    @Operation(
+            summary = "Flush the recipe cache",
+            description = "Removes every entry from the recipe response cache. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Cache flushed"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<Void> flushRecipeCache() {
+        log.debug("DELETE /api/admin/cache/recipes");
+        recipeResponseCache.evictAll();
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/reference-data/refresh")
+    @Operation(
+            summary = "Reload the reference data",
+            description = "Reloads categories, courses and measurements from the database, e.g. after they were changed directly in the database. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Reference data reloaded"
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<Void> refreshReferenceData() {
+        log.debug("POST /api/admin/reference-data/refresh");
+        referenceDataRegistry.refresh();
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/auth/password-hashing")
+    @Operation(
+            summary = "Get password hashing statistics",
+            description = "Returns the pool size, queue, completed, rejected and timed out work and the average hashing time of the login and registration password hashing pool. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved password hashing statistics",
+                    content = @Content(schema = @Schema(implementation = PasswordHashingStatsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<PasswordHashingStatsResponse> getPasswordHashingStats() {
+        log.debug("GET /api/admin/auth/password-hashing");
+        return ResponseEntity.ok(passwordHashing.stats());
+    }
+
+    @GetMapping("/diagnostics/threads")
+    @Operation(
+            summary = "Get thread diagnostics",
+            description = "Returns whether requests run on virtual threads, the JVM thread counts, the database connection pool usage and, when thread events are recorded, the pinned virtual threads and contended monitors. Requires ADMIN role."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved thread diagnostics",
+                    content = @Content(schema = @Schema(implementation = ThreadDiagnosticsResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<ThreadDiagnosticsResponse> getThreadDiagnostics() {
+        log.debug("GET /api/admin/diagnostics/threads");
+        return ResponseEntity.ok(threadDiagnostics.snapshot());
+    }
+}
@@ -7,7 +7,9 @@ import be.vives.ti.backend.exceptions.GardeningappException;
 import be.vives.ti.backend.model.Role;
 import be.vives.ti.backend.model.User;
 import be.vives.ti.backend.repository.UserRepository;
+import be.vives.ti.backend.security.AppUserDetails;
 import be.vives.ti.backend.security.JwtUtil;
+import be.vives.ti.backend.security.PasswordHashingBulkhead;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -36,15 +38,18 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PasswordHashingBulkhead passwordHashing;
 
     public AuthController(AuthenticationManager authenticationManager,
                           UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil) {
+                          JwtUtil jwtUtil,
+                          PasswordHashingBulkhead passwordHashing) {
         this.authenticationManager = authenticationManager;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.passwordHashing = passwordHashing;
     }
 
     @PostMapping("/register")
@@ -58,7 +63,8 @@ public class AuthController {
                     description = "User registered successfully",
                     content = @Content(schema = @Schema(implementation = AuthResponse.class))
             ),
-            @ApiResponse(responseCode = "400", description = "Invalid registration data or email already exists")
+            @ApiResponse(responseCode = "400", description = "Invalid registration data or email already exists"),
+            @ApiResponse(responseCode = "503", description = "Too many logins and registrations at the moment, retry after the Retry-After delay")
     })
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
@@ -68,7 +74,8 @@ public class AuthController {
         User user = new User();
         user.setUserName(request.getName().trim());
         user.setEmail(request.getEmail().trim().toLowerCase());
-        user.setPassword(passwordEncoder.encode(request.getPassword().trim()));
+        String password = request.getPassword().trim();
+        user.setPassword(passwordHashing.call(() -> passwordEncoder.encode(password)));
         user.setRole(Role.USER);
 
         user = userRepository.save(user);
@@ -97,24 +104,24 @@ public class AuthController {
                     description = "Login successful",
                     content = @Content(schema = @Schema(implementation = AuthResponse.class))
             ),
-            @ApiResponse(responseCode = "400", description = "Invalid email or password")
+            @ApiResponse(responseCode = "400", description = "Invalid email or password"),
+            @ApiResponse(responseCode = "503", description = "Too many logins and registrations at the moment, retry after the Retry-After delay")
     })
     public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
         try {
-            Authentication authentication = authenticationManager.authenticate(
+            // the password check is the expensive part, the user is loaded once by the authentication manager
+            Authentication authentication = passwordHashing.call(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
-            );
-
-            User user = userRepository.findByEmail(request.getEmail())
-                    .orElseThrow(() -> new GardeningappException("User not found"));
+            ));
+            AppUserDetails user = (AppUserDetails) authentication.getPrincipal();
 
-            String token = jwtUtil.generateToken(user.getEmail(), user.getRole().name());
+            String token = jwtUtil.generateToken(user.getUsername(), user.getRole().name());
 
             AuthResponse response = new AuthResponse(
                     user.getId(),
                     token,
-                    user.getEmail(),
-                    user.getUserName(),
+                    user.getUsername(),
+                    user.getDisplayName(),
                     user.getRole().name()
             );
 
@@ -9,10 +9,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/categories")
@@ -20,9 +22,12 @@ import java.util.List;
 public class CategoryController {
     private static final Logger log = LoggerFactory.getLogger(CategoryController.class);
     private final CategoryService categoryService;
+    private final Duration maxAge;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService,
+                               @Value("${reference-data.cache.max-age:1h}") Duration maxAge) {
         this.categoryService = categoryService;
+        this.maxAge = maxAge;
     }
 
     @GetMapping
@@ -33,7 +38,13 @@ public class CategoryController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved categories"
+                    description = "Successfully retrieved categories",
+                    content = @io.swagger.v3.oas.annotations.media.Content(mediaType = "application/json",
+                            array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = CategoryResponse.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the ETag sent in If-None-Match"
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -41,9 +52,8 @@ public class CategoryController {
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<List<CategoryResponse>> getAllCategories() {
+    public ResponseEntity<?> getAllCategories(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.debug("GET /api/categories");
-        List<CategoryResponse> categories = categoryService.findAll();
-        return ResponseEntity.ok(categories);
+        return ReferenceDataResponses.of(categoryService.snapshot(), maxAge, accept);
     }
 }
@@ -9,10 +9,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/courses")
@@ -20,8 +22,12 @@ import java.util.List;
 public class CourseController {
     private static final Logger log = LoggerFactory.getLogger(CourseController.class);
     private final CourseService courseService;
-    public CourseController(CourseService courseService) {
+    private final Duration maxAge;
+
+    public CourseController(CourseService courseService,
+                             @Value("${reference-data.cache.max-age:1h}") Duration maxAge) {
         this.courseService = courseService;
+        this.maxAge = maxAge;
     }
     @GetMapping
     @Operation(
@@ -31,7 +37,13 @@ public class CourseController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved courses"
+                    description = "Successfully retrieved courses",
+                    content = @io.swagger.v3.oas.annotations.media.Content(mediaType = "application/json",
+                            array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = CourseResponse.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the ETag sent in If-None-Match"
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -39,10 +51,8 @@ public class CourseController {
                     content = @io.swagger.v3.oas.annotations.media.Content(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<List<CourseResponse>> getAllCourses() {
-        log.debug("GET /api/courses");
+    public ResponseEntity<?> getAllCourses(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.debug("GET /api/courses");
-        List<CourseResponse> courses = courseService.findAll();
-        return ResponseEntity.ok(courses);
+        return ReferenceDataResponses.of(courseService.snapshot(), maxAge, accept);
     }
 }
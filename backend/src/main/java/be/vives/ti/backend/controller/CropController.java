@@ -5,7 +5,10 @@ import be.vives.ti.backend.dto.request.CreateCropRequest;
 import be.vives.ti.backend.dto.request.UpdateCropRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
 import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.model.CropActivity;
+import be.vives.ti.backend.model.CropLocation;
 import be.vives.ti.backend.service.CropService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,11 +23,16 @@ import org.slf4j.LoggerFactory;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.time.Month;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/crops")
@@ -47,14 +55,27 @@ public class CropController {
                         - `page`: Page number (0-indexed, default:0)
                         - `size`: Items per page (default:20)
                         - `sort`: Sort field and direction
+                       **Cursor parameters** (query params, skip the page count and offset):
+                        - `after`: Cursor from the `next` field of the previous slice, empty for the first slice
+                        - `size`: Items per slice (default:20), always sorted by name
                     """
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successfully retrieved list of crops", content = @Content(schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
             @ApiResponse(responseCode = "400", description = "Invalid pagination parameters supplied", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<?> getAll(@ParameterObject Pageable pageable) {
+    public ResponseEntity<?> getAll(@ParameterObject Pageable pageable,
+                                    @Parameter(description = "Cursor of the previous slice, enables cursor pagination") @RequestParam(required = false) String after,
+                                    WebRequest webRequest) {
         log.debug("GET /api/crops");
+        String etag = ETags.forCollection(cropService.collectionVersion(), webRequest);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (after != null) {
+            return ResponseEntity.ok(cropService.findAllAfter(after, pageable.getPageSize()));
+        }
         Page<CropResponse> crops = cropService.findAll(pageable);
         return ResponseEntity.ok(crops);
     }
@@ -85,7 +106,8 @@ public class CropController {
         if (crop == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(crop);
+        String etag = ETags.forVersion(crop.version());
+        return etag == null ? ResponseEntity.ok(crop) : ResponseEntity.ok().eTag(etag).body(crop);
     }
 
     @GetMapping("/search")
@@ -110,6 +132,31 @@ public class CropController {
         return ResponseEntity.ok(crops);
     }
 
+    @GetMapping("/calendar")
+    @Operation(
+            summary = "Get crops for a month",
+            description = """
+                    Retrieves the crops that can be sown, planted or harvested in the given month.
+                    Ranges that wrap around the new year (e.g. NOVEMBER to FEBRUARY) are taken into account.
+                       **Filter parameters** (query params):
+                        - `month`: Month name, e.g. `MARCH`
+                        - `activity`: `SOW`, `PLANT` or `HARVEST`, any of them when omitted
+                        - `location`: `HOUSE`, `POTS`, `GARDEN` and/or `GREENHOUSE`, repeatable, the crop must suit all of them
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Successfully retrieved list of crops", content = @Content(schema = @Schema(implementation = Page.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid month, activity or location", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<Page<CropResponse>> getCalendar(
+            @Parameter(description = "month", required = true) @RequestParam Month month,
+            @Parameter(description = "activity") @RequestParam(required = false) CropActivity activity,
+            @Parameter(description = "location") @RequestParam(required = false) List<CropLocation> location,
+            @ParameterObject Pageable pageable) {
+        log.debug("GET /api/crops/calendar?month={}&activity={}&location={}", month, activity, location);
+        return ResponseEntity.ok(cropService.findByCalendar(month, activity, location, pageable));
+    }
+
     @PostMapping
     @Operation(
             summary = "Add a new crop",
@@ -124,7 +171,7 @@ public class CropController {
             )
     })
     public ResponseEntity<?> createCrop(@Valid @RequestBody CreateCropRequest request) {
-        log.debug("POST /api/crops - {}", request);
+        log.debug("POST /api/crops");
         CropResponse created = cropService.create(request);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
@@ -172,12 +219,65 @@ public class CropController {
             @Parameter(description = "ID of the crop to update", required = true)
             @PathVariable int id,
             @Valid @RequestBody UpdateCropRequest request) {
-        log.debug("PUT /api/crops/{} - {}", id, request);
+        log.debug("PUT /api/crops/{}", id);
         return cropService.update(id, request)
                 .map(updatedCrop -> ResponseEntity.ok().body(updatedCrop))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+            summary = "Partially update a crop",
+            description = """
+                    Applies a JSON merge patch (RFC 7396) to an existing crop: only the fields in the body change,
+                    a field set to null is cleared.
+                    Send the ETag of the crop in `If-Match` to make sure nobody changed it in the meantime.
+                    """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully updated crop, the ETag header holds the new version"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid patch",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Crop not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The crop was changed by someone else",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<CropResponse> patchCrop(
+            @Parameter(description = "ID of the crop to update", required = true)
+            @PathVariable int id,
+            @Parameter(description = "ETag of the version the patch is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch) {
+        log.debug("PATCH /api/crops/{}", id);
+        return cropService.patch(id, patch, ETags.fromIfMatch(ifMatch))
+                .map(patchedCrop -> ResponseEntity.ok().eTag(ETags.forVersion(patchedCrop.version())).body(patchedCrop))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete a crop",
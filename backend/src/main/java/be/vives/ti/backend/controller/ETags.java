@@ -0,0 +1,84 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.exceptions.GardeningappException;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.WebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Strong ETags for list endpoints. The tag combines the collection version reported by the service with the
+ * query parameters and the Accept header, because every page, size, sort, view or encoding (JSON, CBOR, Smile) of the
+ * same collection is a different representation.
+ * When {@code WebRequest.checkNotModified} matches, controllers return null: the 304 status and ETag header are
+ * already set, and no entities are loaded or serialized.
+ * Single crops and recipes are tagged with their version instead, which PATCH requests send back in If-Match. That tag
+ * is strong, so it can satisfy If-Match; every encoding of a version gets the same tag, and caches keep the encodings
+ * apart because responses name Accept in Vary (see WebConfig).
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the ETag for the current request, or null when the service could not report a version.
+     */
+    static String forCollection(String collectionVersion, WebRequest request) {
+        if (collectionVersion == null) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(collectionVersion);
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            key.append('&').append(parameter.getKey()).append('=').append(String.join(",", parameter.getValue()));
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept != null) {
+            key.append('|').append(accept);
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(key.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * ETag for a single crop or recipe, taken from its @Version; null when the version is unknown.
+     */
+    static String forVersion(Long version) {
+        return version == null ? null : "\"" + version + "\"";
+    }
+
+    /**
+     * Reads the versions a change may apply to out of an If-Match header sent back by a client; null when the header is
+     * missing or is {@code *} (any version). If-Match compares strongly, so a weak tag never matches: it is left out,
+     * and a header with only weak tags gives an empty set that no version is in.
+     */
+    static Set<Long> fromIfMatch(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.isEmpty()) {
+            throw new GardeningappException("Invalid If-Match header: " + ifMatch);
+        }
+        Set<Long> versions = new HashSet<>();
+        for (ETag tag : tags) {
+            if (tag.isWildcard()) {
+                return null;
+            }
+            if (!tag.weak()) {
+                try {
+                    versions.add(Long.valueOf(tag.tag()));
+                } catch (NumberFormatException e) {
+                    throw new GardeningappException("Invalid If-Match header: " + ifMatch);
+                }
+            }
+        }
+        return versions;
+    }
+}
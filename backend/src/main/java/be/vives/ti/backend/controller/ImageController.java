@@ -0,0 +1,188 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.dto.response.ImageResponse;
+import be.vives.ti.backend.exceptions.ResourceNotFoundException;
+import be.vives.ti.backend.service.ImageFormat;
+import be.vives.ti.backend.service.ImageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/images")
+@Tag(name = "Image Management", description = "APIs for uploading and serving images")
+public class ImageController {
+    private static final Logger log = LoggerFactory.getLogger(ImageController.class);
+
+    // request attributes of Tomcat's sendfile support, see its DefaultServlet
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // the content behind an image URL never changes, so clients and proxies keep it without revalidating
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final ImageService imageService;
+    private final long sendfileThreshold;
+
+    public ImageController(ImageService imageService,
+                           @Value("${images.sendfile-threshold:48KB}") DataSize sendfileThreshold) {
+        this.imageService = imageService;
+        this.sendfileThreshold = sendfileThreshold.toBytes();
+    }
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Upload an image",
+            description = """
+                    Uploads a JPEG, PNG or GIF image as the multipart part `file` and returns its URL, to use as the
+                    image of a recipe or crop, and the URLs of its thumbnails, for lists and cards.
+                    An image that was uploaded before is not stored again; the same URLs are returned with status 200.
+                    """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Image stored",
+                    content = @Content(schema = @Schema(implementation = ImageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "The same image was already stored",
+                    content = @Content(schema = @Schema(implementation = ImageResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Not a JPEG, PNG or GIF image, or too many pixels",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "413",
+                    description = "The file is larger than the maximum upload size",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<ImageResponse> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        log.debug("POST /api/images");
+        ImageService.StoredImage image;
+        // the part was written to a temporary file while the request was read, it is streamed from there
+        try (InputStream content = file.getInputStream()) {
+            image = imageService.store(content);
+        }
+        ImageResponse response = toResponse(image);
+        if (image.duplicate()) {
+            return ResponseEntity.ok().location(URI.create(response.url())).body(response);
+        }
+        return ResponseEntity.created(URI.create(response.url())).body(response);
+    }
+
+    @GetMapping("/{hash}.{extension}")
+    @Operation(
+            summary = "Get an uploaded image",
+            description = """
+                    Returns the image as it was uploaded. The response may be cached forever.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The image"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Image not found", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public void getImage(@Parameter(description = "SHA-256 of the image", required = true) @PathVariable String hash,
+                         @Parameter(description = "jpg, png or gif", required = true) @PathVariable String extension,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("GET /api/images/{}.{}", hash, extension);
+        Path image = imageService.findImage(hash, extension)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
+        serve(image, ImageFormat.fromExtension(extension).orElseThrow().contentType(), hash, request, response);
+    }
+
+    @GetMapping("/thumbnails/{size}/{hash}.jpg")
+    @Operation(
+            summary = "Get a thumbnail of an uploaded image",
+            description = """
+                    Returns the image scaled down to the given size (its longest side, in pixels) as JPEG.
+                    The sizes are listed in the upload response. The response may be cached forever.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "The thumbnail"),
+            @ApiResponse(responseCode = "304", description = "Not modified since the ETag sent in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Image not found, or not a thumbnail size", content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public void getThumbnail(@Parameter(description = "Thumbnail size", required = true) @PathVariable int size,
+                             @Parameter(description = "SHA-256 of the image", required = true) @PathVariable String hash,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("GET /api/images/thumbnails/{}/{}.jpg", size, hash);
+        Path thumbnail = imageService.findThumbnail(hash, size)
+                .orElseThrow(() -> new ResourceNotFoundException("Image not found"));
+        serve(thumbnail, MediaType.IMAGE_JPEG_VALUE, hash + "-" + size, request, response);
+    }
+
+    private ImageResponse toResponse(ImageService.StoredImage image) {
+        Map<Integer, String> thumbnails = new LinkedHashMap<>();
+        for (int size : imageService.thumbnailSizes().reversed()) {
+            thumbnails.put(size, "/api/images/thumbnails/" + size + "/" + image.hash() + ".jpg");
+        }
+        return new ImageResponse(image.hash(), image.format().contentType(), image.size(),
+                "/api/images/" + image.hash() + "." + image.format().extension(), thumbnails);
+    }
+
+    private void serve(Path file, String contentType, String etag, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + etag + "\"")) {
+            return;
+        }
+        long length = Files.size(file);
+        response.setContentType(contentType);
+        response.setContentLengthLong(length);
+        if (length >= sendfileThreshold && "GET".equals(request.getMethod())
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat copies the file to the socket in the kernel (sendfile) once this request returns, the bytes
+            // never pass through the heap; small files are cheaper to write directly
+            request.setAttribute(SENDFILE_FILENAME, file.toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+        try (OutputStream out = response.getOutputStream()) {
+            Files.copy(file, out);
+        }
+    }
+}
@@ -5,6 +5,7 @@ import be.vives.ti.backend.dto.response.ErrorResponse;
 import be.vives.ti.backend.dto.response.IngredientResponse;
 import be.vives.ti.backend.service.IngredientService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,6 +19,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
@@ -35,18 +37,35 @@ public class IngredientController {
     @GetMapping
     @Operation(
             summary = "Get all ingredients",
-            description = "Retrieves a list of all ingredients."
+            description = """
+                    Retrieves a list of all ingredients.
+                    **Cursor parameters** (query params, skip the page count and offset):
+                    - `after`: Cursor from the `next` field of the previous slice, empty for the first slice
+                    - `size`: Items per slice (default:20), always sorted by name
+                    """
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Successfully retrieved ingredients",
                     content = @Content(schema = @Schema(implementation = Page.class))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the ETag sent in If-None-Match"
             )
     })
-    public ResponseEntity<Page<IngredientResponse>> getAllIngredients(@ParameterObject Pageable pageable) {
-        log.debug("GET /api/ingredients");
+    public ResponseEntity<?> getAllIngredients(@ParameterObject Pageable pageable,
+                                               @Parameter(description = "Cursor of the previous slice, enables cursor pagination") @RequestParam(required = false) String after,
+                                               WebRequest webRequest) {
         log.debug("GET /api/ingredients");
+        String etag = ETags.forCollection(ingredientService.collectionVersion(), webRequest);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (after != null) {
+            return ResponseEntity.ok(ingredientService.findAllAfter(after, pageable.getPageSize()));
+        }
         Page<IngredientResponse> ingredients = ingredientService.findAll(pageable);
         return ResponseEntity.ok(ingredients);
     }
@@ -69,7 +88,7 @@ public class IngredientController {
             )
     })
     public ResponseEntity<IngredientResponse> create(@Valid @RequestBody CreateIngredientRequest request){
-        log.debug("POST /api/ingredients - {}", request);
+        log.debug("POST /api/ingredients");
         IngredientResponse createdIngredient = ingredientService.create(request);
         URI location = ServletUriComponentsBuilder.fromCurrentRequest()
                 .path("/{id}")
@@ -11,10 +11,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.Duration;
 
 @RestController
 @RequestMapping("/api/measurements")
@@ -22,8 +24,12 @@ import java.util.List;
 public class MeasurementController {
     private static final Logger log = LoggerFactory.getLogger(MeasurementController.class);
     private final MeasurementService measurementService;
-    public MeasurementController(MeasurementService measurementService) {
+    private final Duration maxAge;
+
+    public MeasurementController(MeasurementService measurementService,
+                                  @Value("${reference-data.cache.max-age:1h}") Duration maxAge) {
         this.measurementService = measurementService;
+        this.maxAge = maxAge;
     }
 
     @GetMapping
@@ -34,7 +40,13 @@ public class MeasurementController {
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
-                    description = "Successfully retrieved measurements"
+                    description = "Successfully retrieved measurements",
+                    content = @io.swagger.v3.oas.annotations.media.Content(mediaType = "application/json",
+                            array = @io.swagger.v3.oas.annotations.media.ArraySchema(schema = @io.swagger.v3.oas.annotations.media.Schema(implementation = MeasurementResponse.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the ETag sent in If-None-Match"
             ),
             @ApiResponse(
                     responseCode = "500",
@@ -42,10 +54,8 @@ public class MeasurementController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<List<MeasurementResponse>> getAllMeasurements() {
-        log.debug("GET /api/measurements");
+    public ResponseEntity<?> getAllMeasurements(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         log.debug("GET /api/measurements");
-        List<MeasurementResponse> measurements = measurementService.findAll();
-        return ResponseEntity.ok(measurements);
+        return ReferenceDataResponses.of(measurementService.snapshot(), maxAge, accept);
     }
 }
@@ -1,10 +1,16 @@
 package be.vives.ti.backend.controller;
 
+import be.vives.ti.backend.dto.request.BulkCreateRecipesRequest;
 import be.vives.ti.backend.dto.request.CreateRecipeRequest;
+import be.vives.ti.backend.dto.request.RecipeMatchRequest;
 import be.vives.ti.backend.dto.request.UpdateRecipeRequest;
+import be.vives.ti.backend.dto.response.BulkCreateRecipesResponse;
 import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.dto.response.RecipeMatchResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.service.RecipeService;
+import com.fasterxml.jackson.databind.JsonNode;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -19,11 +25,16 @@ import org.slf4j.LoggerFactory;
 import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.net.URI;
+import java.util.List;
 
 
 @RestController
@@ -47,6 +58,11 @@ public class RecipeController {
                     - `page`: Page number (0-indexed, default:0)
                     - `size`: Items per page (default:20)
                     - `sort`: Sort field and direction
+                    - `view`: `summary` returns card data only (no quantities or steps)
+                    **Cursor parameters** (query params, skip the page count and offset):
+                    - `after`: Cursor from the `next` field of the previous slice, empty for the first slice
+                    - `size`: Items per slice (default:20), always sorted by name
+                    - `view`: `summary` returns card data only here as well
                     """
     )
     @ApiResponses(value = {
@@ -54,19 +70,129 @@ public class RecipeController {
                     responseCode = "200",
                     description = "Successfully retrieved recipes",
                     content = @Content(schema = @Schema(implementation = Page.class))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Not modified since the ETag sent in If-None-Match"
             )
     })
-    public ResponseEntity<Page<RecipeResponse>> getAll(@ParameterObject Pageable pageable){
+    public ResponseEntity<?> getAll(@ParameterObject Pageable pageable,
+                                    @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view,
+                                    @Parameter(description = "Cursor of the previous slice, enables cursor pagination") @RequestParam(required = false) String after,
+                                    WebRequest webRequest){
         log.debug("GET /api/recipes");
+        String etag = ETags.forCollection(recipeService.collectionVersion(), webRequest);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        if (after != null) {
+            if (isSummary(view)) {
+                return ResponseEntity.ok(recipeService.findAllSummariesAfter(after, pageable.getPageSize()));
+            }
+            return ResponseEntity.ok(recipeService.findAllAfter(after, pageable.getPageSize()));
+        }
+        if (isSummary(view)) {
+            return ResponseEntity.ok(recipeService.findAllSummaries(pageable));
+        }
         Page<RecipeResponse> recipes = recipeService.findAll(pageable);
         return ResponseEntity.ok(recipes);
     }
 
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Import recipes",
+            description = """
+                    Creates up to 500 recipes in a single transaction: either all of them are saved or none.
+                    Fails when a name is already in use (or repeated in the import) or a referenced id doesn't exist.
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "Recipes imported, ids in the order of the request",
+                    content = @Content(schema = @Schema(implementation = BulkCreateRecipesResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request data, duplicate name or unknown reference",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<BulkCreateRecipesResponse> createRecipes(@Valid @RequestBody BulkCreateRecipesRequest request){
+        log.debug("POST /api/recipes/bulk - {} recipes", request.recipes().size());
+        List<Integer> ids = recipeService.createAll(request.recipes());
+        return ResponseEntity.status(HttpStatus.CREATED).body(new BulkCreateRecipesResponse(ids.size(), ids));
+    }
+
+    @PostMapping("/match")
+    @Operation(
+            summary = "Find recipes for the ingredients at hand",
+            description = """
+                    Matches recipes against the ingredients and/or harvested crops the user has (crops count as their ingredients).
+                    - `ANY`: recipes using at least one of them, most matched ingredients first
+                    - `ALL`: recipes that need nothing else
+                    - `RANKED` (default): recipes using at least one of them, fewest missing ingredients first
+                    **Pagination parameters** (query params):
+                    - `page`: Page number (0-indexed, default:0)
+                    - `size`: Items per page (default:20)
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching recipes with matched and missing ingredient counts",
+                    content = @Content(schema = @Schema(implementation = Page.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "No ingredients or crops given",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<Page<RecipeMatchResponse>> match(@Valid @RequestBody RecipeMatchRequest request,
+                                                           @ParameterObject Pageable pageable){
+        log.debug("POST /api/recipes/match");
+        return ResponseEntity.ok(recipeService.match(request, pageable));
+    }
+
+    @GetMapping("/search")
+    @Operation(
+            summary = "Search recipes",
+            description = """
+                    Full-text search over recipe name, description, ingredient names and step text.
+                    Every word of `q` has to match, as a whole word or as the start of one.
+                    Results are summaries ranked by relevance: name matches first, then ingredients, then description and steps.
+                    **Pagination parameters** (query params):
+                    - `page`: Page number (0-indexed, default:0)
+                    - `size`: Items per page (default:20)
+                    """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Matching recipes, best match first",
+                    content = @Content(schema = @Schema(implementation = Page.class))
+            )
+    })
+    public ResponseEntity<Page<RecipeSummaryResponse>> search(@Parameter(description = "Search words", required = true) @RequestParam String q,
+                                                              @ParameterObject Pageable pageable){
+        log.debug("GET /api/recipes/search?q={}", q);
+        return ResponseEntity.ok(recipeService.search(q, pageable));
+    }
+
         @GetMapping("/{id}")
         @Operation(summary = "Get recipe by id")
         public ResponseEntity<RecipeResponse> getById(@Parameter(description = "Recipe ID", required = true) @PathVariable int id){
                 log.debug("GET /api/recipes/{}", id);
-                return recipeService.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+                return recipeService.findById(id)
+                        .map(recipe -> recipe.version() == null ? ResponseEntity.ok(recipe)
+                                : ResponseEntity.ok().eTag(ETags.forVersion(recipe.version())).body(recipe))
+                        .orElse(ResponseEntity.notFound().build());
         }
 
     @GetMapping("/category/{catId}")
@@ -79,6 +205,7 @@ public class RecipeController {
                           - `page`: Page number (0-indexed, default: 0)
                           - `size`: Items per page (default: 20)
                           - `sort`: Sort field and direction (e.g., `name,asc` or `price,desc`)
+                          - `view`: `summary` returns card data only (no quantities or steps)
                           """
     )
     @ApiResponses(value ={
@@ -93,8 +220,12 @@ public class RecipeController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<Page<RecipeResponse>> getByCatId(@Parameter(description = "Category ID", required = true) @PathVariable int catId,@ParameterObject Pageable pageable){
+    public ResponseEntity<Page<?>> getByCatId(@Parameter(description = "Category ID", required = true) @PathVariable int catId,@ParameterObject Pageable pageable,
+                                              @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view){
         log.debug("GET /api/recipes/category/{}", catId);
+        if (isSummary(view)) {
+            return ResponseEntity.ok(recipeService.findSummariesByCatId(catId, pageable));
+        }
         Page<RecipeResponse> recipes = recipeService.findByCatId(catId, pageable);
         return ResponseEntity.ok(recipes);
 
@@ -110,6 +241,7 @@ public class RecipeController {
                           - `page`: Page number (0-indexed, default: 0)
                           - `size`: Items per page (default: 20)
                           - `sort`: Sort field and direction (e.g., `name,asc` or `price,desc`)
+                          - `view`: `summary` returns card data only (no quantities or steps)
                           """
     )
     @ApiResponses(value ={
@@ -124,8 +256,12 @@ public class RecipeController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<Page<RecipeResponse>> getByCourseId(@Parameter(description = "Course ID", required = true) @PathVariable int courseId,@ParameterObject Pageable pageable){
+    public ResponseEntity<Page<?>> getByCourseId(@Parameter(description = "Course ID", required = true) @PathVariable int courseId,@ParameterObject Pageable pageable,
+                                                 @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view){
         log.debug("GET /api/recipes/course/{}", courseId);
+        if (isSummary(view)) {
+            return ResponseEntity.ok(recipeService.findSummariesByCourseId(courseId, pageable));
+        }
         Page<RecipeResponse> recipes = recipeService.findByCourseId(courseId, pageable);
         return ResponseEntity.ok(recipes);
     }
@@ -140,6 +276,7 @@ public class RecipeController {
                           - `page`: Page number (0-indexed, default: 0)
                           - `size`: Items per page (default: 20)
                           - `sort`: Sort field and direction (e.g., `name,asc` or `price,desc`)
+                          - `view`: `summary` returns card data only (no quantities or steps)
                           """
     )
     @ApiResponses(value ={
@@ -154,8 +291,12 @@ public class RecipeController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<Page<RecipeResponse>> getByIngredientId(@Parameter(description = "Ingredient ID", required = true) @PathVariable int ingrId,@ParameterObject Pageable pageable){
+    public ResponseEntity<Page<?>> getByIngredientId(@Parameter(description = "Ingredient ID", required = true) @PathVariable int ingrId,@ParameterObject Pageable pageable,
+                                                     @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view){
         log.debug("GET /api/recipes/ingredient/{}", ingrId);
+        if (isSummary(view)) {
+            return ResponseEntity.ok(recipeService.findSummariesByIngredientId(ingrId, pageable));
+        }
         Page<RecipeResponse> recipes = recipeService.findByIngredientId(ingrId, pageable);
         return ResponseEntity.ok(recipes);
     }
@@ -183,7 +324,7 @@ public class RecipeController {
             )
     })
     public ResponseEntity<RecipeResponse> createRecipe(@Valid @RequestBody CreateRecipeRequest request){
-        log.debug("POST /api/recipes - {}", request);
+        log.debug("POST /api/recipes");
 
         RecipeResponse created = recipeService.create(request);
 
@@ -231,12 +372,67 @@ public class RecipeController {
     public ResponseEntity<RecipeResponse> updateRecipe(
             @Parameter(description = "Recipe ID", required = true) @PathVariable int id,
             @Valid @RequestBody UpdateRecipeRequest request){
-        log.debug("PUT /api/recipes/{} - {}", id, request);
+        log.debug("PUT /api/recipes/{}", id);
         return recipeService.update(id, request)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+            summary = "Partially update a recipe",
+            description = """
+                    Applies a JSON merge patch (RFC 7396) to an existing recipe. Requires ADMIN role.
+                    Only the fields in the body change and a field set to null is cleared; `quantities` and `steps`
+                    are arrays, so when present they replace the whole list (lines keep their rows when they carry
+                    their `id`).
+                    Send the ETag of the recipe in `If-Match` to make sure nobody changed it in the meantime.
+                    """,
+            security = @SecurityRequirement(name = "bearerAuth")
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Recipe updated successfully, the ETag header holds the new version",
+                    content = @Content(schema = @Schema(implementation = RecipeResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid patch",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "401",
+                    description = "Unauthorized - JWT token missing or invalid",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "403",
+                    description = "Forbidden - ADMIN role required",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Recipe not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The recipe was changed by someone else",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    public ResponseEntity<RecipeResponse> patchRecipe(
+            @Parameter(description = "Recipe ID", required = true) @PathVariable int id,
+            @Parameter(description = "ETag of the version the patch is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody JsonNode patch){
+        log.debug("PATCH /api/recipes/{}", id);
+        return recipeService.patch(id, patch, ETags.fromIfMatch(ifMatch))
+                .map(recipe -> ResponseEntity.ok().eTag(ETags.forVersion(recipe.version())).body(recipe))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @DeleteMapping("/{id}")
     @Operation(
             summary = "Delete a recipe",
@@ -268,4 +464,8 @@ public class RecipeController {
         }
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean isSummary(String view) {
+        return "summary".equalsIgnoreCase(view);
+    }
 }
@@ -0,0 +1,46 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.service.ReferenceData;
+import org.springframework.http.CacheControl;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Responses for the reference data lists (categories, courses, measurements). For JSON the body is the snapshot's JSON
+ * as is, nothing is mapped or serialized per request. A client that prefers CBOR or Smile gets the snapshot's list,
+ * written by the message converters, under the weak form of the same ETag.
+ * With the ETag on the ResponseEntity Spring answers a matching If-None-Match with a 304 itself, Cache-Control
+ * included, so clients can keep the list for max-age and then revalidate it cheaply.
+ */
+final class ReferenceDataResponses {
+
+    private ReferenceDataResponses() {
+    }
+
+    static ResponseEntity<?> of(ReferenceData<?, ?> data, Duration maxAge, String accept) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.maxAge(maxAge));
+        if (prefersJson(accept)) {
+            return response.contentType(MediaType.APPLICATION_JSON).eTag(data.etag()).body(data.json());
+        }
+        return response.eTag("W/" + data.etag()).body(data.list());
+    }
+
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(mediaTypes);
+            return mediaTypes.isEmpty() || mediaTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+        } catch (InvalidMediaTypeException e) {
+            // the message converters answer it
+            return false;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import be.vives.ti.backend.dto.response.CropResponse;
 import be.vives.ti.backend.dto.response.ErrorResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
 import be.vives.ti.backend.dto.response.UserResponse;
+import be.vives.ti.backend.exceptions.GardeningappException;
 import be.vives.ti.backend.security.JwtUtil;
 import be.vives.ti.backend.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -127,7 +128,7 @@ public class UserController {
             )
     })
     public ResponseEntity<UserResponse> createUser(@Valid @RequestBody CreateUserRequest request){
-        log.debug("POST /api/users - {}", request);
+        log.debug("POST /api/users");
         UserResponse createdUser = userService.create(request);
 
         URI location = ServletUriComponentsBuilder
@@ -141,13 +142,24 @@ public class UserController {
     @GetMapping("/{id}/favorite-crops")
     @Operation(
             summary = "Get favorite crops of a user",
-            description = "Retrieves the favorite crops of a user by their unique ID. Requires USER or ADMIN role."
+            description = """
+                    Retrieves the favorite crops of a user by their unique ID. Requires USER or ADMIN role.
+                    
+                    - without parameters: every favorite as a full crop
+                    - `fields=id`: only the ids of the favorite crops, e.g. to mark hearts in a list
+                    - `view=summary`: a page of summaries (id, name, image), with `page`, `size` and `sort` (e.g. `name,asc`)
+                    """
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Successfully retrieved favorite crops"
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported fields value",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized - JWT token missing or invalid",
@@ -159,9 +171,18 @@ public class UserController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<List<CropResponse>> getFavoriteCrops(@Parameter(description = "User ID", required = true) @PathVariable int id){
+    public ResponseEntity<?> getFavoriteCrops(@Parameter(description = "User ID", required = true) @PathVariable int id,
+                                              @ParameterObject Pageable pageable,
+                                              @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view,
+                                              @Parameter(description = "Only `id` is supported: return the ids only") @RequestParam(required = false) String fields){
         log.debug("GET /api/users/{}/favorite-crops", id);
-        var favoriteCrops = userService.findFavoriteCrops(id);
+        if (isIdsOnly(fields)) {
+            return ResponseEntity.ok(userService.findFavoriteCropIds(id));
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(userService.findFavoriteCropSummaries(id, pageable));
+        }
+        List<CropResponse> favoriteCrops = userService.findFavoriteCrops(id);
         return ResponseEntity.ok(favoriteCrops);
     }
 
@@ -190,15 +211,13 @@ public class UserController {
             @Parameter(description = "User ID", required = true) @PathVariable int userId,
             @Parameter(description = "Crop ID", required = true) @PathVariable int cropId){
                 log.debug("POST /api/users/{}/favorite-crops/{}", userId, cropId);
-                try {
+                if (log.isDebugEnabled()) {
                         var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
                         if (auth == null) {
                                 log.debug("Authentication on addFavoriteCrop: null");
                         } else {
                                 log.debug("Authentication on addFavoriteCrop: principal={} authorities={}", auth.getName(), auth.getAuthorities());
                         }
-                } catch (Exception ex) {
-                        log.debug("Failed to read SecurityContext authentication: {}", ex.getMessage());
                 }
         userService.addFavoriteCrop(userId, cropId);
         return ResponseEntity.ok().build();
@@ -236,13 +255,24 @@ public class UserController {
     @GetMapping("/{id}/favorite-recipes")
     @Operation(
             summary = "Get favorite recipes of a user",
-            description = "Retrieves the favorite recipes of a user by their unique ID. Requires USER or ADMIN role."
+            description = """
+                    Retrieves the favorite recipes of a user by their unique ID. Requires USER or ADMIN role.
+                    
+                    - without parameters: every favorite as a full recipe
+                    - `fields=id`: only the ids of the favorite recipes, e.g. to mark hearts in a list
+                    - `view=summary`: a page of recipe cards (no quantities or steps), with `page`, `size` and `sort` (e.g. `recipeName,asc`)
+                    """
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "Successfully retrieved favorite recipes"
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported fields value",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+            ),
             @ApiResponse(
                     responseCode = "401",
                     description = "Unauthorized - JWT token missing or invalid",
@@ -254,9 +284,18 @@ public class UserController {
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))
             )
     })
-    public ResponseEntity<List<RecipeResponse>> getFavoriteRecipes(@Parameter(description = "User ID", required = true) @PathVariable int id){
+    public ResponseEntity<?> getFavoriteRecipes(@Parameter(description = "User ID", required = true) @PathVariable int id,
+                                                @ParameterObject Pageable pageable,
+                                                @Parameter(description = "Response view: full (default) or summary") @RequestParam(required = false) String view,
+                                                @Parameter(description = "Only `id` is supported: return the ids only") @RequestParam(required = false) String fields){
         log.debug("GET /api/users/{}/favorite-recipes", id);
-        var favoriteRecipes = userService.getFavoriteRecipes(id);
+        if (isIdsOnly(fields)) {
+            return ResponseEntity.ok(userService.findFavoriteRecipeIds(id));
+        }
+        if ("summary".equalsIgnoreCase(view)) {
+            return ResponseEntity.ok(userService.findFavoriteRecipeSummaries(id, pageable));
+        }
+        List<RecipeResponse> favoriteRecipes = userService.getFavoriteRecipes(id);
         return ResponseEntity.ok(favoriteRecipes);
     }
 
@@ -348,9 +387,9 @@ public class UserController {
     public ResponseEntity<AuthResponse> updateUser(
             @Parameter(description = "User ID", required = true) @PathVariable int id,
             @Valid @RequestBody UpdateUserRequest request){
-        log.debug("PUT /api/users/{} - {}", id, request);
+        log.debug("PUT /api/users/{}", id);
         UserResponse updatedUser = userService.update(id, request);
-        String newToken = jwtUtil.generateToken(updatedUser.getUserEmail(), "USER");
+        String newToken = jwtUtil.generateToken(updatedUser.getUserEmail(), updatedUser.getRole());
         AuthResponse response = new AuthResponse(
                 updatedUser.getId(),
                 newToken,
@@ -387,4 +426,14 @@ public class UserController {
         userService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    private static boolean isIdsOnly(String fields) {
+        if (fields == null) {
+            return false;
+        }
+        if (!"id".equalsIgnoreCase(fields.trim())) {
+            throw new GardeningappException("Unsupported fields value: " + fields + " (only 'id' is supported)");
+        }
+        return true;
+    }
 }
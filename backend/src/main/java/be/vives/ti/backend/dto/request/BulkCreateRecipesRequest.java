@@ -0,0 +1,16 @@
+package be.vives.ti.backend.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Recipes to import in one transaction")
+public record BulkCreateRecipesRequest(
+        @NotEmpty(message = "At least one recipe is required")
+        @Size(max = 500, message = "At most 500 recipes per import")
+        List<@Valid CreateRecipeRequest> recipes
+) {
+}
@@ -0,0 +1,22 @@
+package be.vives.ti.backend.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(description = "Ingredients and/or harvested crops the user has at hand")
+public record RecipeMatchRequest(
+        @Size(max = 100, message = "At most 100 ingredient ids")
+        List<Integer> ingredientIds,
+        @Size(max = 100, message = "At most 100 crop ids")
+        List<Integer> cropIds,
+        @Schema(description = "ANY: uses at least one of them, ALL: nothing else is needed, RANKED (default): fewest missing ingredients first")
+        Mode mode
+) {
+    public enum Mode {
+        ANY,
+        ALL,
+        RANKED
+    }
+}
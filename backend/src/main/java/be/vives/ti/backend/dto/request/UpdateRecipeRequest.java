@@ -1,6 +1,7 @@
 package be.vives.ti.backend.dto.request;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.DecimalMin;
 
 import java.math.BigDecimal;
@@ -15,16 +16,20 @@ public record UpdateRecipeRequest(
     String imageURL,
     Integer courseId,
     Integer categoryId,
-    List<UpdateQuantityRequest> quantities,
+    List<@Valid UpdateQuantityRequest> quantities,
     List<UpdateRecipeStepRequest> steps
 ) {
     public record UpdateQuantityRequest(
+            @Schema(description = "Id of the existing line to change, omit for a new line")
+            Integer id,
             Integer ingredientId,
             Integer measurementId,
             @DecimalMin(value = "0.0", inclusive = false, message = "Quantity must be greater than zero")
             BigDecimal quantity
     ){}
     public record UpdateRecipeStepRequest(
+            @Schema(description = "Id of the existing step to change, omit for a new step")
+            Integer id,
             Integer stepNumber,
             String description
     ){}
@@ -0,0 +1,9 @@
+package be.vives.ti.backend.dto.response;
+
+import java.util.List;
+
+public record BulkCreateRecipesResponse(
+        int created,
+        List<Integer> ids
+) {
+}
@@ -0,0 +1,10 @@
+package be.vives.ti.backend.dto.response;
+
+public record CacheStatsResponse(
+        long size,
+        long hits,
+        long misses,
+        double hitRate,
+        long evictions
+) {
+}
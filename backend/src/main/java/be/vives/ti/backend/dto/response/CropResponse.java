@@ -17,6 +17,7 @@ public record CropResponse(
         Boolean inGreenhouse,
         String cropDescription,
         String cropTips,
-        String image
+        String image,
+        Long version
 ) {
 }
@@ -0,0 +1,8 @@
+package be.vives.ti.backend.dto.response;
+
+public record CropSummaryResponse(
+        Integer id,
+        String name,
+        String image
+) {
+}
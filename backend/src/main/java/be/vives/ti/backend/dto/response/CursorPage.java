@@ -0,0 +1,11 @@
+package be.vives.ti.backend.dto.response;
+
+import java.util.List;
+
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        boolean hasNext,
+        String next
+) {
+}
@@ -0,0 +1,12 @@
+package be.vives.ti.backend.dto.response;
+
+import java.util.Map;
+
+public record ImageResponse(
+        String hash,
+        String contentType,
+        long size,
+        String url,
+        Map<Integer, String> thumbnails
+) {
+}
@@ -0,0 +1,13 @@
+package be.vives.ti.backend.dto.response;
+
+public record PasswordHashingStatsResponse(
+        int threads,
+        int queueCapacity,
+        int active,
+        int queued,
+        long completed,
+        long rejected,
+        long timedOut,
+        double averageMillis
+) {
+}
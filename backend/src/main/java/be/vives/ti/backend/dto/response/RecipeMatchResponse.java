@@ -0,0 +1,11 @@
+package be.vives.ti.backend.dto.response;
+
+import java.util.List;
+
+public record RecipeMatchResponse(
+        RecipeSummaryResponse recipe,
+        int matchedIngredients,
+        int missingIngredients,
+        List<Integer> missingIngredientIds
+) {
+}
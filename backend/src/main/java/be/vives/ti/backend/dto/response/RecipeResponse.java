@@ -13,7 +13,8 @@ public record RecipeResponse(
         Integer courseId,
         Integer categoryId,
         List<RecipeQuantityResponse> recipeQuantities,
-        List<RecipeStepResponse> recipeStepResponses
+        List<RecipeStepResponse> recipeStepResponses,
+        Long version
 ) {
     public record RecipeQuantityResponse(
             Integer id,
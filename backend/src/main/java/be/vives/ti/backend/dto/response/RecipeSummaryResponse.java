@@ -0,0 +1,13 @@
+package be.vives.ti.backend.dto.response;
+
+public record RecipeSummaryResponse(
+        Integer id,
+        String name,
+        String imageURL,
+        String prepTime,
+        String cookTime,
+        Integer courseId,
+        Integer categoryId,
+        Integer authorId
+) {
+}
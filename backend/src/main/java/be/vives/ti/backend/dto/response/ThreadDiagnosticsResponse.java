@@ -0,0 +1,30 @@
+package be.vives.ti.backend.dto.response;
+
+import java.util.List;
+
+public record ThreadDiagnosticsResponse(
+        boolean virtualThreads,
+        int liveThreads,
+        int peakThreads,
+        ConnectionPool connectionPool,
+        boolean threadEventsRecorded,
+        long pinnedEvents,
+        long contendedMonitorEvents,
+        List<ThreadEvent> recentEvents
+) {
+    public record ConnectionPool(
+            int maximum,
+            int active,
+            int idle,
+            int awaiting
+    ) {
+    }
+
+    public record ThreadEvent(
+            String type,
+            String thread,
+            long durationMillis,
+            String frame
+    ) {
+    }
+}
@@ -0,0 +1,25 @@
+package be.vives.ti.backend.exceptions;
+
+import be.vives.ti.backend.dto.response.ErrorResponse;
+
+import java.util.List;
+
+/**
+ * One or more ids in a request point to rows that don't exist. Each missing id is reported as a validation error
+ * on the request field it came from.
+ */
+public class InvalidReferenceException extends GardeningappException {
+
+    private final List<ErrorResponse.ValidationError> validationErrors;
+
+    public InvalidReferenceException(List<ErrorResponse.ValidationError> validationErrors) {
+        super("Unknown references: " + validationErrors.stream()
+                .map(ErrorResponse.ValidationError::field)
+                .toList());
+        this.validationErrors = List.copyOf(validationErrors);
+    }
+
+    public List<ErrorResponse.ValidationError> getValidationErrors() {
+        return validationErrors;
+    }
+}
@@ -0,0 +1,20 @@
+package be.vives.ti.backend.exceptions;
+
+import java.time.Duration;
+
+/**
+ * The server is too busy to handle the request right now; the client should retry after the given delay.
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceBusyException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
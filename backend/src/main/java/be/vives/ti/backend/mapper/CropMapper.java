@@ -16,4 +16,7 @@ public interface CropMapper {
 
     @Mapping(target = "id", ignore = true)
     void updateEntity(UpdateCropRequest request, @MappingTarget Crop crop);
+
+    // current state as an update request, the document a merge patch is applied to
+    UpdateCropRequest toUpdateRequest(Crop crop);
 }
@@ -64,4 +64,16 @@ public interface RecipeMapper {
     @Mapping(target = "quantities", ignore = true)
     @Mapping(target = "steps", ignore = true)
     void updateEntity(UpdateRecipeRequest request, @MappingTarget Recipe recipe);
+
+    // current state as an update request, the document a merge patch is applied to; line ids are kept so unchanged
+    // quantities and steps are matched to their rows again
+    @Mapping(source = "recipeName", target = "name")
+    @Mapping(source = "recipeDescription", target = "description")
+    @Mapping(source = "courseId", target = "courseId")
+    @Mapping(source = "categoryId", target = "categoryId")
+    UpdateRecipeRequest toUpdateRequest(Recipe recipe);
+    @Mapping(source = "ingredient.id", target = "ingredientId")
+    @Mapping(source = "measurement.id", target = "measurementId")
+    UpdateRecipeRequest.UpdateQuantityRequest toUpdateQuantityRequest(RecipeQuantity quantity);
+    UpdateRecipeRequest.UpdateRecipeStepRequest toUpdateStepRequest(RecipeStep step);
 }
@@ -1,19 +1,32 @@
 package be.vives.ti.backend.model;
 
 
+import jakarta.persistence.Column;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.MappedSuperclass;
+import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
+import java.time.Instant;
 import java.util.Objects;
 
 @MappedSuperclass
+@EntityListeners(AuditingEntityListener.class)
 public class BaseEntity {
+    // one sequence per table (crops_seq, recipe_quantities_seq, ...) handing out blocks of 50 ids,
+    // so Hibernate knows ids before inserting and can batch the inserts (IDENTITY disables JDBC batching)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
     protected Integer id;
 
+    // set on insert and update, used to fingerprint whole tables for ETags
+    @LastModifiedDate
+    @Column(name = "last_modified")
+    private Instant lastModified;
+
     public Integer getId() {
         return id;
     }
@@ -22,6 +35,15 @@ public class BaseEntity {
         this.id = id;
     }
 
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    // makes the row dirty when only its children changed, so it gets an UPDATE (and a new @Version) as well
+    public void markModified() {
+        this.lastModified = Instant.now();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
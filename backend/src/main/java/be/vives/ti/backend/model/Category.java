@@ -1,8 +1,11 @@
 package be.vives.ti.backend.model;
 
+import be.vives.ti.backend.model.listener.RecipeCacheInvalidationListener;
+import be.vives.ti.backend.model.listener.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners({RecipeCacheInvalidationListener.class, ReferenceDataChangeListener.class})
 @Table(name = "categories")
 public class Category extends BaseEntity{
     @Column(name = "category_name")
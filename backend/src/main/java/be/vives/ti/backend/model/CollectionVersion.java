@@ -0,0 +1,35 @@
+package be.vives.ti.backend.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+// version of a collection whose ETag can't be read cheaply from its own tables, incremented by every transaction that
+// changes it (see RecipeCollectionVersion)
+@Entity
+@Table(name = "collection_versions")
+public class CollectionVersion {
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private long version;
+
+    public CollectionVersion() {
+    }
+
+    public CollectionVersion(String name, long version) {
+        this.name = name;
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -1,9 +1,12 @@
 package be.vives.ti.backend.model;
 
 
+import be.vives.ti.backend.model.listener.RecipeCacheInvalidationListener;
+import be.vives.ti.backend.model.listener.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners({RecipeCacheInvalidationListener.class, ReferenceDataChangeListener.class})
 @Table(name = "courses")
 public class Course extends BaseEntity{
     @Column(name = "course_name")
@@ -2,10 +2,13 @@ package be.vives.ti.backend.model;
 
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Month;
 
+// dynamic update: a PATCH of one field writes only that column (plus last_modified and version)
 @Entity
+@DynamicUpdate
 @Table(name = "crops")
 public class Crop extends BaseEntity{
     @Column(name = "cropname")
@@ -50,6 +53,23 @@ public class Crop extends BaseEntity{
     @Column(name = "image")
     private String image;
 
+    // derived from the months and location flags above, see CropCalendar
+    @Column(name = "sow_mask")
+    private Integer sowMask;
+
+    @Column(name = "plant_mask")
+    private Integer plantMask;
+
+    @Column(name = "harvest_mask")
+    private Integer harvestMask;
+
+    @Column(name = "location_mask")
+    private Integer locationMask;
+
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Crop() {
 
     }
@@ -82,6 +102,16 @@ public class Crop extends BaseEntity{
         this.cropTips = cropTips;
         this.image = image;
     }
+
+    @PrePersist
+    @PreUpdate
+    public void updateCalendarMasks() {
+        sowMask = CropCalendar.monthMask(sowingStart, sowingEnd);
+        plantMask = CropCalendar.monthMask(plantingStart, plantingEnd);
+        harvestMask = CropCalendar.monthMask(harvestStart, harvestEnd);
+        locationMask = CropCalendar.locationMask(inHouse, inPots, inGarden, inGreenhouse);
+    }
+
     public String getImage() {
         return image;
     }
@@ -130,6 +160,26 @@ public class Crop extends BaseEntity{
         return inGreenhouse;
     }
 
+    public Integer getSowMask() {
+        return sowMask;
+    }
+
+    public Integer getPlantMask() {
+        return plantMask;
+    }
+
+    public Integer getHarvestMask() {
+        return harvestMask;
+    }
+
+    public Integer getLocationMask() {
+        return locationMask;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
     public String getCropDescription() {
         return cropDescription;
     }
@@ -0,0 +1,7 @@
+package be.vives.ti.backend.model;
+
+public enum CropActivity {
+    SOW,
+    PLANT,
+    HARVEST
+}
@@ -0,0 +1,54 @@
+package be.vives.ti.backend.model;
+
+import java.time.Month;
+
+/**
+ * Bit masks behind the crop calendar: bit 0 is January, bit 11 December.
+ * Ranges follow the same rules as the frontend filter: a range may wrap around the new year (November to February),
+ * and a range with only a start or only an end covers that single month.
+ */
+public final class CropCalendar {
+
+    private CropCalendar() {
+    }
+
+    public static int monthBit(Month month) {
+        return 1 << (month.getValue() - 1);
+    }
+
+    public static int monthMask(Month start, Month end) {
+        if (start == null && end == null) {
+            return 0;
+        }
+        if (start == null) {
+            return monthBit(end);
+        }
+        if (end == null) {
+            return monthBit(start);
+        }
+        int mask = 0;
+        Month month = start;
+        while (month != end) {
+            mask |= monthBit(month);
+            month = month.plus(1);
+        }
+        return mask | monthBit(end);
+    }
+
+    public static int locationMask(Boolean inHouse, Boolean inPots, Boolean inGarden, Boolean inGreenhouse) {
+        int mask = 0;
+        if (Boolean.TRUE.equals(inHouse)) {
+            mask |= CropLocation.HOUSE.bit();
+        }
+        if (Boolean.TRUE.equals(inPots)) {
+            mask |= CropLocation.POTS.bit();
+        }
+        if (Boolean.TRUE.equals(inGarden)) {
+            mask |= CropLocation.GARDEN.bit();
+        }
+        if (Boolean.TRUE.equals(inGreenhouse)) {
+            mask |= CropLocation.GREENHOUSE.bit();
+        }
+        return mask;
+    }
+}
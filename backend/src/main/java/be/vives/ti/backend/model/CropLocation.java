@@ -0,0 +1,12 @@
+package be.vives.ti.backend.model;
+
+public enum CropLocation {
+    HOUSE,
+    POTS,
+    GARDEN,
+    GREENHOUSE;
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+}
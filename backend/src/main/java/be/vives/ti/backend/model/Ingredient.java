@@ -1,17 +1,21 @@
 package be.vives.ti.backend.model;
 
+import be.vives.ti.backend.model.listener.RecipeCacheInvalidationListener;
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
 import jakarta.persistence.*;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners({RecipeCacheInvalidationListener.class, RecipeCollectionChangeListener.class})
 @Table(name = "ingredients")
 public class Ingredient extends BaseEntity{
     @Column(name = "ingredient_name")
     private String name;
 
-    @OneToOne
+    // lazy: recipes only show the ingredient's name, and the mapper reads the crop's id from the proxy
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "crop_id", nullable = true)
     private Crop crop;
 
@@ -1,9 +1,14 @@
 package be.vives.ti.backend.model;
 
 
+import be.vives.ti.backend.model.listener.RecipeCacheInvalidationListener;
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
+import be.vives.ti.backend.model.listener.ReferenceDataChangeListener;
 import jakarta.persistence.*;
 
 @Entity
+@EntityListeners({RecipeCacheInvalidationListener.class, RecipeCollectionChangeListener.class,
+        ReferenceDataChangeListener.class})
 @Table(name = "ingredient_measurements")
 public class IngredientMeasurement extends BaseEntity{
     @Column(name = "measurement_name")
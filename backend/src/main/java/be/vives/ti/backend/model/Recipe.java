@@ -1,6 +1,10 @@
 package be.vives.ti.backend.model;
 
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -8,13 +12,17 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(RecipeCollectionChangeListener.class)
 @Table(name = "recipes")
 public class Recipe extends BaseEntity{
     @Column(name = "recipe_name")
     private String recipeName;
 
-    @ManyToOne
+    // deleting the user keeps the recipe without an author (fk_recipes_author ... ON DELETE SET NULL)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "author", nullable = true)
+    @OnDelete(action = OnDeleteAction.SET_NULL)
     private User author;
 
     @Column(name = "recipe_description")
@@ -35,14 +43,19 @@ public class Recipe extends BaseEntity{
     @OneToMany(mappedBy = "recipe", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<RecipeStep> steps = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "course_id")
     private Course course;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
+    // covers the quantities and steps too: RecipeService marks the recipe modified when only a child row changed
+    @Version
+    @Column(name = "version")
+    private Long version;
+
     public Recipe(){
     }
 
@@ -105,6 +118,10 @@ public class Recipe extends BaseEntity{
         return course;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Category getCategory() {
         return category;
     }
@@ -1,10 +1,14 @@
 package be.vives.ti.backend.model;
 
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(RecipeCollectionChangeListener.class)
 @Table(name = "recipe_quantities")
 public class RecipeQuantity extends BaseEntity{
     @ManyToOne
@@ -1,8 +1,12 @@
 package be.vives.ti.backend.model;
 
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
+@EntityListeners(RecipeCollectionChangeListener.class)
 @Table(name = "recipe_steps")
 public class RecipeStep extends BaseEntity{
     @Column(name = "step_number")
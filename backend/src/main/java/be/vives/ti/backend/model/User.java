@@ -1,12 +1,15 @@
 package be.vives.ti.backend.model;
 
 
+import be.vives.ti.backend.model.listener.RecipeCacheInvalidationListener;
+import be.vives.ti.backend.model.listener.RecipeCollectionChangeListener;
 import jakarta.persistence.*;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners({RecipeCacheInvalidationListener.class, RecipeCollectionChangeListener.class})
 @Table(name = "users")
 public class User extends BaseEntity{
     @Column(name = "user_name", length = 100, nullable = false)
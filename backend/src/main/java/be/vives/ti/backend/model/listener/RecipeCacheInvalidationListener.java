@@ -0,0 +1,49 @@
+package be.vives.ti.backend.model.listener;
+
+import be.vives.ti.backend.model.Category;
+import be.vives.ti.backend.model.Course;
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.IngredientMeasurement;
+import be.vives.ti.backend.model.User;
+import be.vives.ti.backend.service.RecipeResponseCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener for the reference data that is copied into a cached RecipeResponse.
+ * Whatever code path updates or removes one of these rows, the recipes embedding it are evicted. Removing a user evicts
+ * their recipes, the database clears the author of those (ON DELETE SET NULL).
+ */
+public class RecipeCacheInvalidationListener {
+
+    // resolved lazily: the listener is created while the EntityManagerFactory is still being built
+    private final ObjectProvider<RecipeResponseCache> recipeResponseCache;
+
+    public RecipeCacheInvalidationListener(ObjectProvider<RecipeResponseCache> recipeResponseCache) {
+        this.recipeResponseCache = recipeResponseCache;
+    }
+
+    @PostUpdate
+    void referenceChanged(Object entity) {
+        recipeResponseCache.ifAvailable(cache -> {
+            switch (entity) {
+                case Ingredient ingredient -> cache.evictByIngredient(ingredient.getId());
+                case IngredientMeasurement measurement -> cache.evictByMeasurement(measurement.getId());
+                case Course course -> cache.evictByCourse(course.getId());
+                case Category category -> cache.evictByCategory(category.getId());
+                default -> { }
+            }
+        });
+    }
+
+    @PostRemove
+    void referenceRemoved(Object entity) {
+        if (entity instanceof User user) {
+            // only the id of the author is in a RecipeResponse, updating a user changes none
+            recipeResponseCache.ifAvailable(cache -> cache.evictByAuthor(user.getId()));
+        } else {
+            referenceChanged(entity);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package be.vives.ti.backend.model.listener;
+
+import be.vives.ti.backend.model.User;
+import be.vives.ti.backend.service.RecipeCollectionVersion;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener for the rows copied into a RecipeResponse: whatever code path adds, changes or removes one of them,
+ * the recipe collection version moves on with the transaction. Removing a user counts too, the database then clears
+ * the author of their recipes (ON DELETE SET NULL).
+ */
+public class RecipeCollectionChangeListener {
+
+    // resolved lazily: the listener is created while the EntityManagerFactory is still being built
+    private final ObjectProvider<RecipeCollectionVersion> recipeCollectionVersion;
+
+    public RecipeCollectionChangeListener(ObjectProvider<RecipeCollectionVersion> recipeCollectionVersion) {
+        this.recipeCollectionVersion = recipeCollectionVersion;
+    }
+
+    @PostPersist
+    @PostUpdate
+    void recipeDataSaved(Object entity) {
+        // a new or changed user is not part of any recipe
+        if (!(entity instanceof User)) {
+            recipeCollectionVersion.ifAvailable(RecipeCollectionVersion::changed);
+        }
+    }
+
+    @PostRemove
+    void recipeDataRemoved(Object entity) {
+        recipeCollectionVersion.ifAvailable(RecipeCollectionVersion::changed);
+    }
+}
@@ -0,0 +1,28 @@
+package be.vives.ti.backend.model.listener;
+
+import be.vives.ti.backend.service.ReferenceDataRegistry;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Entity listener for the rows held by ReferenceDataRegistry: whatever code path adds, changes or removes one of them,
+ * the snapshots are rebuilt once the transaction has committed.
+ */
+public class ReferenceDataChangeListener {
+
+    // resolved lazily: the listener is created while the EntityManagerFactory is still being built
+    private final ObjectProvider<ReferenceDataRegistry> referenceDataRegistry;
+
+    public ReferenceDataChangeListener(ObjectProvider<ReferenceDataRegistry> referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void referenceDataChanged(Object entity) {
+        referenceDataRegistry.ifAvailable(ReferenceDataRegistry::markStale);
+    }
+}
@@ -0,0 +1,13 @@
+package be.vives.ti.backend.repository;
+
+import be.vives.ti.backend.model.CollectionVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface CollectionVersionRepository extends JpaRepository<CollectionVersion, String> {
+    // primary key lookup of the version alone, without loading the entity
+    @Query("SELECT v.version FROM CollectionVersion v WHERE v.name = :name")
+    Optional<Long> findVersion(String name);
+}
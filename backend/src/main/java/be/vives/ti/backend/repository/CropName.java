@@ -0,0 +1,7 @@
+package be.vives.ti.backend.repository;
+
+public record CropName(
+        Integer id,
+        String name
+) {
+}
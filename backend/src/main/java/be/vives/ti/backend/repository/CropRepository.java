@@ -1,13 +1,58 @@
 package be.vives.ti.backend.repository;
 
+import be.vives.ti.backend.dto.response.CropSummaryResponse;
 import be.vives.ti.backend.model.Crop;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface CropRepository extends JpaRepository<Crop, Integer> {
     Page<Crop> findByNameContainingIgnoreCase(String name, Pageable pageable);
     Optional<Crop> findByNameIgnoreCase(String name);
+
+    // keyset (seek) pagination on (name, id): no OFFSET and no COUNT query; a null name sorts as '' so the seek finds it
+    @Query("SELECT c FROM Crop c ORDER BY COALESCE(c.name, ''), c.id")
+    List<Crop> findFirstByName(Limit limit);
+
+    @Query("SELECT c FROM Crop c WHERE COALESCE(c.name, '') > :name OR (COALESCE(c.name, '') = :name AND c.id > :id) "
+            + "ORDER BY COALESCE(c.name, ''), c.id")
+    List<Crop> findNextByName(String name, int id, Limit limit);
+
+    // single query on the precomputed calendar masks; a zero bit skips that activity, locations must all be present
+    // (parameters are cast because H2 can't infer their type inside BITAND)
+    @Query("SELECT c FROM Crop c WHERE (bitand(c.sowMask, cast(:sowBit AS Integer)) <> 0 "
+            + "OR bitand(c.plantMask, cast(:plantBit AS Integer)) <> 0 "
+            + "OR bitand(c.harvestMask, cast(:harvestBit AS Integer)) <> 0) "
+            + "AND bitand(c.locationMask, cast(:locations AS Integer)) = :locations")
+    Page<Crop> findByCalendar(int sowBit, int plantBit, int harvestBit, int locations, Pageable pageable);
+
+    // rows inserted by the seed scripts, which don't fill in the masks
+    List<Crop> findBySowMaskIsNull();
+
+    // a user's favorites as summaries, one query over the join table; sortable on Crop properties
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.CropSummaryResponse(c.id, c.name, c.image) FROM Crop c "
+            + "WHERE c.id IN (SELECT f.id FROM User u JOIN u.favoriteCrops f WHERE u.id = :userId)",
+            countQuery = "SELECT COUNT(f) FROM User u JOIN u.favoriteCrops f WHERE u.id = :userId")
+    Page<CropSummaryResponse> findFavoriteSummaries(int userId, Pageable pageable);
+
+    @Query("SELECT new be.vives.ti.backend.repository.CropName(c.id, c.name) FROM Crop c WHERE c.name IS NOT NULL")
+    List<CropName> findAllNames();
+
+    // Postgres only (prod profile): the LIKE on lower(cropname) is served by the pg_trgm GIN index
+    @Query(value = "SELECT c.id FROM crops c WHERE lower(c.cropname) LIKE :pattern ESCAPE '!' "
+            + "ORDER BY CASE WHEN lower(c.cropname) = :term THEN 0 WHEN lower(c.cropname) LIKE :prefix ESCAPE '!' THEN 1 ELSE 2 END, "
+            + "lower(c.cropname), c.id",
+            countQuery = "SELECT COUNT(*) FROM crops c WHERE lower(c.cropname) LIKE :pattern ESCAPE '!'",
+            nativeQuery = true)
+    Page<Integer> searchIdsByName(String term, String pattern, String prefix, Pageable pageable);
+
+    // fingerprint of the table for ETags: row count, highest id and latest change, without loading any rows
+    @Query(value = "SELECT CAST(COUNT(*) AS VARCHAR) || '-' || COALESCE(CAST(MAX(id) AS VARCHAR), '') || '-' "
+            + "|| COALESCE(CAST(MAX(last_modified) AS VARCHAR), '') FROM crops", nativeQuery = true)
+    String findCollectionVersion();
 }
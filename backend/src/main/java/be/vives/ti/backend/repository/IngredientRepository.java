@@ -1,11 +1,30 @@
 package be.vives.ti.backend.repository;
 
 import be.vives.ti.backend.model.Ingredient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface IngredientRepository extends JpaRepository<Ingredient, Integer> {
     Optional<Ingredient> findByNameIgnoreCase(String name);
 
+    // keyset (seek) pagination on (name, id): no OFFSET and no COUNT query; a null name sorts as '' so the seek finds it
+    @Query("SELECT i FROM Ingredient i LEFT JOIN FETCH i.crop ORDER BY COALESCE(i.name, ''), i.id")
+    List<Ingredient> findFirstByName(Limit limit);
+
+    @Query("SELECT i FROM Ingredient i LEFT JOIN FETCH i.crop WHERE COALESCE(i.name, '') > :name "
+            + "OR (COALESCE(i.name, '') = :name AND i.id > :id) ORDER BY COALESCE(i.name, ''), i.id")
+    List<Ingredient> findNextByName(String name, int id, Limit limit);
+
+    @Query("SELECT i.id FROM Ingredient i WHERE i.crop.id IN :cropIds")
+    List<Integer> findIdsByCropIdIn(Collection<Integer> cropIds);
+
+    // fingerprint of the table for ETags: row count, highest id and latest change, without loading any rows
+    @Query(value = "SELECT CAST(COUNT(*) AS VARCHAR) || '-' || COALESCE(CAST(MAX(id) AS VARCHAR), '') || '-' "
+            + "|| COALESCE(CAST(MAX(last_modified) AS VARCHAR), '') FROM ingredients", nativeQuery = true)
+    String findCollectionVersion();
 }
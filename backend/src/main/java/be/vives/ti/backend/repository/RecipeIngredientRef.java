@@ -0,0 +1,10 @@
+package be.vives.ti.backend.repository;
+
+/**
+ * A recipe uses an ingredient (one row of recipe_quantities, without the quantity).
+ */
+public record RecipeIngredientRef(
+        Integer recipeId,
+        Integer ingredientId
+) {
+}
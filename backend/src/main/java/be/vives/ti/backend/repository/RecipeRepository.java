@@ -1,24 +1,172 @@
 package be.vives.ti.backend.repository;
 
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.model.Recipe;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Integer> {
     Optional<Recipe> findByRecipeName(String recipeName);
-    @Query("SELECT r FROM Recipe r JOIN FETCH r.quantities q JOIN FETCH q.ingredient i WHERE i.id = :ingredientID")
-    Page<Recipe> findByIngredientID(int ingredientID, Pageable pageable);
 
+    @Query("SELECT r.recipeName FROM Recipe r WHERE r.recipeName IN :names")
+    List<String> findRecipeNamesIn(Collection<String> names);
     // non-paginated overload used by some service logic/tests to quickly check whether any recipe uses an ingredient
     @Query("SELECT r FROM Recipe r JOIN r.quantities q JOIN q.ingredient i WHERE i.id = :ingredientID")
     List<Recipe> findByIngredientID(int ingredientID);
 
-    Page<Recipe> findByCategory_Id(int categoryId, Pageable pageable);
+    // Paged finders only select ids; the page is hydrated afterwards with findAllFetchedByIdIn
+    @Query(value = "SELECT r.id FROM Recipe r",
+            countQuery = "SELECT COUNT(r) FROM Recipe r")
+    Page<Integer> findAllIds(Pageable pageable);
 
-    Page<Recipe> findByCourse_Id(int courseId, Pageable pageable);
+    @Query(value = "SELECT r.id FROM Recipe r WHERE r.category.id = :categoryId",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.category.id = :categoryId")
+    Page<Integer> findIdsByCategoryId(int categoryId, Pageable pageable);
+
+    @Query(value = "SELECT r.id FROM Recipe r WHERE r.course.id = :courseId",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.course.id = :courseId")
+    Page<Integer> findIdsByCourseId(int courseId, Pageable pageable);
+
+    // EXISTS keeps one row per recipe, so the database can apply limit/offset (no in-memory pagination)
+    @Query(value = "SELECT r.id FROM Recipe r WHERE EXISTS "
+            + "(SELECT 1 FROM RecipeQuantity q WHERE q.recipe = r AND q.ingredient.id = :ingredientId)",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE EXISTS "
+            + "(SELECT 1 FROM RecipeQuantity q WHERE q.recipe = r AND q.ingredient.id = :ingredientId)")
+    Page<Integer> findIdsByIngredientId(int ingredientId, Pageable pageable);
+
+    // keyset (seek) pagination on (recipeName, id): no OFFSET and no COUNT query; a null name sorts as '' so the seek finds it
+    @Query("SELECT r.id FROM Recipe r ORDER BY COALESCE(r.recipeName, ''), r.id")
+    List<Integer> findFirstIdsByName(Limit limit);
+
+    @Query("SELECT r.id FROM Recipe r WHERE COALESCE(r.recipeName, '') > :name "
+            + "OR (COALESCE(r.recipeName, '') = :name AND r.id > :id) ORDER BY COALESCE(r.recipeName, ''), r.id")
+    List<Integer> findNextIdsByName(String name, int id, Limit limit);
+
+    // Summary projections for list screens: read straight from the recipes table, no entity hydration
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r",
+            countQuery = "SELECT COUNT(r) FROM Recipe r")
+    Page<RecipeSummaryResponse> findAllSummaries(Pageable pageable);
+
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r WHERE r.category.id = :categoryId",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.category.id = :categoryId")
+    Page<RecipeSummaryResponse> findSummariesByCategoryId(int categoryId, Pageable pageable);
+
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r WHERE r.course.id = :courseId",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE r.course.id = :courseId")
+    Page<RecipeSummaryResponse> findSummariesByCourseId(int courseId, Pageable pageable);
+
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r WHERE EXISTS "
+            + "(SELECT 1 FROM RecipeQuantity q WHERE q.recipe = r AND q.ingredient.id = :ingredientId)",
+            countQuery = "SELECT COUNT(r) FROM Recipe r WHERE EXISTS "
+            + "(SELECT 1 FROM RecipeQuantity q WHERE q.recipe = r AND q.ingredient.id = :ingredientId)")
+    Page<RecipeSummaryResponse> findSummariesByIngredientId(int ingredientId, Pageable pageable);
+
+    // a user's favorites as summaries, one query over the join table; sortable on Recipe properties
+    @Query(value = "SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r WHERE r.id IN (SELECT f.id FROM User u JOIN u.favoriteRecipes f WHERE u.id = :userId)",
+            countQuery = "SELECT COUNT(f) FROM User u JOIN u.favoriteRecipes f WHERE u.id = :userId")
+    Page<RecipeSummaryResponse> findFavoriteSummaries(int userId, Pageable pageable);
+
+    // Searchable text for the in-memory search index, read as plain rows without hydrating recipes
+    @Query("SELECT new be.vives.ti.backend.repository.RecipeText(r.id, r.recipeName) FROM Recipe r")
+    List<RecipeText> findNameTexts();
+
+    @Query("SELECT new be.vives.ti.backend.repository.RecipeText(r.id, r.recipeDescription) FROM Recipe r")
+    List<RecipeText> findDescriptionTexts();
+
+    @Query("SELECT new be.vives.ti.backend.repository.RecipeText(q.recipe.id, q.ingredient.name) FROM RecipeQuantity q")
+    List<RecipeText> findIngredientTexts();
+
+    @Query("SELECT new be.vives.ti.backend.repository.RecipeText(s.recipe.id, s.description) FROM RecipeStep s")
+    List<RecipeText> findStepTexts();
+
+    // Every recipe/ingredient pair, for the in-memory match index
+    @Query("SELECT DISTINCT new be.vives.ti.backend.repository.RecipeIngredientRef(q.recipe.id, q.ingredient.id) "
+            + "FROM RecipeQuantity q WHERE q.ingredient IS NOT NULL")
+    List<RecipeIngredientRef> findIngredientRefs();
+
+    // Postgres only (prod profile): weighted tsvector in recipes.search_vector, backed by a GIN index
+    String SEARCH_VECTOR = "setweight(to_tsvector('simple', coalesce(r.recipe_name, '')), 'A') "
+            + "|| setweight(to_tsvector('simple', coalesce((SELECT string_agg(i.ingredient_name, ' ') "
+            + "FROM recipe_quantities q JOIN ingredients i ON i.id = q.ingredient_id WHERE q.recipe_id = r.id), '')), 'B') "
+            + "|| setweight(to_tsvector('simple', coalesce(r.recipe_description, '')), 'C') "
+            + "|| setweight(to_tsvector('simple', coalesce((SELECT string_agg(s.step_description, ' ') "
+            + "FROM recipe_steps s WHERE s.recipe_id = r.id), '')), 'D')";
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE recipes r SET search_vector = " + SEARCH_VECTOR + " WHERE r.id = :id", nativeQuery = true)
+    void updateSearchVector(int id);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE recipes r SET search_vector = " + SEARCH_VECTOR + " WHERE r.id IN :ids", nativeQuery = true)
+    void updateSearchVectors(Collection<Integer> ids);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE recipes r SET search_vector = " + SEARCH_VECTOR + " WHERE r.search_vector IS NULL", nativeQuery = true)
+    int updateMissingSearchVectors();
+
+    @Query(value = "SELECT r.id FROM recipes r, to_tsquery('simple', :query) tq WHERE r.search_vector @@ tq "
+            + "ORDER BY ts_rank(r.search_vector, tq) DESC, r.id",
+            countQuery = "SELECT COUNT(*) FROM recipes r WHERE r.search_vector @@ to_tsquery('simple', :query)",
+            nativeQuery = true)
+    Page<Integer> searchIds(String query, Pageable pageable);
+
+    @Query("SELECT new be.vives.ti.backend.dto.response.RecipeSummaryResponse("
+            + "r.id, r.recipeName, r.imageURL, r.prepTime, r.cookTime, r.course.id, r.category.id, r.author.id) "
+            + "FROM Recipe r WHERE r.id IN :ids")
+    List<RecipeSummaryResponse> findSummariesByIdIn(Collection<Integer> ids);
+
+    // quantities and steps are both lists, so they can't be join fetched in a single query (MultipleBagFetchException)
+    @EntityGraph(attributePaths = {"author", "course", "category",
+            "quantities", "quantities.ingredient", "quantities.measurement"})
+    @Query("SELECT r FROM Recipe r WHERE r.id IN :ids")
+    List<Recipe> findWithQuantitiesByIdIn(Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = {"steps"})
+    @Query("SELECT r FROM Recipe r WHERE r.id IN :ids")
+    List<Recipe> findWithStepsByIdIn(Collection<Integer> ids);
+
+    /**
+     * Loads the full recipe graph needed by RecipeMapper.toResponse for the given ids in a fixed number of queries,
+     * regardless of how many ids are passed. Must run inside a transaction so both queries share one persistence context.
+     * The result keeps the order of the given ids; ids that no longer exist are skipped.
+     */
+    default List<Recipe> findAllFetchedByIdIn(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Recipe> recipes = findWithQuantitiesByIdIn(ids).stream()
+                .collect(Collectors.toMap(Recipe::getId, Function.identity()));
+        findWithStepsByIdIn(ids);
+        return ids.stream()
+                .map(recipes::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
 }
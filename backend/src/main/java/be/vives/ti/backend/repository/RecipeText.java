@@ -0,0 +1,10 @@
+package be.vives.ti.backend.repository;
+
+/**
+ * One piece of searchable text belonging to a recipe (its name, description, an ingredient name or a step).
+ */
+public record RecipeText(
+        Integer recipeId,
+        String text
+) {
+}
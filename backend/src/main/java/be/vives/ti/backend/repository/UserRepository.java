@@ -2,9 +2,50 @@ package be.vives.ti.backend.repository;
 
 import be.vives.ti.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
     Optional<User> findByEmail(String email);
+
+    // favorite ids straight from the join tables, e.g. for marking hearts in a list
+    @Query(value = "SELECT crop_id FROM user_crops WHERE user_id = :userId ORDER BY crop_id", nativeQuery = true)
+    List<Integer> findFavoriteCropIds(int userId);
+
+    @Query(value = "SELECT recipe_id FROM user_recipes WHERE user_id = :userId ORDER BY recipe_id", nativeQuery = true)
+    List<Integer> findFavoriteRecipeIds(int userId);
+
+    // Favorites are written straight to the join tables, one row per statement, without loading the user's
+    // favorites collection. The inserts only add a row when the user and the crop/recipe exist and the pair isn't
+    // there yet, so they return 0 for a repeated request as well as for an unknown id.
+    // (INSERT ... SELECT ... WHERE NOT EXISTS rather than ON CONFLICT DO NOTHING, which H2 doesn't support)
+    // Each insert is its own transaction when the caller has none: two requests adding the same favorite at once can
+    // both pass NOT EXISTS, and the loser's primary key violation must not roll back anything else.
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_crops (user_id, crop_id) SELECT u.id, c.id FROM users u, crops c "
+            + "WHERE u.id = :userId AND c.id = :cropId "
+            + "AND NOT EXISTS (SELECT 1 FROM user_crops f WHERE f.user_id = :userId AND f.crop_id = :cropId)",
+            nativeQuery = true)
+    int insertFavoriteCrop(int userId, int cropId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_crops WHERE user_id = :userId AND crop_id = :cropId", nativeQuery = true)
+    int deleteFavoriteCrop(int userId, int cropId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO user_recipes (user_id, recipe_id) SELECT u.id, r.id FROM users u, recipes r "
+            + "WHERE u.id = :userId AND r.id = :recipeId "
+            + "AND NOT EXISTS (SELECT 1 FROM user_recipes f WHERE f.user_id = :userId AND f.recipe_id = :recipeId)",
+            nativeQuery = true)
+    int insertFavoriteRecipe(int userId, int recipeId);
+
+    @Modifying
+    @Query(value = "DELETE FROM user_recipes WHERE user_id = :userId AND recipe_id = :recipeId", nativeQuery = true)
+    int deleteFavoriteRecipe(int userId, int recipeId);
 }
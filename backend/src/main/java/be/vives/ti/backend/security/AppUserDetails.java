@@ -0,0 +1,37 @@
+package be.vives.ti.backend.security;
+
+import be.vives.ti.backend.model.Role;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+/**
+ * The authenticated user as loaded by CustomUserDetailsService, also carrying the id and display name so a login
+ * can build its response without loading the user a second time.
+ */
+public class AppUserDetails extends User {
+
+    private final Integer id;
+    private final String displayName;
+    private final Role role;
+
+    public AppUserDetails(Integer id, String email, String displayName, String password, Role role) {
+        super(email, password, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.id = id;
+        this.displayName = displayName;
+        this.role = role;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+}
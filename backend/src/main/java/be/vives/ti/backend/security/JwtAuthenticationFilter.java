@@ -1,31 +1,59 @@
 package be.vives.ti.backend.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
+/**
+ * Authenticates requests from the bearer token alone: the token is parsed once and the authorities come from its
+ * role claim, so a request costs no database query. Verified tokens are cached (see VerifiedTokenCache).
+ * <p>
+ * The user is only loaded from the database for tokens without a role claim, or for every verification when
+ * jwt.verify-user is on; then a token of a deleted user, or with a role the user no longer has, is rejected.
+ * <p>
+ * The cost of claims-only authentication is that tokens can't be revoked: with jwt.verify-user off, a token issued
+ * before the user was deleted, changed email or lost a role is accepted until it expires. With it on, such a token is
+ * rejected at the latest once its cache entry expires (jwt.cache.ttl).
+ */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokens;
+    private final boolean verifyUser;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   @Value("${jwt.cache.max-size:10000}") long cacheMaxSize,
+                                   @Value("${jwt.cache.ttl:10m}") Duration cacheTtl,
+                                   @Value("${jwt.verify-user:false}") boolean verifyUser) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.verifiedTokens = new VerifiedTokenCache(cacheMaxSize, cacheTtl);
+        // a token verified with a key that was dropped from jwt.keys-file must not stay accepted
+        jwtUtil.onKeysChanged(verifiedTokens::clear);
+        this.verifyUser = verifyUser;
     }
 
     @Override
@@ -34,32 +62,50 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authorizationHeader = request.getHeader("Authorization");
 
-        String username = null;
-        String jwt = null;
-
-        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-            jwt = authorizationHeader.substring(7);
-            try {
-                username = jwtUtil.extractUsername(jwt);
-            } catch (Exception e) {
-                log.debug("Failed to extract username from JWT: {}", e.getMessage());
-            }
-        }
-
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            if (jwtUtil.validateToken(jwt, userDetails)) {
+        if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            // before the cache: a changed keys file clears it
+            jwtUtil.checkKeysFile();
+            VerifiedToken token = verifiedTokens.get(authorizationHeader.substring(7), this::verify);
+            if (token != null) {
                 UsernamePasswordAuthenticationToken authenticationToken =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                        new UsernamePasswordAuthenticationToken(token.username(), null, token.authorities());
                 authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authenticationToken);
-                log.debug("JWT valid for user='{}'. Authorities={}", userDetails.getUsername(), userDetails.getAuthorities());
-            } else {
-                log.debug("Invalid JWT for user='{}'", username);
+                log.debug("JWT valid for user='{}'. Authorities={}", token.username(), token.authorities());
             }
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    private VerifiedToken verify(String jwt) {
+        Claims claims;
+        try {
+            claims = jwtUtil.parseClaims(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Invalid JWT: {}", e.getMessage());
+            return null;
+        }
+        String username = claims.getSubject();
+        String role = claims.get("role", String.class);
+        List<GrantedAuthority> authorities;
+        if (role != null && !verifyUser) {
+            authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role));
+        } else {
+            UserDetails userDetails;
+            try {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            } catch (UsernameNotFoundException e) {
+                log.debug("JWT for unknown user='{}'", username);
+                return null;
+            }
+            if (role != null && !userDetails.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_" + role))) {
+                log.debug("JWT role '{}' no longer matches user='{}'", role, username);
+                return null;
+            }
+            authorities = List.copyOf(userDetails.getAuthorities());
+        }
+        return new VerifiedToken(username, authorities, claims.getExpiration().toInstant());
+    }
+}
@@ -0,0 +1,73 @@
+package be.vives.ti.backend.security;
+
+import io.jsonwebtoken.ProtectedHeader;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The HMAC keys tokens are signed and verified with, by key id. New tokens are signed with the current key and carry
+ * its id in the kid header; a token is verified with the key its kid names, so tokens signed with a previous key stay
+ * valid until they expire. Tokens without a kid (issued before key ids) are verified with the current key.
+ * <p>
+ * Rotating is a rolling change: first add the new key as a previous key on every replica, then make it the current
+ * key, and drop the old one once its tokens have expired. At no point does a replica reject a token another replica
+ * issued. Immutable, so it is safe for concurrent use; with jwt.keys-file, JwtUtil replaces the whole keyring when the
+ * file changes and each step is an edit of that file instead of a restart.
+ */
+final class JwtKeyring extends LocatorAdapter<Key> {
+
+    private final String currentKeyId;
+    private final SecretKey currentKey;
+    private final Map<String, SecretKey> keys;
+
+    /**
+     * @param previousKeys entries of the form kid:secret
+     */
+    JwtKeyring(String currentKeyId, String currentSecret, List<String> previousKeys) {
+        Map<String, SecretKey> keys = new HashMap<>();
+        for (String entry : previousKeys) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("jwt.previous-keys entries must be kid:secret");
+            }
+            keys.put(entry.substring(0, separator).trim(), key(entry.substring(separator + 1)));
+        }
+        this.currentKeyId = currentKeyId;
+        this.currentKey = key(currentSecret);
+        keys.put(currentKeyId, currentKey);
+        this.keys = Map.copyOf(keys);
+    }
+
+    String currentKeyId() {
+        return currentKeyId;
+    }
+
+    SecretKey currentKey() {
+        return currentKey;
+    }
+
+    @Override
+    protected Key locate(ProtectedHeader header) {
+        String keyId = header.getKeyId();
+        if (keyId == null) {
+            return currentKey;
+        }
+        Key key = keys.get(keyId);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown key id '" + keyId + "'");
+        }
+        return key;
+    }
+
+    private static SecretKey key(String secret) {
+        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,61 +1,81 @@
 package be.vives.ti.backend.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.Reader;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Issues and verifies the JWTs. The keys (see JwtKeyring) and the parser are built once and shared by all requests;
+ * both are immutable and thread-safe.
+ * <p>
+ * The keys come from jwt.secret, jwt.key-id and jwt.previous-keys, or from jwt.keys-file when it is set. That file
+ * holds the same three settings and is checked for changes at most once per check interval, on the next token that is
+ * issued or verified; a changed file replaces the keyring, so keys are rotated without a restart. A file that can't be
+ * read or holds no valid keys is logged and the previous keys stay in use.
+ */
 @Component
 public class JwtUtil {
+    private static final Logger log = LoggerFactory.getLogger(JwtUtil.class);
 
-    @Value("${jwt.secret}")
-    private String secret;
+    private final Path keysFile;
+    private final long checkIntervalNanos;
+    private final AtomicLong nextCheck;
+    private final List<Runnable> keysChangedListeners = new CopyOnWriteArrayList<>();
+    private final Long expiration;
+    private volatile Keys keys;
 
-    @Value("${jwt.expiration}")
-    private Long expiration;
-
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-
-    public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
-    }
-
-    public Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private record Keys(JwtKeyring keyring, JwtParser parser, FileTime modified) {
+        Keys(JwtKeyring keyring, FileTime modified) {
+            this(keyring, Jwts.parser().keyLocator(keyring).build(), modified);
+        }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public JwtUtil(@Value("${jwt.secret}") String secret,
+                   @Value("${jwt.key-id:default}") String keyId,
+                   @Value("${jwt.previous-keys:}") List<String> previousKeys,
+                   @Value("${jwt.keys-file:}") String keysFile,
+                   @Value("${jwt.keys-file.check-interval:30s}") Duration checkInterval,
+                   @Value("${jwt.expiration}") Long expiration) {
+        this.keysFile = keysFile == null || keysFile.isBlank() ? null : Path.of(keysFile);
+        this.checkIntervalNanos = checkInterval.toNanos();
+        this.nextCheck = new AtomicLong(System.nanoTime() + checkIntervalNanos);
+        this.expiration = expiration;
+        if (this.keysFile == null) {
+            this.keys = new Keys(new JwtKeyring(keyId, secret, previousKeys), null);
+        } else {
+            try {
+                this.keys = readKeysFile();
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read jwt.keys-file " + this.keysFile, e);
+            }
+        }
     }
 
-    public String generateToken(UserDetails userDetails) {
-        Map<String, Object> claims = new HashMap<>();
-        return createToken(claims, userDetails.getUsername());
+    /**
+     * Verifies the signature and expiry of the token and returns its claims, throws a JwtException when either fails.
+     */
+    public Claims parseClaims(String token) {
+        return keys().parser().parseSignedClaims(token).getPayload();
     }
 
     public String generateToken(String username, String role) {
@@ -64,18 +84,73 @@ public class JwtUtil {
         return createToken(claims, username);
     }
 
+    /**
+     * Runs the listener after the keys were replaced from jwt.keys-file, e.g. to forget tokens verified with a key
+     * that is gone.
+     */
+    void onKeysChanged(Runnable listener) {
+        keysChangedListeners.add(listener);
+    }
+
     private String createToken(Map<String, Object> claims, String subject) {
+        JwtKeyring keyring = keys().keyring();
         return Jwts.builder()
+                .header().keyId(keyring.currentKeyId()).and()
                 .claims(claims)
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(keyring.currentKey())
                 .compact();
     }
 
-    public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    /**
+     * Reloads jwt.keys-file when it changed, at most once per check interval. Also called for tokens answered from
+     * the VerifiedTokenCache, which never reach the parser.
+     */
+    void checkKeysFile() {
+        long next = nextCheck.get();
+        // one thread per interval looks at the file, the others carry on with the current keys
+        if (keysFile != null && System.nanoTime() - next >= 0
+                && nextCheck.compareAndSet(next, System.nanoTime() + checkIntervalNanos)) {
+            reloadIfChanged();
+        }
+    }
+
+    private Keys keys() {
+        checkKeysFile();
+        return keys;
+    }
+
+    private void reloadIfChanged() {
+        try {
+            if (Files.getLastModifiedTime(keysFile).equals(keys.modified())) {
+                return;
+            }
+            Keys reloaded = readKeysFile();
+            keys = reloaded;
+            log.info("JWT keys reloaded from {}, signing with key id '{}'", keysFile, reloaded.keyring().currentKeyId());
+            keysChangedListeners.forEach(Runnable::run);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping the current JWT keys, {} can't be used: {}", keysFile, e.getMessage());
+        }
+    }
+
+    private Keys readKeysFile() throws IOException {
+        FileTime modified = Files.getLastModifiedTime(keysFile);
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(keysFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String secret = properties.getProperty("jwt.secret");
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException("jwt.secret is missing");
+        }
+        List<String> previousKeys = Arrays.stream(properties.getProperty("jwt.previous-keys", "").split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .toList();
+        return new Keys(new JwtKeyring(properties.getProperty("jwt.key-id", "default").trim(), secret, previousKeys),
+                modified);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,119 @@
+package be.vives.ti.backend.security;
+
+import be.vives.ti.backend.dto.response.PasswordHashingStatsResponse;
+import be.vives.ti.backend.exceptions.ServiceBusyException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs password hashing (BCrypt, around 100 ms of CPU per login or registration) on a small dedicated pool, so a burst
+ * of logins can use at most that many cores and the other requests keep the rest. Work waits in a bounded queue;
+ * when the queue is full, or the work doesn't start and finish within the timeout, the request is rejected at once
+ * with a ServiceBusyException (503 with Retry-After) instead of piling up on the request threads.
+ */
+@Component
+public class PasswordHashingBulkhead {
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingBulkhead.class);
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration timeout;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder hashingNanos = new LongAdder();
+
+    /**
+     * @param threads the pool size, 0 for half the available processors
+     */
+    public PasswordHashingBulkhead(@Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:32}") int queueCapacity,
+                                   @Value("${auth.hashing.timeout:5s}") Duration timeout) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        log.info("Password hashing bulkhead: {} threads, queue of {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * Runs the work on the pool and waits for its result; exceptions thrown by the work are rethrown as they are.
+     */
+    public <T> T call(Supplier<T> work) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return work.get();
+                } finally {
+                    hashingNanos.add(System.nanoTime() - start);
+                    completed.increment();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy();
+        }
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // a task that hasn't started yet is skipped by the pool
+            future.cancel(false);
+            timedOut.increment();
+            throw busy();
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public PasswordHashingStatsResponse stats() {
+        long done = completed.sum();
+        return new PasswordHashingStatsResponse(executor.getMaximumPoolSize(), queueCapacity, executor.getActiveCount(),
+                executor.getQueue().size(), done, rejected.sum(), timedOut.sum(),
+                done == 0 ? 0 : hashingNanos.sum() / 1_000_000.0 / done);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private ServiceBusyException busy() {
+        return new ServiceBusyException("Too many login or registration requests, please try again shortly", Duration.ofSeconds(1));
+    }
+}
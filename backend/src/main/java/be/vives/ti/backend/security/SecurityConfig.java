@@ -42,16 +42,22 @@ public class SecurityConfig {
                         .requestMatchers(HttpMethod.GET, "/api/recipes/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/crops/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/ingredients/**").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/images/**").permitAll()
 
                         .requestMatchers("/h2-console/**").permitAll()
 
                         .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/v3/api-docs/**").permitAll()
 
+                        // matching only reads, it is a POST because of the ingredient list in the body
+                        .requestMatchers(HttpMethod.POST, "/api/recipes/match").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/api/recipes/bulk").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.POST, "/api/recipes/**").hasAnyRole("USER", "ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/recipes/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/api/recipes/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.DELETE, "/api/recipes/**").hasRole("ADMIN")
 
+                        .requestMatchers(HttpMethod.POST, "/api/images").hasAnyRole("USER", "ADMIN")
+
                         .requestMatchers(HttpMethod.POST, "/api/crops/**").hasRole( "ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/api/crops/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/api/crops/**").hasRole("ADMIN")
@@ -76,6 +82,8 @@ public class SecurityConfig {
 
                         .requestMatchers("/api/measurements").hasAnyRole("USER", "ADMIN")
 
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session
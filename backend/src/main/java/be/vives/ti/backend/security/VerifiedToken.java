@@ -0,0 +1,16 @@
+package be.vives.ti.backend.security;
+
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * What a verified JWT says about the caller: enough to build the Authentication without touching the database.
+ */
+public record VerifiedToken(
+        String username,
+        List<GrantedAuthority> authorities,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,75 @@
+package be.vives.ti.backend.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of verified tokens, keyed by the SHA-256 of the token, so a client sending the same token on every
+ * request only pays for the signature check once. An entry lives until the token expires or for the ttl, whichever
+ * comes first; the ttl bounds how long an optional database check (jwt.verify-user) can be out of date.
+ * Tokens that fail verification are not cached. A max size of 0 disables the cache.
+ */
+class VerifiedTokenCache {
+
+    private final Cache<String, VerifiedToken> cache;
+
+    VerifiedTokenCache(long maxSize, Duration ttl) {
+        this.cache = maxSize <= 0 ? null : Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                        Duration untilExpiry = Duration.between(Instant.now(), token.expiresAt());
+                        return Math.max(0, Math.min(untilExpiry.toNanos(), ttl.toNanos()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * The cached verification of the token, or the verifier's result; null when the token is not valid.
+     */
+    VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        if (cache == null) {
+            return verifier.apply(token);
+        }
+        return cache.get(hash(token), key -> verifier.apply(token));
+    }
+
+    void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    long size() {
+        return cache == null ? 0 : cache.estimatedSize();
+    }
+
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
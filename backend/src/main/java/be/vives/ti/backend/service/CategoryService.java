@@ -1,9 +1,7 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.response.CategoryResponse;
-import be.vives.ti.backend.mapper.CategoryMapper;
 import be.vives.ti.backend.model.Category;
-import be.vives.ti.backend.repository.*;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,20 +14,19 @@ import java.util.List;
 public class CategoryService {
     private static final Logger log = LoggerFactory.getLogger(CategoryService.class);
 
-    private final CategoryRepository categoryRepository;
-    private final CategoryMapper categoryMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
-    public CategoryService(CategoryMapper categoryMapper, CategoryRepository categoryRepository) {
-        this.categoryMapper = categoryMapper;
-        this.categoryRepository = categoryRepository;
+    public CategoryService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     public List<CategoryResponse> findAll() {
-        log.debug("Finding all courses");
-        List<Category> categories = categoryRepository.findAll();
-        return categories.stream()
-                .map(categoryMapper::toResponse)
-                .toList();
+        log.debug("Finding all categories");
+        return referenceDataRegistry.categories().list();
     }
 
-}
\ No newline at end of file
+    // the same list, pre-serialized, with its ETag
+    public ReferenceData<Category, CategoryResponse> snapshot() {
+        return referenceDataRegistry.categories();
+    }
+}
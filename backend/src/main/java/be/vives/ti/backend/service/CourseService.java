@@ -1,9 +1,7 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.response.CourseResponse;
-import be.vives.ti.backend.mapper.CourseMapper;
 import be.vives.ti.backend.model.Course;
-import be.vives.ti.backend.repository.CourseRepository;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,20 +14,19 @@ import java.util.List;
 public class CourseService {
     private static final Logger log = LoggerFactory.getLogger(CourseService.class);
 
-    private final CourseRepository courseRepository;
-    private final CourseMapper courseMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
-    public CourseService(CourseRepository courseRepository, CourseMapper courseMapper) {
-        this.courseRepository = courseRepository;
-        this.courseMapper = courseMapper;
+    public CourseService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     public List<CourseResponse> findAll() {
         log.debug("Finding all courses");
-        List<Course> courses = courseRepository.findAll();
-        return courses.stream()
-                .map(courseMapper::toResponse)
-                .toList();
+        return referenceDataRegistry.courses().list();
     }
 
+    // the same list, pre-serialized, with its ETag
+    public ReferenceData<Course, CourseResponse> snapshot() {
+        return referenceDataRegistry.courses();
+    }
 }
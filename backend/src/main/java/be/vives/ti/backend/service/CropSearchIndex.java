@@ -0,0 +1,27 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Crop;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Locale;
+
+/**
+ * Case-insensitive "name contains" search over crops that does not scan the whole table.
+ * Results are ordered by relevance: exact name, then names starting with the term, then the rest; ties by name.
+ */
+public interface CropSearchIndex {
+
+    Page<Integer> search(String term, Pageable pageable);
+
+    /**
+     * (Re)indexes a crop after it was created or updated. Called inside the transaction that saved it.
+     */
+    void index(Crop crop);
+
+    void remove(int cropId);
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
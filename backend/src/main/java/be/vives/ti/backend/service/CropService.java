@@ -6,17 +6,35 @@ import be.vives.ti.backend.dto.request.UpdateCropRequest;
 import be.vives.ti.backend.exceptions.CropException;
 import be.vives.ti.backend.mapper.CropMapper;
 import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.model.CropActivity;
+import be.vives.ti.backend.model.CropCalendar;
+import be.vives.ti.backend.model.CropLocation;
 import be.vives.ti.backend.repository.CropRepository;
 import be.vives.ti.backend.dto.response.CropResponse;
+import be.vives.ti.backend.dto.response.CursorPage;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 
 import org.springframework.data.domain.Pageable;
 
+import java.time.Month;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -25,9 +43,13 @@ public class CropService {
 
     private final CropRepository cropRepository;
     private final CropMapper cropMapper;
-    public CropService(CropRepository cropRepository, CropMapper cropMapper){
+    private final CropSearchIndex cropSearchIndex;
+    private final JsonMergePatch jsonMergePatch;
+    public CropService(CropRepository cropRepository, CropMapper cropMapper, CropSearchIndex cropSearchIndex, JsonMergePatch jsonMergePatch){
         this.cropRepository = cropRepository;
         this.cropMapper = cropMapper;
+        this.cropSearchIndex = cropSearchIndex;
+        this.jsonMergePatch = jsonMergePatch;
     }
 
     public Page<CropResponse> findAll(Pageable pageable){
@@ -36,6 +58,23 @@ public class CropService {
         return cropPage.map(cropMapper::toResponse);
     }
 
+    public CursorPage<CropResponse> findAllAfter(String after, int size){
+        log.debug("Finding crops after cursor: {} with size: {}", after, size);
+        Limit limit = Limit.of(size + 1);
+        List<Crop> crops;
+        if (after == null || after.isBlank()) {
+            crops = cropRepository.findFirstByName(limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            crops = cropRepository.findNextByName(cursor.name(), cursor.id(), limit);
+        }
+        return KeysetCursor.slice(crops, size, crop -> new KeysetCursor(crop.getName(), crop.getId()), cropMapper::toResponse);
+    }
+
+    public String collectionVersion() {
+        return cropRepository.findCollectionVersion();
+    }
+
     public CropResponse findById(int id){
         log.debug("Finding crop with id: {}", id);
         Crop crop = cropRepository.findById(id).orElseThrow();
@@ -44,8 +83,41 @@ public class CropService {
 
     public Page<CropResponse> findByNameContaining(String name, Pageable pageable){
         log.debug("Finding crops with name containing: {} with pagination: {}", name, pageable);
-        Page<Crop> cropPage = cropRepository.findByNameContainingIgnoreCase(name, pageable);
-        return cropPage.map(cropMapper::toResponse);
+        // the index decides the order (exact, prefix, contains), so only the page of ids is loaded
+        Page<Integer> ids = cropSearchIndex.search(name, pageable);
+        Map<Integer, Crop> crops = cropRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Crop::getId, Function.identity()));
+        List<CropResponse> content = ids.getContent().stream()
+                .map(crops::get)
+                .filter(Objects::nonNull)
+                .map(cropMapper::toResponse)
+                .toList();
+        return new PageImpl<>(content, pageable, ids.getTotalElements());
+    }
+
+    public Page<CropResponse> findByCalendar(Month month, CropActivity activity, Collection<CropLocation> locations, Pageable pageable){
+        log.debug("Finding crops to {} in {} at {} with pagination: {}", activity, month, locations, pageable);
+        int bit = CropCalendar.monthBit(month);
+        int sowBit = activity == null || activity == CropActivity.SOW ? bit : 0;
+        int plantBit = activity == null || activity == CropActivity.PLANT ? bit : 0;
+        int harvestBit = activity == null || activity == CropActivity.HARVEST ? bit : 0;
+        int locationMask = 0;
+        if (locations != null) {
+            for (CropLocation location : locations) {
+                locationMask |= location.bit();
+            }
+        }
+        return cropRepository.findByCalendar(sowBit, plantBit, harvestBit, locationMask, pageable)
+                .map(cropMapper::toResponse);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingCalendarMasks(){
+        List<Crop> crops = cropRepository.findBySowMaskIsNull();
+        crops.forEach(Crop::updateCalendarMasks);
+        if (!crops.isEmpty()) {
+            log.info("Computed calendar masks for {} crops", crops.size());
+        }
     }
 
     public CropResponse create(CreateCropRequest request){
@@ -58,6 +130,7 @@ public class CropService {
         Crop crop = cropMapper.toEntity(request);
 
         Crop savedCrop = cropRepository.save(crop);
+        cropSearchIndex.index(savedCrop);
         return cropMapper.toResponse(savedCrop);
     }
 
@@ -67,11 +140,34 @@ public class CropService {
                 .map(crop -> {
                     cropMapper.updateEntity(request, crop);
                     Crop updatedCrop = cropRepository.save(crop);
+                    cropSearchIndex.index(updatedCrop);
                     return cropMapper.toResponse(updatedCrop);
                 });
 
     }
 
+    /**
+     * Applies a JSON merge patch to the crop. When expectedVersions are given (the If-Match header) and the crop's
+     * version is not one of them, nothing is written and an OptimisticLockingFailureException is thrown; a concurrent update that
+     * commits in between is caught the same way by the version check in the UPDATE.
+     */
+    public Optional<CropResponse> patch(int id, JsonNode patch, Set<Long> expectedVersions){
+        log.debug("Patching crop with id: {}", id);
+        return cropRepository.findById(id)
+                .map(crop -> {
+                    if (expectedVersions != null && (crop.getVersion() == null || !expectedVersions.contains(crop.getVersion()))) {
+                        throw new OptimisticLockingFailureException("Crop " + id + " was changed by someone else (version "
+                                + crop.getVersion() + ", expected one of " + expectedVersions + ")");
+                    }
+                    UpdateCropRequest request = jsonMergePatch.apply(cropMapper.toUpdateRequest(crop), patch, UpdateCropRequest.class);
+                    cropMapper.updateEntity(request, crop);
+                    // flush so the response carries the new version
+                    Crop patchedCrop = cropRepository.saveAndFlush(crop);
+                    cropSearchIndex.index(patchedCrop);
+                    return cropMapper.toResponse(patchedCrop);
+                });
+    }
+
     public boolean delete(int id){
         log.debug("Deleting crop with id: {}", id);
         if(!cropRepository.existsById(id)){
@@ -79,6 +175,7 @@ public class CropService {
             return false;
         }
         cropRepository.deleteById(id);
+        cropSearchIndex.remove(id);
         log.info("Crop with id {} deleted successfully", id);
         return true;
     }
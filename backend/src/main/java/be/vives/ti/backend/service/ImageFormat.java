@@ -0,0 +1,52 @@
+package be.vives.ti.backend.service;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * The image types that can be uploaded. The type is taken from the first bytes of the content, never from the file
+ * name or the Content-Type the client sent.
+ */
+public enum ImageFormat {
+    JPEG("jpg", "image/jpeg", new int[]{0xFF, 0xD8, 0xFF}),
+    PNG("png", "image/png", new int[]{0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A}),
+    GIF("gif", "image/gif", new int[]{'G', 'I', 'F', '8'});
+
+    private final String extension;
+    private final String contentType;
+    private final int[] signature;
+
+    ImageFormat(String extension, String contentType, int[] signature) {
+        this.extension = extension;
+        this.contentType = contentType;
+        this.signature = signature;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public static Optional<ImageFormat> sniff(byte[] header, int length) {
+        return Arrays.stream(values()).filter(format -> format.matches(header, length)).findFirst();
+    }
+
+    public static Optional<ImageFormat> fromExtension(String extension) {
+        return Arrays.stream(values()).filter(format -> format.extension.equals(extension)).findFirst();
+    }
+
+    private boolean matches(byte[] header, int length) {
+        if (length < signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,332 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.exceptions.GardeningappException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Uploaded images, stored on disk under the SHA-256 of their content: the upload is streamed to a temporary file while
+ * it is hashed, then renamed to {@code <hash>.<extension>}, so the same picture uploaded twice is kept once and the
+ * bytes behind a name never change.
+ * <p>
+ * Thumbnails in the configured sizes (the longest side, never enlarged) are written as JPEG by a small background pool
+ * after the upload has been answered. When that pool's queue is full the upload doesn't wait; the thumbnails are
+ * created on their first request instead, which also covers images stored before a size was added.
+ */
+@Service
+public class ImageService {
+    private static final Logger log = LoggerFactory.getLogger(ImageService.class);
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+    private static final float THUMBNAIL_QUALITY = 0.8f;
+
+    private final Path storageDir;
+    private final List<Integer> thumbnailSizes;
+    private final long maxPixels;
+    private final ThreadPoolExecutor thumbnailWorkers;
+    // images whose thumbnails are queued or being written, so a re-upload doesn't queue them again
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param thumbnailSizes the longest side of each thumbnail, in pixels
+     * @param maxPixels      larger images are refused, decoding them for the thumbnails would take too much memory
+     */
+    public ImageService(@Value("${images.storage-dir:uploads/content}") String storageDir,
+                        @Value("${images.thumbnail-sizes:160,480}") List<Integer> thumbnailSizes,
+                        @Value("${images.max-pixels:40000000}") long maxPixels,
+                        @Value("${images.thumbnails.threads:1}") int threads,
+                        @Value("${images.thumbnails.queue-capacity:100}") int queueCapacity) {
+        this.storageDir = Paths.get(storageDir).toAbsolutePath();
+        this.thumbnailSizes = thumbnailSizes.stream().sorted(Comparator.reverseOrder()).toList();
+        this.maxPixels = maxPixels;
+        try {
+            Files.createDirectories(this.storageDir);
+            for (int size : this.thumbnailSizes) {
+                Files.createDirectories(thumbnailDir(size));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the image directory " + this.storageDir, e);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.thumbnailWorkers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "thumbnails-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        log.info("Images stored in {}, thumbnails {} on {} threads", this.storageDir, this.thumbnailSizes, threads);
+    }
+
+    public List<Integer> thumbnailSizes() {
+        return thumbnailSizes;
+    }
+
+    /**
+     * Stores the content unless an identical image is already stored, and queues its thumbnails. The content is read
+     * once, in small chunks, and is not closed.
+     *
+     * @throws GardeningappException when the content is empty, not a JPEG, PNG or GIF image, or too large
+     */
+    public StoredImage store(InputStream content) {
+        Path incoming = null;
+        try {
+            incoming = Files.createTempFile(storageDir, "upload-", ".tmp");
+            MessageDigest digest = sha256();
+            long size = Files.copy(new DigestInputStream(content, digest), incoming, StandardCopyOption.REPLACE_EXISTING);
+            ImageFormat format = sniff(incoming)
+                    .orElseThrow(() -> new GardeningappException("Only JPEG, PNG and GIF images can be uploaded"));
+            checkDimensions(incoming);
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = storageDir.resolve(hash + "." + format.extension());
+            boolean duplicate = Files.exists(target);
+            if (!duplicate) {
+                // a concurrent upload of the same image renames identical bytes over it, which is harmless
+                Files.move(incoming, target, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Stored image {} ({} bytes)", hash, size);
+            }
+            scheduleThumbnails(hash, target);
+            return new StoredImage(hash, format, size, duplicate);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store the image", e);
+        } finally {
+            deleteQuietly(incoming);
+        }
+    }
+
+    /**
+     * The stored image with this hash and extension, if there is one.
+     */
+    public Optional<Path> findImage(String hash, String extension) {
+        if (!HASH.matcher(hash).matches()) {
+            return Optional.empty();
+        }
+        return ImageFormat.fromExtension(extension)
+                .map(format -> storageDir.resolve(hash + "." + format.extension()))
+                .filter(Files::isRegularFile);
+    }
+
+    /**
+     * The thumbnail of this size, created now if the background pool hasn't done it yet.
+     */
+    public Optional<Path> findThumbnail(String hash, int size) {
+        if (!HASH.matcher(hash).matches() || !thumbnailSizes.contains(size)) {
+            return Optional.empty();
+        }
+        Path thumbnail = thumbnail(hash, size);
+        if (Files.isRegularFile(thumbnail)) {
+            return Optional.of(thumbnail);
+        }
+        Optional<Path> original = Arrays.stream(ImageFormat.values())
+                .map(format -> storageDir.resolve(hash + "." + format.extension()))
+                .filter(Files::isRegularFile)
+                .findFirst();
+        if (original.isEmpty()) {
+            return Optional.empty();
+        }
+        try {
+            createThumbnails(hash, original.get());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create the thumbnails of image " + hash, e);
+        }
+        return Optional.of(thumbnail);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        thumbnailWorkers.shutdownNow();
+    }
+
+    private void scheduleThumbnails(String hash, Path original) {
+        if (thumbnailSizes.stream().allMatch(size -> Files.exists(thumbnail(hash, size))) || !pending.add(hash)) {
+            return;
+        }
+        try {
+            thumbnailWorkers.execute(() -> {
+                try {
+                    createThumbnails(hash, original);
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Could not create the thumbnails of image {}: {}", hash, e.getMessage());
+                } finally {
+                    pending.remove(hash);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(hash);
+            log.debug("Thumbnail queue full, the thumbnails of image {} are created on first request", hash);
+        }
+    }
+
+    private void createThumbnails(String hash, Path original) throws IOException {
+        BufferedImage source = decode(original, thumbnailSizes.get(0));
+        for (int size : thumbnailSizes) {
+            Path target = thumbnail(hash, size);
+            if (!Files.exists(target)) {
+                writeJpeg(scale(source, size), target);
+            }
+        }
+    }
+
+    // Decodes only every n-th pixel of large images, down to about twice the largest thumbnail: the full raster of a
+    // phone photo is 50 MB or more, and is not needed to draw a 480 pixel thumbnail
+    private static BufferedImage decode(Path file, int largestSize) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                int longestSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestSide / (2 * largestSize));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int size) {
+        double scale = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+        BufferedImage thumbnail = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = thumbnail.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // JPEG has no transparency, transparent PNG and GIF pixels become white
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return thumbnail;
+    }
+
+    private static void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "thumbnail-", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(THUMBNAIL_QUALITY);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private void checkDimensions(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            ImageReader reader = reader(input);
+            try {
+                // reads the header only
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new GardeningappException("The image is too large, at most " + maxPixels + " pixels are allowed");
+                }
+            } catch (IOException e) {
+                throw new GardeningappException("The image could not be read");
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static ImageReader reader(ImageInputStream input) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext()) {
+            throw new GardeningappException("The image could not be read");
+        }
+        ImageReader reader = readers.next();
+        reader.setInput(input, true, true);
+        return reader;
+    }
+
+    private static Optional<ImageFormat> sniff(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] header = new byte[8];
+            return ImageFormat.sniff(header, in.readNBytes(header, 0, header.length));
+        }
+    }
+
+    private Path thumbnailDir(int size) {
+        return storageDir.resolve("thumbnails").resolve(String.valueOf(size));
+    }
+
+    private Path thumbnail(String hash, int size) {
+        return thumbnailDir(size).resolve(hash + ".jpg");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * @param duplicate whether an identical image was already stored
+     */
+    public record StoredImage(String hash, ImageFormat format, long size, boolean duplicate) {
+    }
+}
@@ -0,0 +1,176 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.repository.CropName;
+import be.vives.ti.backend.repository.CropRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trigram index kept in memory, for H2 (dev and tests) which has no trigram indexes.
+ * A term matches the crops that contain all of its trigrams; those candidates are then checked with contains(),
+ * so only a handful of names are compared instead of the whole table.
+ * Built from the database on the first search and kept in sync by CropService afterwards.
+ */
+@Component
+@Profile("!prod")
+public class InMemoryCropSearchIndex implements CropSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryCropSearchIndex.class);
+
+    private static final int GRAM = 3;
+
+    private final CropRepository cropRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, BitSet> cropsByTrigram = new HashMap<>();
+    // lower case name per crop id
+    private final Map<Integer, String> names = new HashMap<>();
+    private volatile boolean loaded;
+
+    public InMemoryCropSearchIndex(CropRepository cropRepository) {
+        this.cropRepository = cropRepository;
+    }
+
+    @Override
+    public Page<Integer> search(String term, Pageable pageable) {
+        String normalized = CropSearchIndex.normalize(term);
+        ensureLoaded();
+        List<Map.Entry<Integer, String>> hits;
+        lock.readLock().lock();
+        try {
+            hits = candidates(normalized).entrySet().stream()
+                    .filter(entry -> entry.getValue().contains(normalized))
+                    .sorted(Comparator.<Map.Entry<Integer, String>>comparingInt(entry -> rank(entry.getValue(), normalized))
+                            .thenComparing(Map.Entry::getValue)
+                            .thenComparing(Map.Entry::getKey))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(hits.subList(from, to).stream().map(Map.Entry::getKey).toList(), pageable, hits.size());
+    }
+
+    @Override
+    public void index(Crop crop) {
+        int cropId = crop.getId();
+        String name = crop.getName() == null ? null : CropSearchIndex.normalize(crop.getName());
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            // before the first search nothing is loaded yet; loading will read the committed row
+            if (loaded) {
+                put(cropId, name);
+            }
+        }));
+    }
+
+    @Override
+    public void remove(int cropId) {
+        TransactionCallbacks.afterCommit(() -> write(() -> unindex(cropId)));
+    }
+
+    private Map<Integer, String> candidates(String term) {
+        if (term.length() < GRAM) {
+            // too short for a trigram: the whole (in-memory) name list is the candidate set
+            return names;
+        }
+        BitSet candidates = null;
+        for (String trigram : trigrams(term)) {
+            BitSet crops = cropsByTrigram.get(trigram);
+            if (crops == null) {
+                return Map.of();
+            }
+            if (candidates == null) {
+                candidates = (BitSet) crops.clone();
+            } else {
+                candidates.and(crops);
+            }
+        }
+        Map<Integer, String> result = new HashMap<>();
+        for (int cropId = candidates.nextSetBit(0); cropId >= 0; cropId = candidates.nextSetBit(cropId + 1)) {
+            result.put(cropId, names.get(cropId));
+        }
+        return result;
+    }
+
+    private static int rank(String name, String term) {
+        if (name.equals(term)) {
+            return 0;
+        }
+        return name.startsWith(term) ? 1 : 2;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            trigrams.add(text.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        write(() -> {
+            if (loaded) {
+                return;
+            }
+            for (CropName crop : cropRepository.findAllNames()) {
+                put(crop.id(), CropSearchIndex.normalize(crop.name()));
+            }
+            loaded = true;
+            log.info("Built in-memory crop search index: {} crops, {} trigrams", names.size(), cropsByTrigram.size());
+        });
+    }
+
+    // callers hold the write lock
+    private void put(int cropId, String name) {
+        unindex(cropId);
+        if (name == null) {
+            return;
+        }
+        names.put(cropId, name);
+        for (String trigram : trigrams(name)) {
+            cropsByTrigram.computeIfAbsent(trigram, t -> new BitSet()).set(cropId);
+        }
+    }
+
+    private void unindex(int cropId) {
+        String previous = names.remove(cropId);
+        if (previous == null) {
+            return;
+        }
+        for (String trigram : trigrams(previous)) {
+            BitSet crops = cropsByTrigram.get(trigram);
+            crops.clear(cropId);
+            if (crops.isEmpty()) {
+                cropsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
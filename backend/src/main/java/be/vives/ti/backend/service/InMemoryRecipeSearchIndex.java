@@ -0,0 +1,190 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.RecipeQuantity;
+import be.vives.ti.backend.model.RecipeStep;
+import be.vives.ti.backend.repository.RecipeRepository;
+import be.vives.ti.backend.repository.RecipeText;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index kept in memory, for H2 (dev and tests) where there is no full-text support in the database.
+ * It is built from the database on the first search and kept in sync by RecipeService afterwards.
+ */
+@Component
+@Profile("!prod")
+public class InMemoryRecipeSearchIndex implements RecipeSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryRecipeSearchIndex.class);
+
+    private static final int NAME_WEIGHT = 4;
+    private static final int INGREDIENT_WEIGHT = 2;
+    private static final int TEXT_WEIGHT = 1;
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (recipe id -> weight of the best field containing the term); sorted so prefixes are a sub map
+    private final NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private final Map<Integer, Map<String, Integer>> termsByRecipe = new HashMap<>();
+    private volatile boolean loaded;
+
+    public InMemoryRecipeSearchIndex(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @Override
+    public Page<Integer> search(String query, Pageable pageable) {
+        List<String> queryTerms = RecipeSearchIndex.terms(query);
+        if (queryTerms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        ensureLoaded();
+        Map<Integer, Integer> scores;
+        lock.readLock().lock();
+        try {
+            scores = score(queryTerms);
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<Integer> ranked = scores.entrySet().stream()
+                .sorted(Map.Entry.<Integer, Integer>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .map(Map.Entry::getKey)
+                .toList();
+        int from = (int) Math.min(pageable.getOffset(), ranked.size());
+        int to = Math.min(from + pageable.getPageSize(), ranked.size());
+        return new PageImpl<>(ranked.subList(from, to), pageable, ranked.size());
+    }
+
+    @Override
+    public void index(Recipe recipe) {
+        // extract the text now, while the recipe is attached; publish it only once it is committed
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, recipe.getRecipeName(), NAME_WEIGHT);
+        for (RecipeQuantity quantity : recipe.getQuantities()) {
+            if (quantity.getIngredient() != null) {
+                addTerms(terms, quantity.getIngredient().getName(), INGREDIENT_WEIGHT);
+            }
+        }
+        addTerms(terms, recipe.getRecipeDescription(), TEXT_WEIGHT);
+        for (RecipeStep step : recipe.getSteps()) {
+            addTerms(terms, step.getDescription(), TEXT_WEIGHT);
+        }
+        int recipeId = recipe.getId();
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            // before the first search nothing is indexed yet; loading will read the committed recipe
+            if (loaded) {
+                put(recipeId, terms);
+            }
+        }));
+    }
+
+    @Override
+    public void remove(int recipeId) {
+        TransactionCallbacks.afterCommit(() -> write(() -> unindex(recipeId)));
+    }
+
+    private Map<Integer, Integer> score(List<String> queryTerms) {
+        Map<Integer, Integer> scores = null;
+        for (String queryTerm : queryTerms) {
+            Map<Integer, Integer> termScores = new HashMap<>();
+            for (Map<Integer, Integer> posting : postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, true).values()) {
+                posting.forEach((recipeId, weight) -> termScores.merge(recipeId, weight, Math::max));
+            }
+            if (scores == null) {
+                scores = termScores;
+            } else {
+                // every query term has to match: keep the intersection and add up the weights
+                Map<Integer, Integer> previous = scores;
+                scores = new HashMap<>();
+                for (Map.Entry<Integer, Integer> entry : termScores.entrySet()) {
+                    Integer score = previous.get(entry.getKey());
+                    if (score != null) {
+                        scores.put(entry.getKey(), score + entry.getValue());
+                    }
+                }
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        write(() -> {
+            if (loaded) {
+                return;
+            }
+            Map<Integer, Map<String, Integer>> documents = new HashMap<>();
+            addTexts(documents, recipeRepository.findNameTexts(), NAME_WEIGHT);
+            addTexts(documents, recipeRepository.findIngredientTexts(), INGREDIENT_WEIGHT);
+            addTexts(documents, recipeRepository.findDescriptionTexts(), TEXT_WEIGHT);
+            addTexts(documents, recipeRepository.findStepTexts(), TEXT_WEIGHT);
+            documents.forEach(this::put);
+            loaded = true;
+            log.info("Built in-memory recipe search index: {} recipes, {} terms", termsByRecipe.size(), postings.size());
+        });
+    }
+
+    private void addTexts(Map<Integer, Map<String, Integer>> documents, List<RecipeText> texts, int weight) {
+        for (RecipeText text : texts) {
+            addTerms(documents.computeIfAbsent(text.recipeId(), id -> new HashMap<>()), text.text(), weight);
+        }
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String term : RecipeSearchIndex.terms(text)) {
+            terms.merge(term, weight, Math::max);
+        }
+    }
+
+    // callers hold the write lock
+    private void put(int recipeId, Map<String, Integer> terms) {
+        unindex(recipeId);
+        terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(recipeId, weight));
+        termsByRecipe.put(recipeId, terms);
+    }
+
+    private void unindex(int recipeId) {
+        Map<String, Integer> previous = termsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (String term : new ArrayList<>(previous.keySet())) {
+            Map<Integer, Integer> posting = postings.get(term);
+            posting.remove(recipeId);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
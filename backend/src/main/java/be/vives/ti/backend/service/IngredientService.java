@@ -1,6 +1,7 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.request.CreateIngredientRequest;
+import be.vives.ti.backend.dto.response.CursorPage;
 import be.vives.ti.backend.dto.response.IngredientResponse;
 import be.vives.ti.backend.exceptions.IngredientException;
 import be.vives.ti.backend.mapper.IngredientMapper;
@@ -10,10 +11,12 @@ import be.vives.ti.backend.repository.RecipeRepository;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -37,6 +40,23 @@ public class IngredientService {
         return ingredientPage.map(ingredientMapper::toResponse);
     }
 
+    public CursorPage<IngredientResponse> findAllAfter(String after, int size) {
+        log.debug("Finding ingredients after cursor: {} with size: {}", after, size);
+        Limit limit = Limit.of(size + 1);
+        List<Ingredient> ingredients;
+        if (after == null || after.isBlank()) {
+            ingredients = ingredientRepository.findFirstByName(limit);
+        } else {
+            KeysetCursor cursor = KeysetCursor.decode(after);
+            ingredients = ingredientRepository.findNextByName(cursor.name(), cursor.id(), limit);
+        }
+        return KeysetCursor.slice(ingredients, size, ingredient -> new KeysetCursor(ingredient.getName(), ingredient.getId()), ingredientMapper::toResponse);
+    }
+
+    public String collectionVersion() {
+        return ingredientRepository.findCollectionVersion();
+    }
+
     public IngredientResponse create(CreateIngredientRequest request) {
         log.debug("Checking if ingredient name is already used");
         Optional<Ingredient> ingredientExists = ingredientRepository.findByNameIgnoreCase(request.name());
@@ -0,0 +1,65 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.exceptions.GardeningappException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Applies JSON merge patches (RFC 7396) to update requests. The current state of the entity is turned into its update
+ * request, the patch is merged into it and the result is read back and validated, so a PATCH ends up on the same
+ * update path as a PUT: members missing from the patch keep their value, null removes a value, nested objects are
+ * merged and arrays are replaced as a whole.
+ */
+@Component
+public class JsonMergePatch {
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    public JsonMergePatch(ObjectMapper objectMapper, Validator validator) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public <T> T apply(T current, JsonNode patch, Class<T> type) {
+        if (patch == null || !patch.isObject()) {
+            throw new GardeningappException("A merge patch must be a JSON object");
+        }
+        JsonNode merged = merge(objectMapper.valueToTree(current), patch);
+        T patched;
+        try {
+            patched = objectMapper.treeToValue(merged, type);
+        } catch (JsonProcessingException e) {
+            throw new GardeningappException("Invalid patch: " + e.getOriginalMessage());
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(patched);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+        return patched;
+    }
+
+    static JsonNode merge(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        patch.properties().forEach(member -> {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), merge(result.get(member.getKey()), member.getValue()));
+            }
+        });
+        return result;
+    }
+}
@@ -0,0 +1,49 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CursorPage;
+import be.vives.ti.backend.exceptions.GardeningappException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Position in a list sorted by name, then id. Clients only ever see the encoded, opaque form
+ * and pass it back as the {@code after} parameter to get the next slice.
+ * A null name is the empty string, as in the queries, which sort on {@code COALESCE(name, '')}.
+ */
+public record KeysetCursor(String name, int id) {
+
+    public KeysetCursor {
+        if (name == null) {
+            name = "";
+        }
+    }
+
+    /**
+     * Builds a slice from rows that were fetched with a limit of {@code size + 1}:
+     * the extra row only tells whether there is a next slice and is not returned.
+     */
+    public static <E, R> CursorPage<R> slice(List<E> rows, int size, Function<E, KeysetCursor> position, Function<E, R> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> content = hasNext ? rows.subList(0, size) : rows;
+        String next = hasNext ? position.apply(content.get(content.size() - 1)).encode() : null;
+        return new CursorPage<>(content.stream().map(mapper).toList(), size, hasNext, next);
+    }
+
+    public String encode() {
+        String raw = id + ":" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new KeysetCursor(raw.substring(separator + 1), Integer.parseInt(raw.substring(0, separator)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new GardeningappException("Invalid cursor", e);
+        }
+    }
+}
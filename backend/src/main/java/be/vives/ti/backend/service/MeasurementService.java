@@ -1,9 +1,7 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.response.MeasurementResponse;
-import be.vives.ti.backend.mapper.MeasurementMapper;
 import be.vives.ti.backend.model.IngredientMeasurement;
-import be.vives.ti.backend.repository.IngredientMeasurementRepository;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,20 +14,19 @@ import java.util.List;
 public class MeasurementService {
     private static final Logger log = LoggerFactory.getLogger(MeasurementService.class);
 
-    private final IngredientMeasurementRepository measurementRepository;
-    private final MeasurementMapper measurementMapper;
+    private final ReferenceDataRegistry referenceDataRegistry;
 
-    public MeasurementService(IngredientMeasurementRepository measurementRepository, MeasurementMapper measurementMapper) {
-        this.measurementRepository = measurementRepository;
-        this.measurementMapper = measurementMapper;
+    public MeasurementService(ReferenceDataRegistry referenceDataRegistry) {
+        this.referenceDataRegistry = referenceDataRegistry;
     }
 
     public List<MeasurementResponse> findAll() {
         log.debug("Finding all measurements");
-        List<IngredientMeasurement> measurements = measurementRepository.findAll();
-        return measurements.stream()
-                .map(measurementMapper::toResponse)
-                .toList();
+        return referenceDataRegistry.measurements().list();
     }
 
+    // the same list, pre-serialized, with its ETag
+    public ReferenceData<IngredientMeasurement, MeasurementResponse> snapshot() {
+        return referenceDataRegistry.measurements();
+    }
 }
@@ -0,0 +1,39 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.repository.CropRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+/**
+ * Search backed by the trigram GIN index on lower(crops.cropname), which Postgres keeps up to date by itself.
+ */
+@Component
+@Profile("prod")
+public class PostgresCropSearchIndex implements CropSearchIndex {
+
+    private final CropRepository cropRepository;
+
+    public PostgresCropSearchIndex(CropRepository cropRepository) {
+        this.cropRepository = cropRepository;
+    }
+
+    @Override
+    public Page<Integer> search(String term, Pageable pageable) {
+        String normalized = CropSearchIndex.normalize(term);
+        String escaped = normalized.replace("!", "!!").replace("%", "!%").replace("_", "!_");
+        return cropRepository.searchIdsByName(normalized, "%" + escaped + "%", escaped + "%", pageable);
+    }
+
+    @Override
+    public void index(Crop crop) {
+        // maintained by the database
+    }
+
+    @Override
+    public void remove(int cropId) {
+        // maintained by the database
+    }
+}
@@ -0,0 +1,70 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.repository.RecipeRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Search backed by the tsvector column recipes.search_vector and its GIN index.
+ * The vector is recomputed in SQL in the same transaction that saves the recipe.
+ */
+@Component
+@Profile("prod")
+public class PostgresRecipeSearchIndex implements RecipeSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(PostgresRecipeSearchIndex.class);
+
+    private final RecipeRepository recipeRepository;
+
+    public PostgresRecipeSearchIndex(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    @Override
+    public Page<Integer> search(String query, Pageable pageable) {
+        List<String> terms = RecipeSearchIndex.terms(query);
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        // terms only contain letters and digits, so they are safe to use as tsquery lexemes; ':*' makes them prefixes
+        String tsQuery = terms.stream().map(term -> term + ":*").collect(Collectors.joining(" & "));
+        return recipeRepository.searchIds(tsQuery, pageable);
+    }
+
+    @Override
+    public void index(Recipe recipe) {
+        // the vector is built from the rows, so pending inserts of quantities and steps have to be written first
+        recipeRepository.flush();
+        recipeRepository.updateSearchVector(recipe.getId());
+    }
+
+    @Override
+    public void indexAll(List<Recipe> recipes) {
+        recipeRepository.flush();
+        recipeRepository.updateSearchVectors(recipes.stream().map(Recipe::getId).toList());
+    }
+
+    @Override
+    public void remove(int recipeId) {
+        // the vector is stored on the recipe row itself and disappears with it
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void indexMissing() {
+        int updated = recipeRepository.updateMissingSearchVectors();
+        if (updated > 0) {
+            log.info("Computed search vectors for {} recipes", updated);
+        }
+    }
+}
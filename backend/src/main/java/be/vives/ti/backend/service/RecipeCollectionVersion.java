@@ -0,0 +1,72 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.repository.CollectionVersionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Synchronization;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Version of everything that ends up in a full RecipeResponse, for the ETags of the recipe list. It is the "recipes" row
+ * of collection_versions, incremented in the same transaction that writes a recipe, quantity, step, ingredient or
+ * measurement or removes a user (see RecipeCollectionChangeListener), so every replica hands out the same version and a
+ * conditional request costs one primary key lookup instead of a scan of the recipe tables.
+ * A change made by hand in SQL has to increment the row as well:
+ * UPDATE collection_versions SET version = version + 1 WHERE name = 'recipes'
+ */
+@Component
+public class RecipeCollectionVersion {
+
+    static final String NAME = "recipes";
+
+    private final CollectionVersionRepository collectionVersionRepository;
+    private final EntityManagerFactory entityManagerFactory;
+
+    public RecipeCollectionVersion(CollectionVersionRepository collectionVersionRepository,
+                                   EntityManagerFactory entityManagerFactory) {
+        this.collectionVersionRepository = collectionVersionRepository;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public String current() {
+        return String.valueOf(collectionVersionRepository.findVersion(NAME).orElse(0L));
+    }
+
+    /**
+     * Increments the version when the current transaction commits, once however many rows it wrote. Called while
+     * Hibernate flushes, so the update runs just before the commit, after the last flush; concurrent writers only wait
+     * for the row lock between that update and their commit.
+     */
+    public void changed() {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionCallbacks.afterCompletion(() -> TransactionSynchronizationManager.unbindResource(this));
+
+        // the session of this transaction itself, not the shared proxy, to register with its Hibernate transaction
+        Session session = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory)
+                .unwrap(Session.class);
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+                int updated = session.createMutationQuery(
+                                "UPDATE CollectionVersion v SET v.version = v.version + 1 WHERE v.name = :name")
+                        .setParameter("name", NAME)
+                        .executeUpdate();
+                if (updated == 0) {
+                    // the schema scripts create the row; a database generated from the entities starts without it
+                    session.createMutationQuery("INSERT INTO CollectionVersion (name, version) VALUES (:name, 1)")
+                            .setParameter("name", NAME)
+                            .executeUpdate();
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+            }
+        });
+    }
+}
@@ -0,0 +1,172 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.request.RecipeMatchRequest;
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.RecipeQuantity;
+import be.vives.ti.backend.repository.RecipeIngredientRef;
+import be.vives.ti.backend.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory posting lists from ingredient id to the recipes that use it, stored as bitmaps indexed by recipe id.
+ * Matching ORs the bitmaps of the available ingredients and then only looks at those candidate recipes.
+ * Built from recipe_quantities on first use and kept in sync by RecipeService afterwards.
+ */
+@Component
+public class RecipeMatchIndex {
+    private static final Logger log = LoggerFactory.getLogger(RecipeMatchIndex.class);
+
+    private static final Comparator<RecipeMatch> FEWEST_MISSING = Comparator.comparingInt(RecipeMatch::missing)
+            .thenComparing(Comparator.comparingInt(RecipeMatch::matched).reversed())
+            .thenComparingInt(RecipeMatch::recipeId);
+    private static final Comparator<RecipeMatch> MOST_MATCHED = Comparator.comparingInt(RecipeMatch::matched).reversed()
+            .thenComparingInt(RecipeMatch::missing)
+            .thenComparingInt(RecipeMatch::recipeId);
+
+    private final RecipeRepository recipeRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, BitSet> recipesByIngredient = new HashMap<>();
+    // distinct ingredient ids per recipe, sorted
+    private final Map<Integer, int[]> ingredientsByRecipe = new HashMap<>();
+    private volatile boolean loaded;
+
+    public RecipeMatchIndex(RecipeRepository recipeRepository) {
+        this.recipeRepository = recipeRepository;
+    }
+
+    public record RecipeMatch(int recipeId, int matched, List<Integer> missingIngredientIds) {
+        public int missing() {
+            return missingIngredientIds.size();
+        }
+    }
+
+    /**
+     * Returns every recipe that uses at least one of the available ingredients (ANY and RANKED)
+     * or that needs nothing else (ALL), in the order of the mode.
+     */
+    public List<RecipeMatch> match(Collection<Integer> availableIngredientIds, RecipeMatchRequest.Mode mode) {
+        ensureLoaded();
+        BitSet available = new BitSet();
+        availableIngredientIds.stream().filter(Objects::nonNull).filter(id -> id >= 0).forEach(available::set);
+        List<RecipeMatch> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            BitSet candidates = new BitSet();
+            for (int ingredientId = available.nextSetBit(0); ingredientId >= 0; ingredientId = available.nextSetBit(ingredientId + 1)) {
+                BitSet recipes = recipesByIngredient.get(ingredientId);
+                if (recipes != null) {
+                    candidates.or(recipes);
+                }
+            }
+            for (int recipeId = candidates.nextSetBit(0); recipeId >= 0; recipeId = candidates.nextSetBit(recipeId + 1)) {
+                int matched = 0;
+                List<Integer> missing = new ArrayList<>();
+                for (int ingredientId : ingredientsByRecipe.get(recipeId)) {
+                    if (available.get(ingredientId)) {
+                        matched++;
+                    } else {
+                        missing.add(ingredientId);
+                    }
+                }
+                if (mode != RecipeMatchRequest.Mode.ALL || missing.isEmpty()) {
+                    matches.add(new RecipeMatch(recipeId, matched, missing));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(mode == RecipeMatchRequest.Mode.RANKED ? FEWEST_MISSING : MOST_MATCHED);
+        return matches;
+    }
+
+    public void index(Recipe recipe) {
+        // read the ingredients now, while the recipe is attached; publish them once the transaction commits
+        int[] ingredientIds = recipe.getQuantities().stream()
+                .map(RecipeQuantity::getIngredient)
+                .filter(Objects::nonNull)
+                .mapToInt(Ingredient::getId)
+                .distinct()
+                .sorted()
+                .toArray();
+        int recipeId = recipe.getId();
+        TransactionCallbacks.afterCommit(() -> write(() -> {
+            // before the first match nothing is loaded yet; loading will read the committed rows
+            if (loaded) {
+                put(recipeId, ingredientIds);
+            }
+        }));
+    }
+
+    public void remove(int recipeId) {
+        TransactionCallbacks.afterCommit(() -> write(() -> unindex(recipeId)));
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        write(() -> {
+            if (loaded) {
+                return;
+            }
+            Map<Integer, List<Integer>> ingredients = new HashMap<>();
+            for (RecipeIngredientRef ref : recipeRepository.findIngredientRefs()) {
+                ingredients.computeIfAbsent(ref.recipeId(), id -> new ArrayList<>()).add(ref.ingredientId());
+            }
+            ingredients.forEach((recipeId, ids) ->
+                    put(recipeId, ids.stream().mapToInt(Integer::intValue).distinct().sorted().toArray()));
+            loaded = true;
+            log.info("Built recipe match index: {} recipes, {} ingredients", ingredientsByRecipe.size(), recipesByIngredient.size());
+        });
+    }
+
+    // callers hold the write lock
+    private void put(int recipeId, int[] ingredientIds) {
+        unindex(recipeId);
+        if (ingredientIds.length == 0) {
+            return;
+        }
+        for (int ingredientId : ingredientIds) {
+            recipesByIngredient.computeIfAbsent(ingredientId, id -> new BitSet()).set(recipeId);
+        }
+        ingredientsByRecipe.put(recipeId, ingredientIds);
+    }
+
+    private void unindex(int recipeId) {
+        int[] previous = ingredientsByRecipe.remove(recipeId);
+        if (previous == null) {
+            return;
+        }
+        for (int ingredientId : previous) {
+            BitSet recipes = recipesByIngredient.get(ingredientId);
+            recipes.clear(recipeId);
+            if (recipes.isEmpty()) {
+                recipesByIngredient.remove(ingredientId);
+            }
+        }
+    }
+
+    private void write(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CacheStatsResponse;
+import be.vives.ti.backend.dto.response.RecipeResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-memory cache of full recipe responses, keyed by recipe id.
+ * Evictions requested inside a transaction are applied once the transaction completes,
+ * so a concurrent reader can't put the old state back before the change is visible.
+ */
+@Component
+public class RecipeResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(RecipeResponseCache.class);
+
+    private final Cache<Integer, RecipeResponse> cache;
+
+    public RecipeResponseCache(@Value("${recipes.cache.max-size:1000}") long maxSize,
+                               @Value("${recipes.cache.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<RecipeResponse> get(int id, Supplier<Optional<RecipeResponse>> loader) {
+        // a missing recipe is not cached: the loader returns null and the next call tries again
+        return Optional.ofNullable(cache.get(id, key -> loader.get().orElse(null)));
+    }
+
+    public void evict(int recipeId) {
+        TransactionCallbacks.afterCompletion(() -> cache.invalidate(recipeId));
+    }
+
+    public void evictByIngredient(int ingredientId) {
+        evictWhere(recipe -> recipe.recipeQuantities() != null && recipe.recipeQuantities().stream()
+                .anyMatch(q -> q.ingredientResponse() != null && Objects.equals(q.ingredientResponse().id(), ingredientId)));
+    }
+
+    public void evictByMeasurement(int measurementId) {
+        evictWhere(recipe -> recipe.recipeQuantities() != null && recipe.recipeQuantities().stream()
+                .anyMatch(q -> q.measurementResponse() != null && Objects.equals(q.measurementResponse().id(), measurementId)));
+    }
+
+    public void evictByCourse(int courseId) {
+        evictWhere(recipe -> Objects.equals(recipe.courseId(), courseId));
+    }
+
+    public void evictByCategory(int categoryId) {
+        evictWhere(recipe -> Objects.equals(recipe.categoryId(), categoryId));
+    }
+
+    public void evictByAuthor(int authorId) {
+        evictWhere(recipe -> Objects.equals(recipe.authorId(), authorId));
+    }
+
+    public void evictAll() {
+        log.info("Flushing recipe cache ({} entries)", cache.estimatedSize());
+        cache.invalidateAll();
+    }
+
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+
+    private void evictWhere(Predicate<RecipeResponse> predicate) {
+        // also on rollback: a read inside the failed transaction may have cached uncommitted state
+        TransactionCallbacks.afterCompletion(() -> cache.asMap().values().removeIf(predicate));
+    }
+}
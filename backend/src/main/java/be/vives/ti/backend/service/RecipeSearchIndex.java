@@ -0,0 +1,49 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Recipe;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Full-text index over recipe names, descriptions, ingredient names and step text.
+ * Every query word has to match (as a word or word prefix); results are ranked with name matches first,
+ * then ingredients, then description and steps.
+ */
+public interface RecipeSearchIndex {
+
+    /**
+     * Returns the ids of the matching recipes for the requested page, best match first.
+     */
+    Page<Integer> search(String query, Pageable pageable);
+
+    /**
+     * (Re)indexes a recipe after it was created or updated. Called inside the transaction that saved it.
+     */
+    void index(Recipe recipe);
+
+    /**
+     * Indexes a batch of newly saved recipes, see {@link #index(Recipe)}.
+     */
+    default void indexAll(List<Recipe> recipes) {
+        recipes.forEach(this::index);
+    }
+
+    void remove(int recipeId);
+
+    /**
+     * Splits text into lower case words. Used for documents and queries alike, so both sides match.
+     */
+    static List<String> terms(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .toList();
+    }
+}
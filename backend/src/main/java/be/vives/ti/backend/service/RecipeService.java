@@ -2,26 +2,42 @@ package be.vives.ti.backend.service;
 
 
 import be.vives.ti.backend.dto.request.CreateRecipeRequest;
+import be.vives.ti.backend.dto.request.RecipeMatchRequest;
 import be.vives.ti.backend.dto.request.UpdateRecipeRequest;
+import be.vives.ti.backend.exceptions.GardeningappException;
 import be.vives.ti.backend.exceptions.RecipeException;
 import be.vives.ti.backend.mapper.RecipeMapper;
 import be.vives.ti.backend.model.*;
-import be.vives.ti.backend.repository.CategoryRepository;
-import be.vives.ti.backend.repository.CourseRepository;
 import be.vives.ti.backend.repository.RecipeRepository;
 import be.vives.ti.backend.repository.UserRepository;
 import be.vives.ti.backend.repository.IngredientRepository;
-import be.vives.ti.backend.repository.IngredientMeasurementRepository;
+import be.vives.ti.backend.dto.response.CursorPage;
+import be.vives.ti.backend.dto.response.RecipeMatchResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.stereotype.Service;
 
 import org.springframework.data.domain.Pageable;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -31,32 +47,87 @@ public class RecipeService {
 
     private final RecipeRepository recipeRepository;
     private final RecipeMapper recipeMapper;
-    private final CourseRepository courseRepository;
-    private final CategoryRepository categoryRepository;
     private final UserRepository userRepository;
     private final IngredientRepository ingredientRepository;
-    private final IngredientMeasurementRepository measurementRepository;
+    private final ReferenceDataRegistry referenceData;
+    private final RecipeResponseCache recipeResponseCache;
+    private final RecipeCollectionVersion recipeCollectionVersion;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final RecipeMatchIndex recipeMatchIndex;
+    private final JsonMergePatch jsonMergePatch;
 
-    public RecipeService(RecipeRepository recipeRepository, RecipeMapper recipeMapper, CourseRepository courseRepository, CategoryRepository categoryRepository, UserRepository userRepository, IngredientRepository ingredientRepository, IngredientMeasurementRepository measurementRepository){
+    public RecipeService(RecipeRepository recipeRepository, RecipeMapper recipeMapper, UserRepository userRepository, IngredientRepository ingredientRepository, ReferenceDataRegistry referenceData, RecipeResponseCache recipeResponseCache, RecipeCollectionVersion recipeCollectionVersion, RecipeSearchIndex recipeSearchIndex, RecipeMatchIndex recipeMatchIndex, JsonMergePatch jsonMergePatch){
         this.recipeRepository = recipeRepository;
         this.recipeMapper = recipeMapper;
-        this.courseRepository = courseRepository;
-        this.categoryRepository = categoryRepository;
         this.userRepository = userRepository;
         this.ingredientRepository = ingredientRepository;
-        this.measurementRepository = measurementRepository;
+        this.referenceData = referenceData;
+        this.recipeResponseCache = recipeResponseCache;
+        this.recipeCollectionVersion = recipeCollectionVersion;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeMatchIndex = recipeMatchIndex;
+        this.jsonMergePatch = jsonMergePatch;
     }
 
     public Page<RecipeResponse> findAll(Pageable pageable){
         log.debug("Finding all recipes with pagination: {}", pageable);
-        Page<Recipe> recipePage = recipeRepository.findAll(pageable);
-        return recipePage.map(recipeMapper::toResponse);
+        Page<Integer> idPage = recipeRepository.findAllIds(pageable);
+        return toResponsePage(idPage);
+    }
+
+    public CursorPage<RecipeResponse> findAllAfter(String after, int size){
+        log.debug("Finding recipes after cursor: {} with size: {}", after, size);
+        List<Integer> ids = findIdsAfter(after, size);
+        // only hydrate the rows that are returned, the extra id just tells whether there is a next slice
+        boolean hasNext = ids.size() > size;
+        List<Recipe> recipes = recipeRepository.findAllFetchedByIdIn(hasNext ? ids.subList(0, size) : ids);
+        String next = null;
+        if (hasNext && !recipes.isEmpty()) {
+            Recipe last = recipes.get(recipes.size() - 1);
+            next = new KeysetCursor(last.getRecipeName(), last.getId()).encode();
+        }
+        return new CursorPage<>(recipes.stream().map(recipeMapper::toResponse).toList(), size, hasNext, next);
+    }
+
+    public CursorPage<RecipeSummaryResponse> findAllSummariesAfter(String after, int size){
+        log.debug("Finding recipe summaries after cursor: {} with size: {}", after, size);
+        List<Integer> ids = findIdsAfter(after, size);
+        boolean hasNext = ids.size() > size;
+        List<Integer> sliceIds = hasNext ? ids.subList(0, size) : ids;
+        // the keyset query decides the order, the summaries are put back in that order
+        Map<Integer, RecipeSummaryResponse> summaries = recipeRepository.findSummariesByIdIn(sliceIds)
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryResponse::id, Function.identity()));
+        List<RecipeSummaryResponse> content = sliceIds.stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+        String next = null;
+        if (hasNext && !content.isEmpty()) {
+            RecipeSummaryResponse last = content.get(content.size() - 1);
+            next = new KeysetCursor(last.name(), last.id()).encode();
+        }
+        return new CursorPage<>(content, size, hasNext, next);
+    }
+
+    // ids of the slice sorted by name, plus one to tell whether there is a next slice
+    private List<Integer> findIdsAfter(String after, int size){
+        Limit limit = Limit.of(size + 1);
+        if (after == null || after.isBlank()) {
+            return recipeRepository.findFirstIdsByName(limit);
+        }
+        KeysetCursor cursor = KeysetCursor.decode(after);
+        return recipeRepository.findNextIdsByName(cursor.name(), cursor.id(), limit);
+    }
+
+    public String collectionVersion() {
+        return recipeCollectionVersion.current();
     }
 
     public Page<RecipeResponse> findByCatId(int id, Pageable pageable){
         log.debug("Finding recipes by category id: {} with pagination: {}", id, pageable);
-        Page<Recipe> recipePage = recipeRepository.findByCategory_Id(id, pageable);
-        return recipePage.map(recipeMapper::toResponse);
+        Page<Integer> idPage = recipeRepository.findIdsByCategoryId(id, pageable);
+        return toResponsePage(idPage);
     }
 
     public RecipeResponse create(CreateRecipeRequest request){
@@ -66,23 +137,79 @@ public class RecipeService {
             throw new RecipeException("A recipe with the same name already exists");
         }
         log.debug("Creating new recipe: {}", request.name());
-        Recipe recipe = recipeMapper.toEntity(request);
+        RecipeReferences references = new RecipeReferences();
+        collectReferences(references, "", request);
+        resolve(references);
 
-        Course course = courseRepository.findById(request.courseId()).get();
-        recipe.setCourse(course);
-        Category category = categoryRepository.findById(request.categoryId()).get();
-        recipe.setCategory(category);
+        Recipe savedRecipe = recipeRepository.save(toEntity(request, references));
+        recipeSearchIndex.index(savedRecipe);
+        recipeMatchIndex.index(savedRecipe);
+        log.info("Created recipe with id: {}", savedRecipe.getId());
+        return recipeMapper.toResponse(savedRecipe);
+    }
+
+    /**
+     * Imports recipes in one transaction. Referenced courses, categories, authors, ingredients and measurements are
+     * loaded once for the whole batch; the inserts themselves are sent in JDBC batches (see hibernate.jdbc.batch_size).
+     * Nothing is saved when a name is already taken or a reference doesn't exist.
+     */
+    public List<Integer> createAll(List<CreateRecipeRequest> requests){
+        log.debug("Importing {} recipes", requests.size());
+        List<String> names = requests.stream().map(CreateRecipeRequest::name).toList();
+        Set<String> taken = new HashSet<>(recipeRepository.findRecipeNamesIn(names));
+        Set<String> seen = new HashSet<>();
+        for (String name : names) {
+            if (!seen.add(name)) {
+                taken.add(name);
+            }
+        }
+        if (!taken.isEmpty()) {
+            throw new GardeningappException("Recipe names already in use: " + String.join(", ", taken));
+        }
+
+        RecipeReferences references = new RecipeReferences();
+        for (int i = 0; i < requests.size(); i++) {
+            collectReferences(references, "recipes[" + i + "].", requests.get(i));
+        }
+        resolve(references);
+
+        List<Recipe> recipes = requests.stream().map(request -> toEntity(request, references)).toList();
+        List<Recipe> saved = recipeRepository.saveAll(recipes);
+        recipeSearchIndex.indexAll(saved);
+        saved.forEach(recipeMatchIndex::index);
+        log.info("Imported {} recipes", saved.size());
+        return saved.stream().map(Recipe::getId).toList();
+    }
 
-        if (request.authorId() != null) {
-            userRepository.findById(request.authorId()).ifPresent(recipe::setAuthor);
+    private static void collectReferences(RecipeReferences references, String prefix, CreateRecipeRequest request) {
+        references.courses.add(prefix + "courseId", request.courseId());
+        references.categories.add(prefix + "categoryId", request.categoryId());
+        references.authors.add(prefix + "authorId", request.authorId());
+        if (request.quantities() != null) {
+            for (int i = 0; i < request.quantities().size(); i++) {
+                var qReq = request.quantities().get(i);
+                references.ingredients.add(prefix + "quantities[" + i + "].ingredientId", qReq.ingredientId());
+                references.measurements.add(prefix + "quantities[" + i + "].measurementId", qReq.measurementId());
+            }
         }
+    }
+
+    private void resolve(RecipeReferences references) {
+        references.resolve(referenceData, userRepository, ingredientRepository);
+    }
+
+    private Recipe toEntity(CreateRecipeRequest request, RecipeReferences references) {
+        Recipe recipe = recipeMapper.toEntity(request);
+        recipe.setCourse(references.courses.get(request.courseId()));
+        recipe.setCategory(references.categories.get(request.categoryId()));
+        recipe.setAuthor(references.authors.get(request.authorId()));
 
         if (request.quantities() != null) {
             for (var qReq : request.quantities()) {
                 RecipeQuantity rq = new RecipeQuantity();
                 rq.setQuantity(qReq.quantity());
-                ingredientRepository.findById(qReq.ingredientId()).ifPresent(rq::setIngredient);
-                measurementRepository.findById(qReq.measurementId()).ifPresent(rq::setMeasurement);
+                rq.setIngredient(references.ingredients.get(qReq.ingredientId()));
+                rq.setMeasurement(references.measurements.get(qReq.measurementId()));
                 rq.setRecipe(recipe);
                 recipe.getQuantities().add(rq);
             }
@@ -97,58 +224,161 @@ public class RecipeService {
                 recipe.getSteps().add(rs);
             }
         }
-
-        Recipe savedRecipe = recipeRepository.save(recipe);
-        log.info("Created recipe with id: {}", savedRecipe.getId());
-        return recipeMapper.toResponse(savedRecipe);
+        return recipe;
     }
 
     public Page<RecipeResponse> findByIngredientId(int ingredientID, Pageable pageable){
         log.debug("Finding recipes by ingredient id: {} with pagination: {}", ingredientID, pageable);
-        Page<Recipe> recipes = recipeRepository.findByIngredientID(ingredientID, pageable);
-        return recipes.map(recipeMapper::toResponse);
+        Page<Integer> idPage = recipeRepository.findIdsByIngredientId(ingredientID, pageable);
+        return toResponsePage(idPage);
     }
 
     public Optional<RecipeResponse> update(int id, UpdateRecipeRequest request){
         log.debug("Updating recipe with id: {}", id);
         return recipeRepository.findById(id)
-                .map(recipe -> {
-                    recipeMapper.updateEntity(request, recipe);
+                .map(recipe -> applyUpdate(id, recipe, request));
+    }
 
-                    if (request.courseId() != null) {
-                        courseRepository.findById(request.courseId()).ifPresent(recipe::setCourse);
+    /**
+     * Applies a JSON merge patch to the recipe. The patch is merged into the recipe's current state (quantities and
+     * steps keep their ids, so a patch replacing the steps array still updates matching rows in place) and then goes
+     * through the same path as a PUT. When expectedVersions are given (the If-Match header) and the recipe's version is
+     * not one of them, nothing is written and an OptimisticLockingFailureException is thrown.
+     */
+    public Optional<RecipeResponse> patch(int id, JsonNode patch, Set<Long> expectedVersions){
+        log.debug("Patching recipe with id: {}", id);
+        return recipeRepository.findById(id)
+                .map(recipe -> {
+                    if (expectedVersions != null && (recipe.getVersion() == null || !expectedVersions.contains(recipe.getVersion()))) {
+                        throw new OptimisticLockingFailureException("Recipe " + id + " was changed by someone else (version "
+                                + recipe.getVersion() + ", expected one of " + expectedVersions + ")");
                     }
-                    if (request.categoryId() != null) {
-                        categoryRepository.findById(request.categoryId()).ifPresent(recipe::setCategory);
+                    UpdateRecipeRequest request = jsonMergePatch.apply(recipeMapper.toUpdateRequest(recipe), patch, UpdateRecipeRequest.class);
+                    // a PUT leaves the course and category alone when they are missing, a merge patch with null removes them
+                    if (request.courseId() == null) {
+                        recipe.setCourse(null);
                     }
-
-                    recipe.getQuantities().clear();
-                    if (request.quantities() != null) {
-                        for (var q : request.quantities()) {
-                            be.vives.ti.backend.model.RecipeQuantity rq = new be.vives.ti.backend.model.RecipeQuantity();
-                            rq.setQuantity(q.quantity());
-                            ingredientRepository.findById(q.ingredientId()).ifPresent(rq::setIngredient);
-                            measurementRepository.findById(q.measurementId()).ifPresent(rq::setMeasurement);
-                            rq.setRecipe(recipe);
-                            recipe.getQuantities().add(rq);
-                        }
+                    if (request.categoryId() == null) {
+                        recipe.setCategory(null);
                     }
+                    return applyUpdate(id, recipe, request);
+                });
+    }
 
-                    recipe.getSteps().clear();
-                    if (request.steps() != null) {
-                        for (var s : request.steps()) {
-                            be.vives.ti.backend.model.RecipeStep rs = new be.vives.ti.backend.model.RecipeStep();
-                            rs.setStepNumber(s.stepNumber());
-                            rs.setDescription(s.description());
-                            rs.setRecipe(recipe);
-                            recipe.getSteps().add(rs);
-                        }
-                    }
+    private RecipeResponse applyUpdate(int id, Recipe recipe, UpdateRecipeRequest request){
+        RecipeReferences references = new RecipeReferences();
+        references.courses.add("courseId", request.courseId());
+        references.categories.add("categoryId", request.categoryId());
+        if (request.quantities() != null) {
+            for (int i = 0; i < request.quantities().size(); i++) {
+                var q = request.quantities().get(i);
+                references.ingredients.add("quantities[" + i + "].ingredientId", q.ingredientId());
+                references.measurements.add("quantities[" + i + "].measurementId", q.measurementId());
+            }
+        }
+        resolve(references);
 
-                    Recipe updatedRecipe = recipeRepository.save(recipe);
-                    log.info("Updated recipe with id: {}", id);
-                    return recipeMapper.toResponse(updatedRecipe);
-                });
+        recipeMapper.updateEntity(request, recipe);
+
+        if (request.courseId() != null) {
+            recipe.setCourse(references.courses.get(request.courseId()));
+        }
+        if (request.categoryId() != null) {
+            recipe.setCategory(references.categories.get(request.categoryId()));
+        }
+
+        boolean quantitiesChanged = reconcileQuantities(recipe, request.quantities(), references);
+        boolean stepsChanged = reconcileSteps(recipe, request.steps());
+        if (quantitiesChanged || stepsChanged) {
+            // the recipe is versioned as a whole, a changed step must bump its version too
+            recipe.markModified();
+        }
+
+        // flush so the response carries the new version
+        Recipe updatedRecipe = recipeRepository.saveAndFlush(recipe);
+        recipeResponseCache.evict(id);
+        recipeSearchIndex.index(updatedRecipe);
+        recipeMatchIndex.index(updatedRecipe);
+        log.info("Updated recipe with id: {}", id);
+        return recipeMapper.toResponse(updatedRecipe);
+    }
+
+    /**
+     * Brings the recipe's quantity lines in line with the request without recreating them: a line is matched by its id,
+     * or else by ingredient; matched rows are updated in place (only changed ones cause an UPDATE), lines without a match
+     * are inserted and existing lines that weren't matched are removed. Returns whether any line changed.
+     */
+    private static boolean reconcileQuantities(Recipe recipe, List<UpdateRecipeRequest.UpdateQuantityRequest> requested,
+                                               RecipeReferences references) {
+        List<RecipeQuantity> unmatched = new ArrayList<>(recipe.getQuantities());
+        List<RecipeQuantity> added = new ArrayList<>();
+        boolean changed = false;
+        for (var q : requested == null ? List.<UpdateRecipeRequest.UpdateQuantityRequest>of() : requested) {
+            RecipeQuantity rq = takeMatch(unmatched, q.id(),
+                    existing -> existing.getIngredient() != null && existing.getIngredient().getId().equals(q.ingredientId()));
+            if (rq == null) {
+                rq = new RecipeQuantity();
+                rq.setRecipe(recipe);
+                added.add(rq);
+            }
+            if (!sameQuantity(rq.getQuantity(), q.quantity())
+                    || !Objects.equals(idOf(rq.getIngredient()), q.ingredientId())
+                    || !Objects.equals(idOf(rq.getMeasurement()), q.measurementId())) {
+                rq.setQuantity(q.quantity());
+                rq.setIngredient(references.ingredients.get(q.ingredientId()));
+                rq.setMeasurement(references.measurements.get(q.measurementId()));
+                changed = true;
+            }
+        }
+        recipe.getQuantities().removeAll(unmatched);
+        recipe.getQuantities().addAll(added);
+        return changed || !added.isEmpty() || !unmatched.isEmpty();
+    }
+
+    /**
+     * Same as reconcileQuantities for steps, matched by id or else by step number.
+     */
+    private static boolean reconcileSteps(Recipe recipe, List<UpdateRecipeRequest.UpdateRecipeStepRequest> requested) {
+        List<RecipeStep> unmatched = new ArrayList<>(recipe.getSteps());
+        List<RecipeStep> added = new ArrayList<>();
+        boolean changed = false;
+        for (var s : requested == null ? List.<UpdateRecipeRequest.UpdateRecipeStepRequest>of() : requested) {
+            RecipeStep rs = takeMatch(unmatched, s.id(), existing -> Objects.equals(existing.getStepNumber(), s.stepNumber()));
+            if (rs == null) {
+                rs = new RecipeStep();
+                rs.setRecipe(recipe);
+                added.add(rs);
+            }
+            if (!Objects.equals(rs.getStepNumber(), s.stepNumber()) || !Objects.equals(rs.getDescription(), s.description())) {
+                rs.setStepNumber(s.stepNumber());
+                rs.setDescription(s.description());
+                changed = true;
+            }
+        }
+        recipe.getSteps().removeAll(unmatched);
+        recipe.getSteps().addAll(added);
+        return changed || !added.isEmpty() || !unmatched.isEmpty();
+    }
+
+    private static boolean sameQuantity(BigDecimal a, BigDecimal b) {
+        return a == null || b == null ? a == b : a.compareTo(b) == 0;
+    }
+
+    private static Integer idOf(BaseEntity entity) {
+        return entity == null ? null : entity.getId();
+    }
+
+    // removes and returns the row with the given id, or else the first row matching the natural key
+    private static <T extends BaseEntity> T takeMatch(List<T> candidates, Integer id, Predicate<T> naturalKey) {
+        Optional<T> match = Optional.empty();
+        if (id != null) {
+            match = candidates.stream().filter(candidate -> id.equals(candidate.getId())).findFirst();
+        }
+        if (match.isEmpty()) {
+            match = candidates.stream().filter(naturalKey).findFirst();
+        }
+        match.ifPresent(candidates::remove);
+        return match.orElse(null);
     }
 
     public boolean delete(int id){
@@ -158,18 +388,101 @@ public class RecipeService {
             return false;
         }
         recipeRepository.deleteById(id);
+        recipeResponseCache.evict(id);
+        recipeSearchIndex.remove(id);
+        recipeMatchIndex.remove(id);
         log.info("Deleted recipe with id: {}", id);
         return true;
     }
 
     public Optional<RecipeResponse> findById(int id) {
         log.debug("Finding recipe by id: {}", id);
-        return recipeRepository.findById(id).map(recipeMapper::toResponse);
+        return recipeResponseCache.get(id, () -> recipeRepository.findById(id).map(recipeMapper::toResponse));
     }
 
     public Page<RecipeResponse> findByCourseId(int courseId, Pageable pageable) {
         log.debug("Finding recipes by course id: {} with pagination: {}", courseId, pageable);
-        Page<Recipe> recipePage = recipeRepository.findByCourse_Id(courseId, pageable);
-        return recipePage.map(recipeMapper::toResponse);
+        Page<Integer> idPage = recipeRepository.findIdsByCourseId(courseId, pageable);
+        return toResponsePage(idPage);
+    }
+
+    public Page<RecipeSummaryResponse> findAllSummaries(Pageable pageable){
+        log.debug("Finding all recipe summaries with pagination: {}", pageable);
+        return recipeRepository.findAllSummaries(pageable);
+    }
+
+    public Page<RecipeSummaryResponse> findSummariesByCatId(int id, Pageable pageable){
+        log.debug("Finding recipe summaries by category id: {} with pagination: {}", id, pageable);
+        return recipeRepository.findSummariesByCategoryId(id, pageable);
+    }
+
+    public Page<RecipeSummaryResponse> findSummariesByCourseId(int courseId, Pageable pageable){
+        log.debug("Finding recipe summaries by course id: {} with pagination: {}", courseId, pageable);
+        return recipeRepository.findSummariesByCourseId(courseId, pageable);
+    }
+
+    public Page<RecipeSummaryResponse> findSummariesByIngredientId(int ingredientID, Pageable pageable){
+        log.debug("Finding recipe summaries by ingredient id: {} with pagination: {}", ingredientID, pageable);
+        return recipeRepository.findSummariesByIngredientId(ingredientID, pageable);
+    }
+
+    public Page<RecipeSummaryResponse> search(String query, Pageable pageable){
+        log.debug("Searching recipes for: '{}' with pagination: {}", query, pageable);
+        Page<Integer> idPage = recipeSearchIndex.search(query, pageable);
+        if (idPage.isEmpty()) {
+            return new PageImpl<>(List.of(), idPage.getPageable(), idPage.getTotalElements());
+        }
+        // the index decides the order, the summaries are loaded in one query and put back in that order
+        Map<Integer, RecipeSummaryResponse> summaries = recipeRepository.findSummariesByIdIn(idPage.getContent())
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryResponse::id, Function.identity()));
+        List<RecipeSummaryResponse> content = idPage.getContent().stream()
+                .map(summaries::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(content, idPage.getPageable(), idPage.getTotalElements());
+    }
+
+    public Page<RecipeMatchResponse> match(RecipeMatchRequest request, Pageable pageable){
+        log.debug("Matching recipes for ingredients: {} and crops: {}", request.ingredientIds(), request.cropIds());
+        Set<Integer> available = new HashSet<>();
+        if (request.ingredientIds() != null) {
+            available.addAll(request.ingredientIds());
+        }
+        if (request.cropIds() != null && !request.cropIds().isEmpty()) {
+            available.addAll(ingredientRepository.findIdsByCropIdIn(request.cropIds()));
+        }
+        if (available.isEmpty()) {
+            throw new GardeningappException("At least one ingredient or crop is required");
+        }
+        RecipeMatchRequest.Mode mode = request.mode() != null ? request.mode() : RecipeMatchRequest.Mode.RANKED;
+        List<RecipeMatchIndex.RecipeMatch> matches = recipeMatchIndex.match(available, mode);
+
+        // only the requested page is turned into summaries
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = Math.min(from + pageable.getPageSize(), matches.size());
+        List<RecipeMatchIndex.RecipeMatch> page = matches.subList(from, to);
+        if (page.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, matches.size());
+        }
+        Map<Integer, RecipeSummaryResponse> summaries = recipeRepository.findSummariesByIdIn(
+                        page.stream().map(RecipeMatchIndex.RecipeMatch::recipeId).toList())
+                .stream()
+                .collect(Collectors.toMap(RecipeSummaryResponse::id, Function.identity()));
+        List<RecipeMatchResponse> content = page.stream()
+                .filter(match -> summaries.containsKey(match.recipeId()))
+                .map(match -> new RecipeMatchResponse(summaries.get(match.recipeId()), match.matched(),
+                        match.missing(), match.missingIngredientIds()))
+                .toList();
+        return new PageImpl<>(content, pageable, matches.size());
+    }
+
+    // second phase of the paged finders: hydrate the page of ids with a fixed number of queries
+    private Page<RecipeResponse> toResponsePage(Page<Integer> idPage){
+        List<RecipeResponse> content = recipeRepository.findAllFetchedByIdIn(idPage.getContent())
+                .stream()
+                .map(recipeMapper::toResponse)
+                .toList();
+        return new PageImpl<>(content, idPage.getPageable(), idPage.getTotalElements());
     }
 }
@@ -0,0 +1,72 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.BaseEntity;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Immutable snapshot of one small reference table (categories, courses or measurements), see ReferenceDataRegistry.
+ * Holds the rows as detached entities for id lookups, the responses, and those responses already serialized to JSON
+ * together with a strong ETag over the bytes, so the list endpoints don't map or serialize anything per request.
+ */
+public final class ReferenceData<E extends BaseEntity, R> {
+
+    private final Map<Integer, E> entities;
+    private final List<R> responses;
+    private final byte[] json;
+    private final String etag;
+
+    private ReferenceData(Map<Integer, E> entities, List<R> responses, byte[] json) {
+        this.entities = entities;
+        this.responses = responses;
+        this.json = json;
+        this.etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+    }
+
+    public static <E extends BaseEntity, R> ReferenceData<E, R> of(List<E> rows, Function<E, R> toResponse,
+                                                                   ObjectMapper objectMapper) {
+        Map<Integer, E> entities = new LinkedHashMap<>();
+        rows.forEach(row -> entities.put(row.getId(), row));
+        List<R> responses = rows.stream().map(toResponse).toList();
+        try {
+            return new ReferenceData<>(Map.copyOf(entities), responses, objectMapper.writeValueAsBytes(responses));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize reference data", e);
+        }
+    }
+
+    public List<R> list() {
+        return responses;
+    }
+
+    /**
+     * The list as a JSON array. Shared by every request, so it must not be modified.
+     */
+    public byte[] json() {
+        return json;
+    }
+
+    public String etag() {
+        return etag;
+    }
+
+    public int size() {
+        return responses.size();
+    }
+
+    /**
+     * The rows with the given ids; ids that don't exist are skipped. The entities are detached and shared, they can be
+     * set on an association (only their id is written) but must not be changed.
+     */
+    public List<E> findAllById(Collection<Integer> ids) {
+        return ids.stream().map(entities::get).filter(Objects::nonNull).toList();
+    }
+}
@@ -0,0 +1,136 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CategoryResponse;
+import be.vives.ti.backend.dto.response.CourseResponse;
+import be.vives.ti.backend.dto.response.MeasurementResponse;
+import be.vives.ti.backend.mapper.CategoryMapper;
+import be.vives.ti.backend.mapper.CourseMapper;
+import be.vives.ti.backend.mapper.MeasurementMapper;
+import be.vives.ti.backend.model.Category;
+import be.vives.ti.backend.model.Course;
+import be.vives.ti.backend.model.IngredientMeasurement;
+import be.vives.ti.backend.repository.CategoryRepository;
+import be.vives.ti.backend.repository.CourseRepository;
+import be.vives.ti.backend.repository.IngredientMeasurementRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Categories, courses and measurements, held in memory as immutable snapshots. These tables are tiny and almost never
+ * change, but every recipe form loads all three and every recipe write validates ids against them.
+ * <p>
+ * The three snapshots are loaded together at startup and replaced together with a single reference swap, so readers
+ * never block and never see a half-loaded state. A committed insert, update or delete of one of the rows (see
+ * ReferenceDataChangeListener) marks the snapshots stale; the next reader rebuilds them while concurrent readers keep
+ * getting the previous snapshot. Rows changed behind the application's back are picked up with {@link #refresh()},
+ * exposed on the admin API.
+ */
+@Component
+public class ReferenceDataRegistry {
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+    private final CategoryRepository categoryRepository;
+    private final CourseRepository courseRepository;
+    private final IngredientMeasurementRepository measurementRepository;
+    private final CategoryMapper categoryMapper;
+    private final CourseMapper courseMapper;
+    private final MeasurementMapper measurementMapper;
+    private final ObjectMapper objectMapper;
+
+    private final AtomicReference<Snapshots> snapshots = new AtomicReference<>();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile boolean stale;
+
+    public ReferenceDataRegistry(CategoryRepository categoryRepository, CourseRepository courseRepository,
+                                 IngredientMeasurementRepository measurementRepository, CategoryMapper categoryMapper,
+                                 CourseMapper courseMapper, MeasurementMapper measurementMapper, ObjectMapper objectMapper) {
+        this.categoryRepository = categoryRepository;
+        this.courseRepository = courseRepository;
+        this.measurementRepository = measurementRepository;
+        this.categoryMapper = categoryMapper;
+        this.courseMapper = courseMapper;
+        this.measurementMapper = measurementMapper;
+        this.objectMapper = objectMapper;
+    }
+
+    public ReferenceData<Category, CategoryResponse> categories() {
+        return current().categories();
+    }
+
+    public ReferenceData<Course, CourseResponse> courses() {
+        return current().courses();
+    }
+
+    public ReferenceData<IngredientMeasurement, MeasurementResponse> measurements() {
+        return current().measurements();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void refresh() {
+        reloadLock.lock();
+        try {
+            load();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the snapshots on the next read once the current transaction commits.
+     */
+    public void markStale() {
+        TransactionCallbacks.afterCommit(() -> stale = true);
+    }
+
+    private Snapshots current() {
+        Snapshots current = snapshots.get();
+        if (current == null) {
+            // nothing to serve yet, wait for the first load
+            reloadLock.lock();
+            try {
+                if (snapshots.get() == null) {
+                    load();
+                }
+                return snapshots.get();
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        if (stale && reloadLock.tryLock()) {
+            try {
+                if (stale) {
+                    load();
+                    current = snapshots.get();
+                }
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+        return current;
+    }
+
+    // caller holds reloadLock
+    private void load() {
+        // cleared before reading, so a change committed while loading marks the new snapshots stale again
+        stale = false;
+        Snapshots loaded = new Snapshots(
+                ReferenceData.of(categoryRepository.findAll(), categoryMapper::toResponse, objectMapper),
+                ReferenceData.of(courseRepository.findAll(), courseMapper::toResponse, objectMapper),
+                ReferenceData.of(measurementRepository.findAll(), measurementMapper::toResponse, objectMapper));
+        snapshots.set(loaded);
+        log.info("Loaded reference data: {} categories, {} courses, {} measurements",
+                loaded.categories().size(), loaded.courses().size(), loaded.measurements().size());
+    }
+
+    private record Snapshots(ReferenceData<Category, CategoryResponse> categories,
+                             ReferenceData<Course, CourseResponse> courses,
+                             ReferenceData<IngredientMeasurement, MeasurementResponse> measurements) {
+    }
+}
@@ -4,13 +4,13 @@ package be.vives.ti.backend.service;
 import be.vives.ti.backend.dto.request.CreateUserRequest;
 import be.vives.ti.backend.dto.request.UpdateUserRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
+import be.vives.ti.backend.dto.response.CropSummaryResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.exceptions.ResourceNotFoundException;
 import be.vives.ti.backend.mapper.CropMapper;
 import be.vives.ti.backend.mapper.RecipeMapper;
 import be.vives.ti.backend.mapper.UserMapper;
-import be.vives.ti.backend.model.Crop;
-import be.vives.ti.backend.model.Recipe;
 import be.vives.ti.backend.model.User;
 import be.vives.ti.backend.repository.CropRepository;
 import be.vives.ti.backend.repository.RecipeRepository;
@@ -19,12 +19,14 @@ import be.vives.ti.backend.dto.response.UserResponse;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.stereotype.Service;
 
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.function.IntSupplier;
 
 @Service
 @Transactional
@@ -81,64 +83,127 @@ public class UserService {
                 .toList();
     }
 
+    public List<Integer> findFavoriteCropIds(int userId){
+        log.debug("Finding favorite crop ids for user ID: {}", userId);
+        List<Integer> ids = userRepository.findFavoriteCropIds(userId);
+        if (ids.isEmpty()) {
+            checkUserExists(userId);
+        }
+        return ids;
+    }
+
+    public Page<CropSummaryResponse> findFavoriteCropSummaries(int userId, Pageable pageable){
+        log.debug("Finding favorite crop summaries for user ID: {} with pagination: {}", userId, pageable);
+        Page<CropSummaryResponse> page = cropRepository.findFavoriteSummaries(userId, pageable);
+        if (page.getTotalElements() == 0) {
+            checkUserExists(userId);
+        }
+        return page;
+    }
+
+    // Without a surrounding transaction the insert commits on its own (see UserRepository), so when a concurrent
+    // request adds the same favorite first, the duplicate key only fails that insert and is treated like a repeat
+    @Transactional(Transactional.TxType.SUPPORTS)
     public void addFavoriteCrop(int userId, int cropId){
         log.debug("Adding favorite crop ID: {} for user ID: {}", cropId, userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        Crop crop = cropRepository.findById(cropId)
-                .orElseThrow(() -> new ResourceNotFoundException("Crop", cropId));
-
-        user.addFavoriteCrop(crop);
-        userRepository.save(user);
+        if (insertFavorite(() -> userRepository.insertFavoriteCrop(userId, cropId)) == 0) {
+            // nothing inserted: either it already was a favorite, or one of the ids doesn't exist
+            checkFavoriteCropIds(userId, cropId);
+            log.debug("Crop ID: {} already is a favorite of user ID: {}", cropId, userId);
+            return;
+        }
         log.info("Crop ID: {} added to user ID: {} favorite crops", cropId, userId);
     }
 
     public void removeFavoriteCrop(int userId, int cropId){
         log.debug("Removing favorite crop ID: {} for user ID: {}", cropId, userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        Crop crop = cropRepository.findById(cropId)
-                .orElseThrow(() -> new ResourceNotFoundException("Crop", cropId));
-
-        user.removeFavoriteCrop(crop);
-        userRepository.save(user);
+        if (userRepository.deleteFavoriteCrop(userId, cropId) == 0) {
+            checkFavoriteCropIds(userId, cropId);
+            log.debug("Crop ID: {} was not a favorite of user ID: {}", cropId, userId);
+            return;
+        }
         log.info("Crop ID: {} removed from user ID: {} favorite crops", cropId, userId);
     }
 
+    private int insertFavorite(IntSupplier insert) {
+        try {
+            return insert.getAsInt();
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Favorite was added concurrently: {}", e.getMessage());
+            return 0;
+        }
+    }
+
+    // only needed when a query came back empty, to tell an unknown user from one without favorites
+    private void checkUserExists(int userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", userId);
+        }
+    }
+
+    private void checkFavoriteCropIds(int userId, int cropId) {
+        checkUserExists(userId);
+        if (!cropRepository.existsById(cropId)) {
+            throw new ResourceNotFoundException("Crop", cropId);
+        }
+    }
+
     public List<RecipeResponse> getFavoriteRecipes(int userId){
         log.debug("Finding favorite recipes for user ID: {}", userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        return user.getFavoriteRecipes()
+        checkUserExists(userId);
+        // hydrated like a page of recipes, so quantities and steps don't cost a query per favorite
+        return recipeRepository.findAllFetchedByIdIn(userRepository.findFavoriteRecipeIds(userId))
                 .stream()
                 .map(recipeMapper::toResponse)
                 .toList();
     }
 
+    public List<Integer> findFavoriteRecipeIds(int userId){
+        log.debug("Finding favorite recipe ids for user ID: {}", userId);
+        List<Integer> ids = userRepository.findFavoriteRecipeIds(userId);
+        if (ids.isEmpty()) {
+            checkUserExists(userId);
+        }
+        return ids;
+    }
+
+    public Page<RecipeSummaryResponse> findFavoriteRecipeSummaries(int userId, Pageable pageable){
+        log.debug("Finding favorite recipe summaries for user ID: {} with pagination: {}", userId, pageable);
+        Page<RecipeSummaryResponse> page = recipeRepository.findFavoriteSummaries(userId, pageable);
+        if (page.getTotalElements() == 0) {
+            checkUserExists(userId);
+        }
+        return page;
+    }
+
+    @Transactional(Transactional.TxType.SUPPORTS)
     public void addFavoriteRecipe(int userId, int recipeId){
         log.debug("Adding favorite recipe ID: {} for user ID: {}", recipeId, userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipe", recipeId));
-
-        user.addFavoriteRecipe(recipe);
-        userRepository.save(user);
+        if (insertFavorite(() -> userRepository.insertFavoriteRecipe(userId, recipeId)) == 0) {
+            checkFavoriteRecipeIds(userId, recipeId);
+            log.debug("Recipe ID: {} already is a favorite of user ID: {}", recipeId, userId);
+            return;
+        }
         log.info("Recipe ID: {} added to user ID: {} favorite recipes", recipeId, userId);
     }
 
     public void removeFavoriteRecipe(int userId, int recipeId){
         log.debug("Removing favorite recipe ID: {} for user ID: {}", recipeId, userId);
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("User", userId));
-        Recipe recipe = recipeRepository.findById(recipeId)
-                .orElseThrow(() -> new ResourceNotFoundException("Recipe", recipeId));
-
-        user.removeFavoriteRecipe(recipe);
-        userRepository.save(user);
+        if (userRepository.deleteFavoriteRecipe(userId, recipeId) == 0) {
+            checkFavoriteRecipeIds(userId, recipeId);
+            log.debug("Recipe ID: {} was not a favorite of user ID: {}", recipeId, userId);
+            return;
+        }
         log.info("Recipe ID: {} removed from user ID: {} favorite recipes", recipeId, userId);
     }
 
+    private void checkFavoriteRecipeIds(int userId, int recipeId) {
+        checkUserExists(userId);
+        if (!recipeRepository.existsById(recipeId)) {
+            throw new ResourceNotFoundException("Recipe", recipeId);
+        }
+    }
+
     public UserResponse update(int id, UpdateUserRequest request){
         log.debug("Updating user with ID: {}", id);
         User user = userRepository.findById(id)
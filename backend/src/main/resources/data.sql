@@ -84,3 +84,14 @@ ALTER TABLE ingredients ALTER COLUMN id RESTART WITH 5;
 ALTER TABLE recipes ALTER COLUMN id RESTART WITH 3;
 ALTER TABLE recipe_quantities ALTER COLUMN id RESTART WITH 5;
 ALTER TABLE recipe_steps ALTER COLUMN id RESTART WITH 5;
+
+-- Entity ids come from the sequences: restart them after the seeded ids as well
+ALTER SEQUENCE users_seq RESTART WITH 4;
+ALTER SEQUENCE crops_seq RESTART WITH 4;
+ALTER SEQUENCE categories_seq RESTART WITH 3;
+ALTER SEQUENCE courses_seq RESTART WITH 3;
+ALTER SEQUENCE ingredient_measurements_seq RESTART WITH 4;
+ALTER SEQUENCE ingredients_seq RESTART WITH 5;
+ALTER SEQUENCE recipes_seq RESTART WITH 3;
+ALTER SEQUENCE recipe_quantities_seq RESTART WITH 5;
+ALTER SEQUENCE recipe_steps_seq RESTART WITH 5;
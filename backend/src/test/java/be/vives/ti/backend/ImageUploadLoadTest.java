@@ -0,0 +1,189 @@
+package be.vives.ti.backend;
+
+import be.vives.ti.backend.security.JwtUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Concurrent clients uploading 1 MB images: throughput, and heap allocated per upload on the request threads, which
+// stays far below the file size because the parts are streamed to disk; then one download through sendfile. The numbers
+// are published to the test report
+@Tag("load")
+class ImageUploadLoadTest {
+
+    private static final int CLIENTS = 16;
+    private static final int UPLOADS_PER_CLIENT = 4;
+    private static final String BOUNDARY = "----image-upload-load-test";
+
+    @TempDir
+    Path workDir;
+
+    @Test
+    void concurrentUploads_streamToDiskAndServeWithSendfile(TestReporter reporter) throws Exception {
+        Path storageDir = workDir.resolve("images");
+        Path image = workDir.resolve("noise.png");
+        writeNoisePng(image, 600, 600);
+        long imageSize = Files.size(image);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("dev")
+                // as arguments, they have to win over application.properties
+                .run("--server.port=0",
+                        "--images.storage-dir=" + storageDir,
+                        "--spring.datasource.url=jdbc:h2:mem:image-upload-load;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.be.vives.ti.backend=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(10)).build()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String token = "Bearer " + context.getBean(JwtUtil.class).generateToken("loadtest@example.com", "USER");
+            URI uploads = URI.create("http://localhost:" + port + "/api/images");
+
+            // warm up
+            for (int i = 0; i < 5; i++) {
+                http.send(upload(uploads, token, image, -1 - i), HttpResponse.BodyHandlers.discarding());
+            }
+
+            Map<Long, Long> allocatedBefore = requestThreadAllocations();
+            LongAdder failures = new LongAdder();
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                int client = c;
+                futures.add(clients.submit(() -> {
+                    for (int u = 0; u < UPLOADS_PER_CLIENT; u++) {
+                        try {
+                            // a few different trailing bytes per upload, so nothing is deduplicated
+                            HttpRequest request = upload(uploads, token, image, client * UPLOADS_PER_CLIENT + u);
+                            if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 201) {
+                                failures.increment();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+            long allocated = allocatedSince(allocatedBefore);
+
+            int uploadCount = CLIENTS * UPLOADS_PER_CLIENT;
+            long thumbnailsDone = waitForThumbnails(storageDir, uploadCount + 5);
+            reporter.publishEntry("upload throughput", String.format("%.1f MB/s, %d uploads/s of %d kB",
+                    (double) uploadCount * imageSize / (1024 * 1024) / (elapsed / 1e9),
+                    uploadCount * 1_000_000_000L / elapsed, imageSize / 1024));
+            reporter.publishEntry("allocated per upload on the request threads", allocated / uploadCount / 1024 + " kB");
+            reporter.publishEntry("thumbnails done after the last upload", (thumbnailsDone - start - elapsed) / 1_000_000 + " ms");
+
+            // one upload more, to download it back through Tomcat's sendfile
+            HttpResponse<String> stored = http.send(upload(uploads, token, image, 0), HttpResponse.BodyHandlers.ofString());
+            String hash = new ObjectMapper().readTree(stored.body()).get("hash").asText();
+            HttpResponse<byte[]> download = http.send(HttpRequest.newBuilder(URI.create(uploads + "/" + hash + ".png")).build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+
+            assertThat(failures.sum()).isZero();
+            assertThat(stored.statusCode()).isEqualTo(200);
+            assertThat(download.headers().firstValue("Cache-Control")).hasValue("max-age=31536000, public, immutable");
+            assertThat(download.body()).isEqualTo(Files.readAllBytes(storageDir.resolve(hash + ".png")));
+            // the whole file never sits in the heap
+            assertThat(allocated / uploadCount).isLessThan(imageSize / 2);
+        }
+    }
+
+    private static HttpRequest upload(URI uri, String token, Path image, int variant) throws IOException {
+        String head = "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"noise.png\"\r\n"
+                + "Content-Type: image/png\r\n\r\n";
+        String tail = "variant " + variant + "\r\n--" + BOUNDARY + "--\r\n";
+        return HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(120))
+                .header("Authorization", token)
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.concat(HttpRequest.BodyPublishers.ofString(head),
+                        HttpRequest.BodyPublishers.ofFile(image), HttpRequest.BodyPublishers.ofString(tail)))
+                .build();
+    }
+
+    // bytes allocated so far by each of Tomcat's request threads
+    private static Map<Long, Long> requestThreadAllocations() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocations = new HashMap<>();
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().startsWith("http-nio-")) {
+                allocations.put(thread.threadId(), threads.getThreadAllocatedBytes(thread.threadId()));
+            }
+        }
+        return allocations;
+    }
+
+    private static long allocatedSince(Map<Long, Long> before) {
+        long allocated = 0;
+        for (Map.Entry<Long, Long> thread : requestThreadAllocations().entrySet()) {
+            allocated += thread.getValue() - before.getOrDefault(thread.getKey(), 0L);
+        }
+        return allocated;
+    }
+
+    private static long waitForThumbnails(Path storageDir, int images) throws Exception {
+        Path thumbnails = storageDir.resolve("thumbnails/160");
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            try (Stream<Path> files = Files.list(thumbnails)) {
+                if (files.filter(file -> file.toString().endsWith(".jpg")).count() >= images) {
+                    break;
+                }
+            }
+            Thread.sleep(20);
+        }
+        return System.nanoTime();
+    }
+
+    private static void writeNoisePng(Path file, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            ImageIO.write(image, "png", out);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package be.vives.ti.backend;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Catalog throughput with the dev logging (DEBUG, every statement pretty-printed) and the prod logging (async JSON);
+// the numbers are published to the test report
+@Tag("load")
+class LoggingProfileLoadTest {
+
+    private static final int CLIENTS = 20;
+    private static final int REQUESTS_PER_CLIENT = 100;
+
+    @Test
+    void devAndProdLogging_serveTheCatalogUnderLoad(TestReporter reporter) throws Exception {
+        reporter.publishEntry("dev logging req/s", String.valueOf(throughput("dev")));
+        // the prod logging without the rest of prod (Postgres): the JSON pipeline and the default levels
+        reporter.publishEntry("prod logging req/s", String.valueOf(throughput("json-logs")));
+    }
+
+    private long throughput(String profile) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles(profile)
+                // as arguments, they have to win over the profile's properties
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:logging-" + profile + ";DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.sql.init.mode=always");
+             ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+             HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/recipes"))
+                    .timeout(Duration.ofSeconds(30)).GET().build();
+
+            // warm up
+            for (int i = 0; i < 100; i++) {
+                http.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            LongAdder failures = new LongAdder();
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                            failures.increment();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            assertThat(failures.sum()).isZero();
+            return (long) CLIENTS * REQUESTS_PER_CLIENT * 1_000_000_000L / elapsed;
+        }
+    }
+}
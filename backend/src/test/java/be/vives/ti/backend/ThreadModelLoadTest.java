@@ -0,0 +1,109 @@
+package be.vives.ti.backend;
+
+import be.vives.ti.backend.config.ThreadDiagnostics;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// 1000 concurrent clients reading the catalog, served by Tomcat's platform thread pool and by virtual threads; the
+// numbers are published to the test report
+@Tag("load")
+class ThreadModelLoadTest {
+
+    private static final int CLIENTS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 3;
+
+    @Test
+    void platformAndVirtualThreads_serveAThousandConcurrentClients(TestReporter reporter) throws Exception {
+        Result platform = run(false, reporter);
+        Result virtual = run(true, reporter);
+
+        reporter.publishEntry("platform threads", platform.throughput() + " req/s, p99 " + platform.p99() + " ms");
+        reporter.publishEntry("virtual threads", virtual.throughput() + " req/s, p99 " + virtual.p99() + " ms");
+        assertThat(platform.failures()).isZero();
+        assertThat(virtual.failures()).isZero();
+    }
+
+    private Result run(boolean virtualThreads, TestReporter reporter) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("dev")
+                // as arguments, they have to win over application.properties
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        // its own database, the other tests' contexts keep theirs
+                        "--spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        // measures the thread model, so waiting for a connection must not turn into failures
+                        "--spring.datasource.hikari.connection-timeout=60000",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.be.vives.ti.backend=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN",
+                        "--logging.level.org.springframework.jdbc=WARN");
+             ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).connectTimeout(Duration.ofSeconds(10)).build()) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/crops"))
+                    .timeout(Duration.ofSeconds(30)).GET().build();
+
+            // warm up
+            for (int i = 0; i < 50; i++) {
+                http.send(request, HttpResponse.BodyHandlers.discarding());
+            }
+
+            ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+            LongAdder failures = new LongAdder();
+            List<Future<?>> futures = new ArrayList<>();
+            long start = System.nanoTime();
+            for (int c = 0; c < CLIENTS; c++) {
+                futures.add(clients.submit(() -> {
+                    for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                        long sent = System.nanoTime();
+                        try {
+                            if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                                failures.increment();
+                            }
+                        } catch (Exception e) {
+                            failures.increment();
+                        }
+                        latencies.add((System.nanoTime() - sent) / 1_000_000);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - start;
+
+            if (virtualThreads) {
+                reporter.publishEntry("thread diagnostics", context.getBean(ThreadDiagnostics.class).snapshot().toString());
+            }
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new Result((long) CLIENTS * REQUESTS_PER_CLIENT * 1_000_000_000L / elapsed,
+                    sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1), failures.sum());
+        }
+    }
+
+    private record Result(long throughput, long p99, long failures) {
+    }
+}
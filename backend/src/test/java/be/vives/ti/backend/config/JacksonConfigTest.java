@@ -0,0 +1,86 @@
+package be.vives.ti.backend.config;
+
+import be.vives.ti.backend.dto.response.RecipeResponse;
+import com.fasterxml.jackson.core.util.JsonRecyclerPools;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The application's ObjectMapper writes compact JSON with generated accessors and shared buffers
+@SpringBootTest(classes = {JacksonAutoConfiguration.class, JacksonConfig.class})
+class JacksonConfigTest {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Test
+    void objectMapper_isCompactWithBlackbirdAndASharedBufferPool() throws Exception {
+        assertThat(objectMapper.isEnabled(SerializationFeature.INDENT_OUTPUT)).isFalse();
+        assertThat(objectMapper.getRegisteredModuleIds()).anyMatch(id -> id.toString().contains("Blackbird"));
+        assertThat(objectMapper.getFactory()._getRecyclerPool())
+                .isInstanceOf(JsonRecyclerPools.ConcurrentDequePool.class);
+
+        RecipeResponse recipe = recipe(1);
+        assertThat(objectMapper.readValue(objectMapper.writeValueAsBytes(recipe), RecipeResponse.class)).isEqualTo(recipe);
+    }
+
+    @Test
+    void thousandRecipePage_isSmallerThanIndentedJson() throws Exception {
+        PagedModel<RecipeResponse> page = thousandRecipePage();
+        // before: the default mapper with indent-output, as configured until now
+        ObjectMapper before = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        assertThat(objectMapper.writeValueAsBytes(page).length).isLessThan(before.writeValueAsBytes(page).length);
+    }
+
+    @Test
+    void binaryEncodings_areSmallerThanJson() throws Exception {
+        PagedModel<RecipeResponse> page = thousandRecipePage();
+        int json = objectMapper.writeValueAsBytes(page).length;
+
+        assertThat(cborConverter.getObjectMapper().writeValueAsBytes(page).length).isLessThan(json);
+        assertThat(smileConverter.getObjectMapper().writeValueAsBytes(page).length).isLessThan(json);
+    }
+
+    private static PagedModel<RecipeResponse> thousandRecipePage() {
+        List<RecipeResponse> recipes = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            recipes.add(recipe(i));
+        }
+        return new PagedModel<>(new PageImpl<>(recipes, PageRequest.of(0, 1000), 5000));
+    }
+
+    private static RecipeResponse recipe(int id) {
+        List<RecipeResponse.RecipeQuantityResponse> quantities = new ArrayList<>();
+        for (int q = 0; q < 3; q++) {
+            quantities.add(new RecipeResponse.RecipeQuantityResponse(id * 10 + q,
+                    new RecipeResponse.RecipeQuantityResponse.IngredientResponse(q, "Ingredient " + q),
+                    new RecipeResponse.RecipeQuantityResponse.MeasurementResponse(1, "grams"), 100.0));
+        }
+        List<RecipeResponse.RecipeStepResponse> steps = new ArrayList<>();
+        for (int s = 1; s <= 4; s++) {
+            steps.add(new RecipeResponse.RecipeStepResponse(id * 10 + s, s, "Step " + s + " of recipe " + id));
+        }
+        return new RecipeResponse(id, "Recipe " + id, 1, "A description of recipe " + id, "10m", "5m", null, 1, 2,
+                quantities, steps, 0L);
+    }
+}
@@ -0,0 +1,156 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.config.ThreadDiagnostics;
+import be.vives.ti.backend.dto.response.CacheStatsResponse;
+import be.vives.ti.backend.dto.response.PasswordHashingStatsResponse;
+import be.vives.ti.backend.dto.response.ThreadDiagnosticsResponse;
+import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
+import be.vives.ti.backend.security.JwtUtil;
+import be.vives.ti.backend.security.PasswordHashingBulkhead;
+import be.vives.ti.backend.service.RecipeResponseCache;
+import be.vives.ti.backend.service.ReferenceDataRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = AdminController.class)
+@Import({GlobalExceptionHandler.class, AdminControllerTest.TestConfig.class})
+@AutoConfigureMockMvc(addFilters = false)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AdminControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private RecipeResponseCache recipeResponseCache;
+
+    @Autowired
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Autowired
+    private PasswordHashingBulkhead passwordHashing;
+
+    @Autowired
+    private ThreadDiagnostics threadDiagnostics;
+
+    @Test
+    @DisplayName("GET /api/admin/cache/recipes - returns 200 and cache statistics")
+    void getRecipeCacheStats_returnsStats() throws Exception {
+        when(recipeResponseCache.stats()).thenReturn(new CacheStatsResponse(3, 8, 2, 0.8, 1));
+
+        mockMvc.perform(get("/api/admin/cache/recipes")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.hits").value(8))
+                .andExpect(jsonPath("$.hitRate").value(0.8));
+    }
+
+    @Test
+    @DisplayName("DELETE /api/admin/cache/recipes - flushes the cache and returns 204")
+    void flushRecipeCache_returnsNoContent() throws Exception {
+        mockMvc.perform(delete("/api/admin/cache/recipes"))
+                .andExpect(status().isNoContent());
+
+        verify(recipeResponseCache).evictAll();
+    }
+
+    @Test
+    @DisplayName("POST /api/admin/reference-data/refresh - reloads the reference data and returns 204")
+    void refreshReferenceData_returnsNoContent() throws Exception {
+        // the mock also received the startup load
+        clearInvocations(referenceDataRegistry);
+
+        mockMvc.perform(post("/api/admin/reference-data/refresh"))
+                .andExpect(status().isNoContent());
+
+        verify(referenceDataRegistry).refresh();
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/auth/password-hashing - returns 200 and password hashing statistics")
+    void getPasswordHashingStats_returnsStats() throws Exception {
+        when(passwordHashing.stats()).thenReturn(new PasswordHashingStatsResponse(2, 32, 1, 3, 40, 5, 1, 98.5));
+
+        mockMvc.perform(get("/api/admin/auth/password-hashing")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.threads").value(2))
+                .andExpect(jsonPath("$.rejected").value(5))
+                .andExpect(jsonPath("$.averageMillis").value(98.5));
+    }
+
+    @Test
+    @DisplayName("GET /api/admin/diagnostics/threads - returns 200 and thread diagnostics")
+    void getThreadDiagnostics_returnsDiagnostics() throws Exception {
+        when(threadDiagnostics.snapshot()).thenReturn(new ThreadDiagnosticsResponse(true, 40, 52,
+                new ThreadDiagnosticsResponse.ConnectionPool(10, 10, 0, 3), true, 1, 0,
+                List.of(new ThreadDiagnosticsResponse.ThreadEvent("jdk.VirtualThreadPinned", "", 25,
+                        "be.vives.ti.backend.service.RecipeService.findById:120"))));
+
+        mockMvc.perform(get("/api/admin/diagnostics/threads")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.virtualThreads").value(true))
+                .andExpect(jsonPath("$.connectionPool.awaiting").value(3))
+                .andExpect(jsonPath("$.pinnedEvents").value(1))
+                .andExpect(jsonPath("$.recentEvents[0].type").value("jdk.VirtualThreadPinned"));
+    }
+
+    @TestConfiguration
+    public static class TestConfig {
+
+        @Bean
+        @Primary
+        public RecipeResponseCache recipeResponseCache() {
+            return Mockito.mock(RecipeResponseCache.class);
+        }
+
+        @Bean
+        public ReferenceDataRegistry referenceDataRegistry() {
+            return Mockito.mock(ReferenceDataRegistry.class);
+        }
+
+        @Bean
+        public PasswordHashingBulkhead passwordHashingBulkhead() {
+            return Mockito.mock(PasswordHashingBulkhead.class);
+        }
+
+        @Bean
+        public ThreadDiagnostics threadDiagnostics() {
+            return Mockito.mock(ThreadDiagnostics.class);
+        }
+
+        @Bean
+        public JwtUtil jwtUtil() {
+            return Mockito.mock(JwtUtil.class);
+        }
+
+        @Bean
+        public UserDetailsService userDetailsService() {
+            return Mockito.mock(UserDetailsService.class);
+        }
+    }
+}
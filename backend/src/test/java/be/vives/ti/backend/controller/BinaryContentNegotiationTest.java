@@ -0,0 +1,129 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.model.Category;
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.repository.CategoryRepository;
+import be.vives.ti.backend.repository.CropRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// The same endpoints answer in CBOR or Smile when the client asks for it, with the same content as the JSON
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryContentNegotiationTest {
+
+    private static final MediaType SMILE = MediaType.valueOf("application/x-jackson-smile");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @BeforeEach
+    void setUp() {
+        cropRepository.save(new Crop("Tomato"));
+        cropRepository.save(new Crop("Leek"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cropRepository.deleteAll();
+        categoryRepository.deleteAll();
+    }
+
+    @Test
+    void cropsPage_inCborAndSmile_matchesTheJson() throws Exception {
+        JsonNode json = new ObjectMapper().readTree(fetch(MediaType.APPLICATION_JSON));
+        byte[] cbor = fetch(MediaType.APPLICATION_CBOR);
+        byte[] smile = fetch(SMILE);
+
+        assertThat(new CBORMapper().readTree(cbor)).isEqualTo(json);
+        assertThat(new SmileMapper().readTree(smile)).isEqualTo(json);
+        assertThat(json.get("content")).hasSize(2);
+    }
+
+    @Test
+    void referenceData_inCbor_matchesTheSnapshotJson() throws Exception {
+        categoryRepository.save(new Category("Soups"));
+        MockHttpServletResponse json = mockMvc.perform(get("/api/categories").with(user("gardener").roles("USER"))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse();
+
+        MockHttpServletResponse cbor = mockMvc.perform(get("/api/categories").with(user("gardener").roles("USER"))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse();
+        mockMvc.perform(get("/api/categories").with(user("gardener").roles("USER")).accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cbor.getHeader(HttpHeaders.ETAG)))
+                .andExpect(status().isNotModified());
+
+        JsonNode content = new ObjectMapper().readTree(json.getContentAsByteArray());
+        assertThat(new CBORMapper().readTree(cbor.getContentAsByteArray())).isEqualTo(content);
+        assertThat(content).hasSize(1);
+        assertThat(cbor.getHeader(HttpHeaders.ETAG)).isEqualTo("W/" + json.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void etag_differsPerEncoding() throws Exception {
+        String jsonTag = mockMvc.perform(get("/api/crops").accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // a JSON ETag doesn't revalidate the CBOR representation
+        mockMvc.perform(get("/api/crops").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, jsonTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, org.hamcrest.Matchers.not(jsonTag)));
+    }
+
+    @Test
+    void responses_varyOnAccept() throws Exception {
+        String listTag = mockMvc.perform(get("/api/crops").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, org.hamcrest.Matchers.hasItem(HttpHeaders.ACCEPT)))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/crops").accept(MediaType.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, listTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().stringValues(HttpHeaders.VARY, org.hamcrest.Matchers.hasItem(HttpHeaders.ACCEPT)));
+    }
+
+    @Test
+    void singleCropTag_isTheStrongVersionTagForEveryEncoding() throws Exception {
+        Crop crop = cropRepository.findAll().get(0);
+        int id = crop.getId();
+        String jsonTag = mockMvc.perform(get("/api/crops/" + id).accept(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/crops/" + id).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, jsonTag));
+        assertThat(jsonTag).isEqualTo("\"" + crop.getVersion() + "\"");
+    }
+
+    private byte[] fetch(MediaType mediaType) throws Exception {
+        return mockMvc.perform(get("/api/crops").param("size", "1000").accept(mediaType))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(mediaType))
+                .andReturn().getResponse().getContentAsByteArray();
+    }
+}
@@ -1,7 +1,10 @@
 package be.vives.ti.backend.controller;
 
 import be.vives.ti.backend.dto.response.CategoryResponse;
+import be.vives.ti.backend.model.Category;
 import be.vives.ti.backend.service.CategoryService;
+import be.vives.ti.backend.service.ReferenceData;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import be.vives.ti.backend.security.JwtUtil;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
 import org.junit.jupiter.api.DisplayName;
@@ -18,6 +21,7 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.context.annotation.Primary;
 import org.springframework.test.annotation.DirtiesContext;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.mockito.Mockito;
@@ -26,6 +30,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,7 +52,7 @@ public class CategoryControllerTest {
         // arrange
         CategoryResponse c1 = new CategoryResponse(1, "Fruits");
         CategoryResponse c2 = new CategoryResponse(2, "Vegetables");
-        doReturn(List.of(c1, c2)).when(categoryService).findAll();
+        doReturn(snapshotOf(c1, c2)).when(categoryService).snapshot();
 
         // act & assert
         mockMvc.perform(get("/api/categories")
@@ -58,7 +63,24 @@ public class CategoryControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Fruits"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Vegetables"));
+                .andExpect(jsonPath("$[1].name").value("Vegetables"))
+                .andExpect(header().string("ETag", snapshotOf(c1, c2).etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"));
+    }
+
+    @Test
+    @DisplayName("GET /api/categories - with a matching If-None-Match returns 304 without a body")
+    void getAllCategories_withMatchingEtag_returnsNotModified() throws Exception {
+        ReferenceData<Category, CategoryResponse> snapshot = snapshotOf(new CategoryResponse(1, "Fruits"));
+        doReturn(snapshot).when(categoryService).snapshot();
+
+        mockMvc.perform(get("/api/categories")
+                        .header("If-None-Match", snapshot.etag())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", snapshot.etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"))
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -66,7 +88,7 @@ public class CategoryControllerTest {
     void getAllCategories_whenServiceThrows_returnsInternalServerError() throws Exception {
         // arrange
         // GlobalExceptionHandler maps IllegalStateException (and some others) to 500. Use that instead of RuntimeException so the controller advice handles it.
-        doThrow(new IllegalStateException("boom")).when(categoryService).findAll();
+        doThrow(new IllegalStateException("boom")).when(categoryService).snapshot();
 
         // act & assert
         mockMvc.perform(get("/api/categories")
@@ -74,6 +96,15 @@ public class CategoryControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    private static ReferenceData<Category, CategoryResponse> snapshotOf(CategoryResponse... responses) {
+        List<Category> rows = Arrays.stream(responses).map(response -> {
+            Category row = new Category(response.name());
+            row.setId(response.id());
+            return row;
+        }).toList();
+        return ReferenceData.of(rows, row -> new CategoryResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
+
     @TestConfiguration
     public static class TestConfig {
 
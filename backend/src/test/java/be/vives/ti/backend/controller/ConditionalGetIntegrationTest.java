@@ -0,0 +1,82 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.repository.CropRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Conditional GETs against the real persistence layer: a matching If-None-Match only runs the version query
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+class ConditionalGetIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CropRepository cropRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        cropRepository.save(new Crop("Tomato"));
+        cropRepository.save(new Crop("Leek"));
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        cropRepository.deleteAll();
+    }
+
+    @Test
+    void matchingETag_returns304WithoutLoadingEntities() throws Exception {
+        String etag = mockMvc.perform(get("/api/crops").param("size", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        statistics.clear();
+        mockMvc.perform(get("/api/crops").param("size", "1000").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    @Test
+    void etagChangesWithTheCollectionAndTheQuery() throws Exception {
+        String etag = mockMvc.perform(get("/api/crops").param("size", "1000"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String otherPage = mockMvc.perform(get("/api/crops").param("size", "1"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(otherPage).isNotEqualTo(etag);
+
+        Crop crop = cropRepository.findAll().get(0);
+        crop.setName("Cherry tomato");
+        cropRepository.save(crop);
+
+        mockMvc.perform(get("/api/crops").param("size", "1000").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+    }
+}
@@ -1,9 +1,12 @@
 package be.vives.ti.backend.controller;
 
 import be.vives.ti.backend.dto.response.CourseResponse;
+import be.vives.ti.backend.model.Course;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
 import be.vives.ti.backend.security.JwtUtil;
 import be.vives.ti.backend.service.CourseService;
+import be.vives.ti.backend.service.ReferenceData;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +21,7 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.mockito.Mockito;
@@ -26,6 +30,7 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -48,7 +53,7 @@ public class CourseControllerTest {
         // arrange
         CourseResponse c1 = new CourseResponse(1, "Course One");
         CourseResponse c2 = new CourseResponse(2, "Course Two");
-        doReturn(List.of(c1, c2)).when(courseService).findAll();
+        doReturn(snapshotOf(c1, c2)).when(courseService).snapshot();
 
         // act & assert
         mockMvc.perform(get("/api/courses").accept(MediaType.APPLICATION_JSON))
@@ -58,20 +63,46 @@ public class CourseControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("Course One"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("Course Two"));
+                .andExpect(jsonPath("$[1].name").value("Course Two"))
+                .andExpect(header().string("ETag", snapshotOf(c1, c2).etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"));
+    }
+
+    @Test
+    @DisplayName("GET /api/courses - with a matching If-None-Match returns 304 without a body")
+    void getAllCourses_withMatchingEtag_returnsNotModified() throws Exception {
+        ReferenceData<Course, CourseResponse> snapshot = snapshotOf(new CourseResponse(1, "Course One"));
+        doReturn(snapshot).when(courseService).snapshot();
+
+        mockMvc.perform(get("/api/courses")
+                        .header("If-None-Match", snapshot.etag())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", snapshot.etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"))
+                .andExpect(content().string(""));
     }
 
     @Test
     @DisplayName("GET /api/courses - when service throws -> returns 500")
     void getAllCourses_whenServiceThrows_returnsInternalServerError() throws Exception {
         // arrange
-        doThrow(new IllegalStateException("boom")).when(courseService).findAll();
+        doThrow(new IllegalStateException("boom")).when(courseService).snapshot();
 
         // act & assert
         mockMvc.perform(get("/api/courses").accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
     }
 
+    private static ReferenceData<Course, CourseResponse> snapshotOf(CourseResponse... responses) {
+        List<Course> rows = Arrays.stream(responses).map(response -> {
+            Course row = new Course(response.name());
+            row.setId(response.id());
+            return row;
+        }).toList();
+        return ReferenceData.of(rows, row -> new CourseResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
+
     @TestConfiguration
     public static class TestConfig {
         // keep reference so tests can access and stub the mock if needed
@@ -3,6 +3,8 @@ package be.vives.ti.backend.controller;
 import be.vives.ti.backend.dto.request.CreateCropRequest;
 import be.vives.ti.backend.dto.request.UpdateCropRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
+import be.vives.ti.backend.model.CropActivity;
+import be.vives.ti.backend.model.CropLocation;
 import be.vives.ti.backend.service.CropService;
 import be.vives.ti.backend.security.JwtUtil;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
@@ -14,6 +16,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.test.web.servlet.MockMvc;
@@ -23,7 +27,9 @@ import org.springframework.test.annotation.DirtiesContext;
 import java.time.Month;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.Mockito;
 import org.springframework.data.domain.PageImpl;
@@ -52,8 +58,8 @@ public class CropControllerTest {
     @Test
     @DisplayName("GET /api/crops - when crops exist returns 200 and page")
     void getAllCrops_returnsPage() throws Exception {
-        CropResponse c1 = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
-        CropResponse c2 = new CropResponse(2, "Cucumber", Month.APRIL, Month.JUNE, Month.MAY, Month.JUNE, Month.SEPTEMBER, Month.OCTOBER, false, true, true, false, "desc2", "tips2", "img2");
+        CropResponse c1 = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
+        CropResponse c2 = new CropResponse(2, "Cucumber", Month.APRIL, Month.JUNE, Month.MAY, Month.JUNE, Month.SEPTEMBER, Month.OCTOBER, false, true, true, false, "desc2", "tips2", "img2", null);
         var page = new PageImpl<>(List.of(c1, c2));
         when(cropService.findAll(Mockito.any(Pageable.class))).thenReturn(page);
 
@@ -79,7 +85,7 @@ public class CropControllerTest {
     @Test
     @DisplayName("GET /api/crops/{id} - when found returns 200")
     void getById_found_returns200() throws Exception {
-        CropResponse c = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
+        CropResponse c = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
         doReturn(c).when(cropService).findById(1);
 
         mockMvc.perform(get("/api/crops/1").accept(MediaType.APPLICATION_JSON))
@@ -97,10 +103,34 @@ public class CropControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("GET /api/crops/calendar - passes month, activity and locations to the service")
+    void getCalendar_returnsPage() throws Exception {
+        CropResponse c = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
+        when(cropService.findByCalendar(Mockito.eq(Month.AUGUST), Mockito.eq(CropActivity.HARVEST),
+                Mockito.eq(List.of(CropLocation.GARDEN, CropLocation.HOUSE)), Mockito.any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(c)));
+
+        mockMvc.perform(get("/api/crops/calendar")
+                        .param("month", "AUGUST")
+                        .param("activity", "HARVEST")
+                        .param("location", "GARDEN", "HOUSE")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Tomato"));
+    }
+
+    @Test
+    @DisplayName("GET /api/crops/calendar - unknown month returns 400")
+    void getCalendar_invalidMonth_returns400() throws Exception {
+        mockMvc.perform(get("/api/crops/calendar").param("month", "SMARCH").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /api/crops/search - when name match returns page")
     void getByName_returnsPage() throws Exception {
-        CropResponse c = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
+        CropResponse c = new CropResponse(1, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
         var page = new PageImpl<>(List.of(c));
         when(cropService.findByNameContaining(Mockito.eq("Tom"), Mockito.any(Pageable.class))).thenReturn(page);
 
@@ -130,7 +160,7 @@ public class CropControllerTest {
                 Map.entry("image", "img")
         );
 
-        CropResponse created = new CropResponse(10, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
+        CropResponse created = new CropResponse(10, "Tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
         when(cropService.create(Mockito.any(CreateCropRequest.class))).thenReturn(created);
 
         mockMvc.perform(post("/api/crops")
@@ -159,7 +189,7 @@ public class CropControllerTest {
                 "name", "Updated",
                 "cropDescription", "desc"
         );
-        CropResponse updated = new CropResponse(1, "Updated", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
+        CropResponse updated = new CropResponse(1, "Updated", Month.MARCH, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
         when(cropService.update(Mockito.eq(1), Mockito.any(UpdateCropRequest.class))).thenReturn(java.util.Optional.of(updated));
 
         mockMvc.perform(put("/api/crops/1")
@@ -184,6 +214,46 @@ public class CropControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    @DisplayName("PATCH /api/crops/{id} - merge patch returns 200 with the new version as ETag")
+    void patchCrop_found_returns200WithETag() throws Exception {
+        CropResponse patched = new CropResponse(1, "Tomato", Month.APRIL, Month.MAY, Month.APRIL, Month.MAY, Month.AUGUST, Month.SEPTEMBER, true, false, true, false, "desc", null, "img", 4L);
+        when(cropService.patch(Mockito.eq(1), Mockito.any(JsonNode.class), Mockito.eq(Set.of(3L)))).thenReturn(java.util.Optional.of(patched));
+
+        mockMvc.perform(patch("/api/crops/1")
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .content("{\"sowingStart\": \"APRIL\", \"cropTips\": null}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.sowingStart").value("APRIL"))
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    @Test
+    @DisplayName("PATCH /api/crops/{id} - when changed by someone else returns 409")
+    void patchCrop_staleVersion_returns409() throws Exception {
+        when(cropService.patch(Mockito.eq(1), Mockito.any(JsonNode.class), Mockito.eq(Set.of(2L))))
+                .thenThrow(new OptimisticLockingFailureException("Crop 1 was changed by someone else"));
+
+        mockMvc.perform(patch("/api/crops/1")
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .content("{\"name\": \"Tomato\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("PATCH /api/crops/{id} - when not found returns 404")
+    void patchCrop_notFound_returns404() throws Exception {
+        when(cropService.patch(Mockito.eq(99), Mockito.any(JsonNode.class), Mockito.isNull())).thenReturn(java.util.Optional.empty());
+
+        mockMvc.perform(patch("/api/crops/99")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Tomato\"}"))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @DisplayName("DELETE /api/crops/{id} - when deleted returns 204")
     void deleteCrop_deleted_returnsNoContent() throws Exception {
@@ -0,0 +1,157 @@
+package be.vives.ti.backend.controller;
+
+import be.vives.ti.backend.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Uploads are stored once per content and served with immutable caching, large files through Tomcat's sendfile
+@SpringBootTest
+@AutoConfigureMockMvc
+class ImageUploadIntegrationTest {
+
+    @TempDir
+    static Path storageDir;
+
+    @DynamicPropertySource
+    static void storage(DynamicPropertyRegistry registry) {
+        registry.add("images.storage-dir", storageDir::toString);
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    void upload_storesOnceAndReturnsTheUrls() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tomato.png", MediaType.IMAGE_PNG_VALUE, png(640, 480));
+
+        JsonNode created = json(mockMvc.perform(multipart("/api/images").file(file).header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isCreated())
+                .andReturn());
+        String hash = created.get("hash").asText();
+        mockMvc.perform(multipart("/api/images").file(file).header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/images/" + hash + ".png"))
+                .andExpect(jsonPath("$.hash").value(hash));
+
+        assertThat(created.get("url").asText()).isEqualTo("/api/images/" + hash + ".png");
+        assertThat(created.get("contentType").asText()).isEqualTo("image/png");
+        assertThat(created.get("thumbnails").get("160").asText()).isEqualTo("/api/images/thumbnails/160/" + hash + ".jpg");
+        assertThat(Files.exists(storageDir.resolve(hash + ".png"))).isTrue();
+    }
+
+    @Test
+    void upload_requiresAUserAndAnImage() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "tomato.png", MediaType.IMAGE_PNG_VALUE, png(10, 10));
+        MockMultipartFile text = new MockMultipartFile("file", "tomato.png", MediaType.IMAGE_PNG_VALUE, "not an image".getBytes());
+
+        mockMvc.perform(multipart("/api/images").file(file))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(multipart("/api/images").file(text).header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void get_isImmutableAndRevalidatesWithTheHash() throws Exception {
+        String hash = upload(png(64, 64));
+
+        MvcResult image = mockMvc.perform(get("/api/images/" + hash + ".png"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_PNG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + hash + "\""))
+                .andReturn();
+        mockMvc.perform(get("/api/images/" + hash + ".png").header(HttpHeaders.IF_NONE_MATCH, "\"" + hash + "\""))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/images/thumbnails/160/" + hash + ".jpg"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+
+        assertThat(image.getResponse().getContentAsByteArray()).isEqualTo(Files.readAllBytes(storageDir.resolve(hash + ".png")));
+        mockMvc.perform(get("/api/images/" + hash + ".jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/images/thumbnails/100/" + hash + ".jpg")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/images/" + "0".repeat(64) + ".png")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void get_largeFileIsHandedToSendfile() throws Exception {
+        // noise doesn't compress, well over the sendfile threshold
+        String hash = upload(noise(300, 300));
+        Path file = storageDir.resolve(hash + ".png");
+
+        MvcResult result = mockMvc.perform(get("/api/images/" + hash + ".png")
+                        .requestAttr("org.apache.tomcat.sendfile.support", Boolean.TRUE))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, Files.size(file)))
+                .andReturn();
+
+        // the controller writes nothing, Tomcat sends the file
+        assertThat(result.getResponse().getContentAsByteArray()).isEmpty();
+        assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toString());
+        assertThat(result.getRequest().getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(Files.size(file));
+    }
+
+    private String upload(byte[] png) throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "image.png", MediaType.IMAGE_PNG_VALUE, png);
+        return json(mockMvc.perform(multipart("/api/images").file(file).header(HttpHeaders.AUTHORIZATION, bearer()))
+                .andReturn()).get("hash").asText();
+    }
+
+    private String bearer() {
+        return "Bearer " + jwtUtil.generateToken("gardener@example.com", "USER");
+    }
+
+    private static JsonNode json(MvcResult result) throws Exception {
+        return new ObjectMapper().readTree(result.getResponse().getContentAsByteArray());
+    }
+
+    private static byte[] png(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(width / 2, height / 2, 0xFF0000);
+        return encode(image);
+    }
+
+    private static byte[] noise(int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, random.nextInt(0xFFFFFF));
+            }
+        }
+        return encode(image);
+    }
+
+    private static byte[] encode(BufferedImage image) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -1,9 +1,12 @@
 package be.vives.ti.backend.controller;
 
 import be.vives.ti.backend.dto.response.MeasurementResponse;
+import be.vives.ti.backend.model.IngredientMeasurement;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
 import be.vives.ti.backend.security.JwtUtil;
 import be.vives.ti.backend.service.MeasurementService;
+import be.vives.ti.backend.service.ReferenceData;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -17,14 +20,17 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.mockito.Mockito;
 
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.doThrow;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -51,7 +57,7 @@ public class MeasurementControllerTest {
         // arrange
         MeasurementResponse m1 = new MeasurementResponse(1, "kg");
         MeasurementResponse m2 = new MeasurementResponse(2, "g");
-        when(measurementService.findAll()).thenReturn(List.of(m1, m2));
+        when(measurementService.snapshot()).thenReturn(snapshotOf(m1, m2));
 
         // act & assert
         mockMvc.perform(get("/api/measurements")
@@ -62,14 +68,31 @@ public class MeasurementControllerTest {
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].name").value("kg"))
                 .andExpect(jsonPath("$[1].id").value(2))
-                .andExpect(jsonPath("$[1].name").value("g"));
+                .andExpect(jsonPath("$[1].name").value("g"))
+                .andExpect(header().string("ETag", snapshotOf(m1, m2).etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"));
+    }
+
+    @Test
+    @DisplayName("GET /api/measurements - with a matching If-None-Match returns 304 without a body")
+    void getAllMeasurements_withMatchingEtag_returnsNotModified() throws Exception {
+        ReferenceData<IngredientMeasurement, MeasurementResponse> snapshot = snapshotOf(new MeasurementResponse(1, "kg"));
+        doReturn(snapshot).when(measurementService).snapshot();
+
+        mockMvc.perform(get("/api/measurements")
+                        .header("If-None-Match", snapshot.etag())
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", snapshot.etag()))
+                .andExpect(header().string("Cache-Control", "max-age=3600"))
+                .andExpect(content().string(""));
     }
 
     @Test
     @DisplayName("GET /api/measurements - when service throws -> returns internal server error")
     void getAllMeasurements_whenServiceThrows_returnsInternalServerError() throws Exception {
         // arrange - stub the autowired mock to throw
-        doThrow(new RuntimeException("boom")).when(measurementService).findAll();
+        doThrow(new RuntimeException("boom")).when(measurementService).snapshot();
 
         // act & assert - expect internal server error handled by GlobalExceptionHandler
         mockMvc.perform(get("/api/measurements")
@@ -77,6 +100,15 @@ public class MeasurementControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    private static ReferenceData<IngredientMeasurement, MeasurementResponse> snapshotOf(MeasurementResponse... responses) {
+        List<IngredientMeasurement> rows = Arrays.stream(responses).map(response -> {
+            IngredientMeasurement row = new IngredientMeasurement(response.name());
+            row.setId(response.id());
+            return row;
+        }).toList();
+        return ReferenceData.of(rows, row -> new MeasurementResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
+
     // Test configuration that registers Mockito mock as Spring bean (avoids deprecated @MockBean)
     @TestConfiguration
     public static class TestConfig {
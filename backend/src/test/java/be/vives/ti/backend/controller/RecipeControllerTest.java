@@ -1,10 +1,17 @@
 package be.vives.ti.backend.controller;
 
 import be.vives.ti.backend.dto.request.CreateRecipeRequest;
+import be.vives.ti.backend.dto.request.RecipeMatchRequest;
 import be.vives.ti.backend.dto.request.UpdateRecipeRequest;
+import be.vives.ti.backend.dto.response.CursorPage;
+import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.dto.response.RecipeMatchResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
+import be.vives.ti.backend.exceptions.InvalidReferenceException;
 import be.vives.ti.backend.service.RecipeService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -17,19 +24,24 @@ import org.springframework.context.annotation.Import;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -58,7 +70,7 @@ public class RecipeControllerTest {
 
     @Test
     public void getAll_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(1, "cake", 1, "desc", "20m", "10m", "img", 1, 1, List.of(), List.of());
+        var recipe = new RecipeResponse(1, "cake", 1, "desc", "20m", "10m", "img", 1, 1, List.of(), List.of(), null);
         Pageable pageable = PageRequest.of(0,20);
         when(getRecipeService().findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(recipe), pageable, 1));
 
@@ -69,7 +81,7 @@ public class RecipeControllerTest {
 
     @Test
     public void getById_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(2, "soup", 1, "desc", "10m", "5m", "img", 1, 1, List.of(), List.of());
+        var recipe = new RecipeResponse(2, "soup", 1, "desc", "10m", "5m", "img", 1, 1, List.of(), List.of(), null);
         when(getRecipeService().findById(2)).thenReturn(Optional.of(recipe));
 
         mockMvc.perform(get("/api/recipes/{id}", 2))
@@ -89,7 +101,7 @@ public class RecipeControllerTest {
 
     @Test
     public void getByCatId_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(3, "salad", 1, "desc", "5m", "10m", "img", 1, 2, List.of(), List.of());
+        var recipe = new RecipeResponse(3, "salad", 1, "desc", "5m", "10m", "img", 1, 2, List.of(), List.of(), null);
         Pageable pageable = PageRequest.of(0,20);
         when(getRecipeService().findByCatId(eq(2), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(recipe), pageable, 1));
 
@@ -100,7 +112,7 @@ public class RecipeControllerTest {
 
     @Test
     public void getByCourseId_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(4, "steak", 1, "desc", "30m", "15m", "img", 2, 1, List.of(), List.of());
+        var recipe = new RecipeResponse(4, "steak", 1, "desc", "30m", "15m", "img", 2, 1, List.of(), List.of(), null);
         Pageable pageable = PageRequest.of(0,20);
         // controller calls recipeService.findByCatId(...) for courseId as well (implementation quirk)
         when(getRecipeService().findByCourseId(eq(2), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(recipe), pageable, 1));
@@ -112,7 +124,7 @@ public class RecipeControllerTest {
 
     @Test
     public void getByIngredientId_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(5, "pasta", 1, "desc", "15m", "10m", "img", 1, 1, List.of(), List.of());
+        var recipe = new RecipeResponse(5, "pasta", 1, "desc", "15m", "10m", "img", 1, 1, List.of(), List.of(), null);
         Pageable pageable = PageRequest.of(0,20);
         // controller also uses findByIngredientId for ingredient id
         when(getRecipeService().findByIngredientId(eq(7), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(recipe), pageable, 1));
@@ -122,6 +134,109 @@ public class RecipeControllerTest {
                 .andExpect(jsonPath("$.content[0].name").value("pasta"));
     }
 
+    @Test
+    public void getAll_summaryView_returnsSummaries() throws Exception {
+        var summary = new RecipeSummaryResponse(1, "cake", "img", "10m", "20m", 1, 2, 3);
+        Pageable pageable = PageRequest.of(0,20);
+        when(getRecipeService().findAllSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+        mockMvc.perform(get("/api/recipes").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("cake"))
+                .andExpect(jsonPath("$.content[0].categoryId").value(2))
+                .andExpect(jsonPath("$.content[0].recipeQuantities").doesNotExist());
+    }
+
+    @Test
+    public void getAll_afterWithSummaryView_returnsASummarySlice() throws Exception {
+        var summary = new RecipeSummaryResponse(1, "cake", "img", "10m", "20m", 1, 2, 3);
+        when(getRecipeService().findAllSummariesAfter(eq("abc"), eq(20)))
+                .thenReturn(new CursorPage<>(List.of(summary), 20, false, null));
+
+        mockMvc.perform(get("/api/recipes").param("after", "abc").param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("cake"))
+                .andExpect(jsonPath("$.content[0].recipeQuantities").doesNotExist())
+                .andExpect(jsonPath("$.hasNext").value(false));
+    }
+
+    @Test
+    public void match_returnsMatchesWithMissingCounts() throws Exception {
+        var summary = new RecipeSummaryResponse(4, "tomato soup", "img", "5m", "20m", 1, 1, null);
+        Pageable pageable = PageRequest.of(0,20);
+        when(getRecipeService().match(any(RecipeMatchRequest.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new RecipeMatchResponse(summary, 2, 1, List.of(12))), pageable, 1));
+
+        mockMvc.perform(post("/api/recipes/match")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ingredientIds\":[10,11],\"mode\":\"RANKED\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].recipe.name").value("tomato soup"))
+                .andExpect(jsonPath("$.content[0].missingIngredients").value(1))
+                .andExpect(jsonPath("$.content[0].missingIngredientIds[0]").value(12));
+    }
+
+    @Test
+    public void createRecipes_returns201WithIds() throws Exception {
+        when(getRecipeService().createAll(anyList())).thenReturn(List.of(21, 22));
+        String recipe = "{\"name\":\"%s\",\"description\":\"d\",\"prepTime\":\"5m\",\"cookTime\":\"5m\",\"courseId\":1,\"categoryId\":1,"
+                + "\"quantities\":[{\"ingredientId\":1,\"measurementId\":1,\"quantity\":1}],\"steps\":[{\"stepNumber\":1,\"description\":\"cook\"}]}";
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"recipes\":[" + recipe.formatted("Soup") + "," + recipe.formatted("Stew") + "]}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.ids[1]").value(22));
+    }
+
+    @Test
+    public void createRecipes_unknownReferences_returns400WithEveryField() throws Exception {
+        when(getRecipeService().createAll(anyList())).thenThrow(new InvalidReferenceException(List.of(
+                new ErrorResponse.ValidationError("recipes[0].courseId", "Course 9 does not exist"),
+                new ErrorResponse.ValidationError("recipes[1].quantities[0].ingredientId", "Ingredient 4 does not exist"))));
+
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"recipes\":[{\"name\":\"Soup\",\"description\":\"d\",\"prepTime\":\"5m\",\"cookTime\":\"5m\",\"courseId\":9,\"categoryId\":1,"
+                                + "\"quantities\":[{\"ingredientId\":1,\"measurementId\":1,\"quantity\":1}],\"steps\":[{\"stepNumber\":1,\"description\":\"cook\"}]}]}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.validationErrors.length()").value(2))
+                .andExpect(jsonPath("$.validationErrors[1].field").value("recipes[1].quantities[0].ingredientId"));
+    }
+
+    @Test
+    public void createRecipes_invalidRecipe_returns400() throws Exception {
+        mockMvc.perform(post("/api/recipes/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"recipes\":[{\"name\":\"\"}]}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void search_returnsRankedSummaries() throws Exception {
+        var summary = new RecipeSummaryResponse(4, "tomato soup", "img", "5m", "20m", 1, 1, null);
+        Pageable pageable = PageRequest.of(0,20);
+        when(getRecipeService().search(eq("tomato soup"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+        mockMvc.perform(get("/api/recipes/search").param("q", "tomato soup"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(4))
+                .andExpect(jsonPath("$.content[0].name").value("tomato soup"));
+    }
+
+    @Test
+    public void getByIngredientId_summaryView_returnsSummaries() throws Exception {
+        var summary = new RecipeSummaryResponse(5, "pasta", "img", "15m", "10m", 1, 1, null);
+        Pageable pageable = PageRequest.of(0,20);
+        when(getRecipeService().findSummariesByIngredientId(eq(7), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(summary), pageable, 1));
+
+        mockMvc.perform(get("/api/recipes/ingredient/{ingrId}", 7).param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("pasta"))
+                .andExpect(jsonPath("$.content[0].recipeStepResponses").doesNotExist());
+    }
+
     @Test
     public void createRecipe_returnsCreated() throws Exception {
         // build a valid create request
@@ -129,7 +244,7 @@ public class RecipeControllerTest {
         var step = new CreateRecipeRequest.CreateRecipeStepRequest(1, "mix");
         var req = new CreateRecipeRequest("pie", null, "yummy", "5m", "10m", "img", 1, 1, List.of(qty), List.of(step));
 
-        var created = new RecipeResponse(10, "pie", null, "yummy", "5m", "10m", "img", 1, 1, List.of(), List.of());
+        var created = new RecipeResponse(10, "pie", null, "yummy", "5m", "10m", "img", 1, 1, List.of(), List.of(), null);
         when(getRecipeService().create(any(CreateRecipeRequest.class))).thenReturn(created);
 
         mockMvc.perform(post("/api/recipes")
@@ -159,7 +274,7 @@ public class RecipeControllerTest {
     @Test
     public void updateRecipe_returnsOk() throws Exception {
         var updateReq = new UpdateRecipeRequest("newname","newdesc","1m","2m","img", null, null, null, null);
-        var updated = new RecipeResponse(20, "newname", null, "newdesc", "1m", "2m", "img", 1, 1, List.of(), List.of());
+        var updated = new RecipeResponse(20, "newname", null, "newdesc", "1m", "2m", "img", 1, 1, List.of(), List.of(), null);
         when(getRecipeService().update(eq(20), any(UpdateRecipeRequest.class))).thenReturn(Optional.of(updated));
 
         mockMvc.perform(put("/api/recipes/{id}", 20)
@@ -180,6 +295,66 @@ public class RecipeControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void patchRecipe_returnsOkWithETag() throws Exception {
+        var patched = new RecipeResponse(20, "newname", null, "desc", "1m", "2m", "img", 1, 1, List.of(), List.of(), 8L);
+        when(getRecipeService().patch(eq(20), any(JsonNode.class), eq(Set.of(7L)))).thenReturn(Optional.of(patched));
+
+        mockMvc.perform(patch("/api/recipes/{id}", 20)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"7\"")
+                        .content("{\"name\": \"newname\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"8\""))
+                .andExpect(jsonPath("$.name").value("newname"));
+    }
+
+    @Test
+    public void patchRecipe_invalidIfMatch_returns400() throws Exception {
+        mockMvc.perform(patch("/api/recipes/{id}", 20)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .content("{\"name\": \"newname\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void patchRecipe_staleVersion_returns409() throws Exception {
+        when(getRecipeService().patch(eq(20), any(JsonNode.class), eq(Set.of(6L))))
+                .thenThrow(new OptimisticLockingFailureException("Recipe 20 was changed by someone else"));
+
+        mockMvc.perform(patch("/api/recipes/{id}", 20)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"6\"")
+                        .content("{\"name\": \"newname\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    public void patchRecipe_ifMatchList_passesEveryStrongVersion() throws Exception {
+        var patched = new RecipeResponse(20, "newname", null, "desc", "1m", "2m", "img", 1, 1, List.of(), List.of(), 8L);
+        when(getRecipeService().patch(eq(20), any(JsonNode.class), eq(Set.of(6L, 7L)))).thenReturn(Optional.of(patched));
+
+        mockMvc.perform(patch("/api/recipes/{id}", 20)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"6\", W/\"5\", \"7\"")
+                        .content("{\"name\": \"newname\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void patchRecipe_weakIfMatch_neverMatches() throws Exception {
+        when(getRecipeService().patch(eq(20), any(JsonNode.class), eq(Set.of())))
+                .thenThrow(new OptimisticLockingFailureException("Recipe 20 was changed by someone else"));
+
+        mockMvc.perform(patch("/api/recipes/{id}", 20)
+                        .contentType("application/merge-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "W/\"7\"")
+                        .content("{\"name\": \"newname\"}"))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void deleteRecipe_returnsNoContent() throws Exception {
         when(getRecipeService().delete(3)).thenReturn(true);
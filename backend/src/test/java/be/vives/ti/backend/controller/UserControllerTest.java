@@ -5,7 +5,9 @@ package be.vives.ti.backend.controller;
 import be.vives.ti.backend.dto.request.CreateUserRequest;
 import be.vives.ti.backend.dto.request.UpdateUserRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
+import be.vives.ti.backend.dto.response.CropSummaryResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.dto.response.UserResponse;
 import be.vives.ti.backend.exceptions.GlobalExceptionHandler;
 import be.vives.ti.backend.exceptions.ResourceNotFoundException;
@@ -102,7 +104,7 @@ public class UserControllerTest {
 
     @Test
     public void getFavoriteCrops_returnsOk() throws Exception {
-        var crop = new CropResponse(1, "tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.JUNE, Month.JULY, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img");
+        var crop = new CropResponse(1, "tomato", Month.MARCH, Month.MAY, Month.APRIL, Month.JUNE, Month.JULY, Month.SEPTEMBER, true, false, true, false, "desc", "tips", "img", null);
         when(getUserService().findFavoriteCrops(1)).thenReturn(List.of(crop));
 
         mockMvc.perform(get("/api/users/{id}/favorite-crops", 1))
@@ -110,6 +112,34 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].name").value("tomato"));
     }
 
+    @Test
+    public void getFavoriteCrops_idsOnly_returnsIds() throws Exception {
+        when(getUserService().findFavoriteCropIds(1)).thenReturn(List.of(3, 8));
+
+        mockMvc.perform(get("/api/users/{id}/favorite-crops", 1).param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(3))
+                .andExpect(jsonPath("$[1]").value(8));
+    }
+
+    @Test
+    public void getFavoriteCrops_unsupportedFields_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/users/{id}/favorite-crops", 1).param("fields", "name"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void getFavoriteCrops_summaryView_returnsPage() throws Exception {
+        Pageable pageable = PageRequest.of(0, 5);
+        when(getUserService().findFavoriteCropSummaries(org.mockito.ArgumentMatchers.eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new CropSummaryResponse(3, "tomato", "img")), pageable, 1));
+
+        mockMvc.perform(get("/api/users/{id}/favorite-crops", 1).param("view", "summary").param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("tomato"))
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
     @Test
     public void addFavoriteCrop_returnsOk() throws Exception {
         doNothing().when(getUserService()).addFavoriteCrop(1, 2);
@@ -128,7 +158,7 @@ public class UserControllerTest {
 
     @Test
     public void getFavoriteRecipes_returnsOk() throws Exception {
-        var recipe = new RecipeResponse(1, "cake", 1, "desc", "20m", "10m", "img", 1, 1, List.of(), List.of());
+        var recipe = new RecipeResponse(1, "cake", 1, "desc", "20m", "10m", "img", 1, 1, List.of(), List.of(), null);
         when(getUserService().getFavoriteRecipes(1)).thenReturn(List.of(recipe));
 
         mockMvc.perform(get("/api/users/{id}/favorite-recipes", 1))
@@ -136,6 +166,27 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[0].name").exists());
     }
 
+    @Test
+    public void getFavoriteRecipes_idsOnly_returnsIds() throws Exception {
+        when(getUserService().findFavoriteRecipeIds(1)).thenReturn(List.of(4));
+
+        mockMvc.perform(get("/api/users/{id}/favorite-recipes", 1).param("fields", "id"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value(4));
+    }
+
+    @Test
+    public void getFavoriteRecipes_summaryView_returnsPage() throws Exception {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(getUserService().findFavoriteRecipeSummaries(org.mockito.ArgumentMatchers.eq(1), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new RecipeSummaryResponse(4, "cake", "img", "20m", "10m", 1, 1, 1)), pageable, 1));
+
+        mockMvc.perform(get("/api/users/{id}/favorite-recipes", 1).param("view", "summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("cake"))
+                .andExpect(jsonPath("$.content[0].recipeQuantities").doesNotExist());
+    }
+
     @Test
     public void addFavoriteRecipe_returnsOk() throws Exception {
         doNothing().when(getUserService()).addFavoriteRecipe(1, 2);
@@ -0,0 +1,96 @@
+package be.vives.ti.backend.model.listener;
+
+import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeResponse.RecipeQuantityResponse;
+import be.vives.ti.backend.model.Course;
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.User;
+import be.vives.ti.backend.service.RecipeResponseCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Changing reference data through JPA evicts the cached recipes that embed it, once the transaction commits
+@DataJpaTest
+@Import(RecipeResponseCache.class)
+@DirtiesContext // the tests commit their data
+class RecipeCacheInvalidationListenerTest {
+
+    @Autowired
+    private RecipeResponseCache recipeResponseCache;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void updatingAnIngredient_evictsRecipesUsingItAfterCommit() {
+        Ingredient used = entityManager.persist(new Ingredient("Tomato"));
+        Ingredient unused = entityManager.persist(new Ingredient("Basil"));
+        Course course = entityManager.persist(new Course("Main"));
+        entityManager.flush();
+        recipeResponseCache.get(1, () -> Optional.of(recipe(1, course.getId(), used.getId())));
+        recipeResponseCache.get(2, () -> Optional.of(recipe(2, course.getId() + 1, unused.getId())));
+
+        used.setName("Cherry tomato");
+        entityManager.flush();
+        assertThat(recipeResponseCache.stats().size()).isEqualTo(2);
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(recipeResponseCache.get(1, Optional::empty)).isEmpty();
+        assertThat(recipeResponseCache.get(2, Optional::empty)).isPresent();
+    }
+
+    @Test
+    void deletingAnAuthor_evictsTheirRecipesSoTheyAreReadWithoutAuthor() {
+        User author = new User();
+        author.setUserName("cook");
+        author.setEmail("cook@example.com");
+        author.setPassword("password123");
+        entityManager.persist(author);
+        int recipeId = entityManager.persist(new Recipe("Soup", author, null, null, null, null, null, null)).getId();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        assertThat(read(recipeId).authorId()).isEqualTo(author.getId());
+
+        TestTransaction.start();
+        entityManager.remove(entityManager.find(User.class, author.getId()));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(read(recipeId).authorId()).isNull();
+    }
+
+    // a read through the cache, loading the recipe from the database on a miss
+    private RecipeResponse read(int recipeId) {
+        TestTransaction.start();
+        try {
+            return recipeResponseCache.get(recipeId, () -> {
+                Recipe recipe = entityManager.find(Recipe.class, recipeId);
+                return Optional.of(new RecipeResponse(recipe.getId(), recipe.getRecipeName(), recipe.getAuthorId(),
+                        null, null, null, null, null, null, List.of(), List.of(), recipe.getVersion()));
+            }).orElseThrow();
+        } finally {
+            TestTransaction.end();
+        }
+    }
+
+    private RecipeResponse recipe(int id, int courseId, int ingredientId) {
+        RecipeQuantityResponse quantity = new RecipeQuantityResponse(id,
+                new RecipeQuantityResponse.IngredientResponse(ingredientId, "ingredient"),
+                new RecipeQuantityResponse.MeasurementResponse(1, "grams"), 1.0);
+        return new RecipeResponse(id, "recipe " + id, null, "d", "1m", "1m", null,
+                courseId, 1, List.of(quantity), List.of(), null);
+    }
+}
@@ -2,14 +2,20 @@
 package be.vives.ti.backend.repository;
 
 import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.model.CropCalendar;
+import be.vives.ti.backend.model.CropLocation;
+import be.vives.ti.backend.service.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 
+import java.time.Month;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -135,4 +141,55 @@ class CropRepositoryTest {
 
         assertThat(found).isNotPresent();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findFirstByNameAndFindNextByName_walkAllCropsInNameOrderWithoutGapsOrDuplicates() {
+        entityManager.persist(new Crop("Pea"));
+        entityManager.persist(new Crop("Bean"));
+        entityManager.persist(new Crop("Bean"));
+        entityManager.persist(new Crop("Leek"));
+        entityManager.persistAndFlush(new Crop("Kale"));
+
+        List<Crop> first = cropRepository.findFirstByName(Limit.of(2));
+        Crop last = first.get(1);
+        List<Crop> next = cropRepository.findNextByName(last.getName(), last.getId(), Limit.of(10));
+
+        assertThat(first).extracting(Crop::getName).containsExactly("Bean", "Bean");
+        assertThat(next).extracting(Crop::getName).containsExactly("Kale", "Leek", "Pea");
+    }
+
+    @Test
+    void findNextByName_doesNotSkipCropsWithoutAName() {
+        entityManager.persist(new Crop("Bean"));
+        entityManager.persist(new Crop(null));
+        entityManager.persistAndFlush(new Crop(null));
+
+        List<Crop> first = cropRepository.findFirstByName(Limit.of(1));
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor(first.get(0).getName(), first.get(0).getId()).encode());
+        List<Crop> next = cropRepository.findNextByName(cursor.name(), cursor.id(), Limit.of(10));
+
+        assertThat(first).extracting(Crop::getName).containsExactly((String) null);
+        assertThat(next).extracting(Crop::getName).containsExactly(null, "Bean");
+    }
+
+    @Test
+    void findByCalendar_matchesMasksComputedOnPersistIncludingWrapAround() {
+        Crop garlic = new Crop("Garlic", Month.OCTOBER, Month.JANUARY, null, null, Month.JUNE, Month.JULY,
+                false, false, true, false, null, null, null);
+        Crop basil = new Crop("Basil", Month.APRIL, Month.MAY, Month.MAY, Month.JUNE, Month.JULY, Month.SEPTEMBER,
+                true, true, true, false, null, null, null);
+        entityManager.persist(garlic);
+        entityManager.persistAndFlush(basil);
+        int december = CropCalendar.monthBit(Month.DECEMBER);
+        int july = CropCalendar.monthBit(Month.JULY);
+        int pots = CropLocation.POTS.bit();
+
+        assertThat(garlic.getSowMask()).isEqualTo(0b1110_0000_0001);
+        assertThat(cropRepository.findByCalendar(december, 0, 0, 0, PageRequest.of(0, 10)))
+                .extracting(Crop::getName).containsExactly("Garlic");
+        assertThat(cropRepository.findByCalendar(0, 0, july, 0, PageRequest.of(0, 10)))
+                .extracting(Crop::getName).containsExactlyInAnyOrder("Garlic", "Basil");
+        assertThat(cropRepository.findByCalendar(0, 0, july, pots, PageRequest.of(0, 10)))
+                .extracting(Crop::getName).containsExactly("Basil");
+    }
+}
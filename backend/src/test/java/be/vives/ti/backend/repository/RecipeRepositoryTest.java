@@ -1,17 +1,22 @@
 package be.vives.ti.backend.repository;
 
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.model.Category;
 import be.vives.ti.backend.model.Ingredient;
 import be.vives.ti.backend.model.Recipe;
 import be.vives.ti.backend.model.RecipeQuantity;
+import be.vives.ti.backend.service.KeysetCursor;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -62,8 +67,8 @@ public class RecipeRepositoryTest {
         }
         entityManager.flush();
 
-        Page<Recipe> page1 = recipeRepository.findByCategory_Id(categoryId, PageRequest.of(0, 10));
-        Page<Recipe> page2 = recipeRepository.findByCategory_Id(categoryId, PageRequest.of(1, 10));
+        Page<Integer> page1 = recipeRepository.findIdsByCategoryId(categoryId, PageRequest.of(0, 10));
+        Page<Integer> page2 = recipeRepository.findIdsByCategoryId(categoryId, PageRequest.of(1, 10));
 
         assertThat(page1.getContent().size()).isEqualTo(10);
         assertThat(page2.getContent().size()).isEqualTo(5);
@@ -73,7 +78,7 @@ public class RecipeRepositoryTest {
     void findByCategoryId_whenNone_shouldReturnEmptyPage() {
         int categoryId = 99999; // unlikely to exist
 
-        Page<Recipe> page = recipeRepository.findByCategory_Id(categoryId, PageRequest.of(0, 10));
+        Page<Integer> page = recipeRepository.findIdsByCategoryId(categoryId, PageRequest.of(0, 10));
 
         assertThat(page.getContent()).isEmpty();
         assertThat(page.getTotalElements()).isEqualTo(0);
@@ -112,6 +117,70 @@ public class RecipeRepositoryTest {
         assertThat(recipes).isEmpty();
     }
 
+    @Test
+    void findIdsByIngredientId_returnsEachRecipeOnceAndPagesInTheDatabase() {
+        Ingredient tomato = entityManager.persist(new Ingredient("tomato"));
+        for (int i = 0; i < 5; i++) {
+            Recipe recipe = new Recipe();
+            recipe.setRecipeName("Tomato recipe " + i);
+            // the same ingredient twice must not duplicate the recipe row
+            recipe.addQuantity(new RecipeQuantity(recipe, tomato, null, null));
+            recipe.addQuantity(new RecipeQuantity(recipe, tomato, null, null));
+            entityManager.persist(recipe);
+        }
+        Recipe other = new Recipe();
+        other.setRecipeName("Without tomato");
+        entityManager.persist(other);
+        entityManager.flush();
+
+        Page<Integer> page1 = recipeRepository.findIdsByIngredientId(tomato.getId(), PageRequest.of(0, 3));
+        Page<Integer> page2 = recipeRepository.findIdsByIngredientId(tomato.getId(), PageRequest.of(1, 3));
+
+        assertThat(page1.getTotalElements()).isEqualTo(5);
+        assertThat(page1.getContent()).hasSize(3).doesNotHaveDuplicates();
+        assertThat(page2.getContent()).hasSize(2).doesNotContainAnyElementsOf(page1.getContent());
+        assertThat(page1.getContent()).doesNotContain(other.getId());
+    }
+
+    @Test
+    void findAllSummaries_keepsRecipesWithoutCourseCategoryOrAuthor() {
+        Category category = entityManager.persist(new Category("dinner"));
+        Recipe withCategory = new Recipe();
+        withCategory.setRecipeName("With category");
+        withCategory.setCategory(category);
+        withCategory.setImageURL("img");
+        entityManager.persist(withCategory);
+        Recipe bare = new Recipe();
+        bare.setRecipeName("Bare");
+        entityManager.persist(bare);
+        entityManager.flush();
+
+        Page<RecipeSummaryResponse> page = recipeRepository.findAllSummaries(PageRequest.of(0, 10, Sort.by("recipeName")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(RecipeSummaryResponse::name).containsExactly("Bare", "With category");
+        assertThat(page.getContent().get(0).categoryId()).isNull();
+        assertThat(page.getContent().get(1).categoryId()).isEqualTo(category.getId());
+        assertThat(page.getContent().get(1).imageURL()).isEqualTo("img");
+    }
+
+    @Test
+    void findNextIdsByName_doesNotSkipRecipesWithoutAName() {
+        Recipe named = new Recipe();
+        named.setRecipeName("Soup");
+        entityManager.persist(named);
+        Recipe unnamed = entityManager.persist(new Recipe());
+        Recipe alsoUnnamed = entityManager.persist(new Recipe());
+        entityManager.flush();
+
+        List<Integer> first = recipeRepository.findFirstIdsByName(Limit.of(1));
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor(null, first.get(0)).encode());
+        List<Integer> next = recipeRepository.findNextIdsByName(cursor.name(), cursor.id(), Limit.of(10));
+
+        assertThat(first).containsExactly(Math.min(unnamed.getId(), alsoUnnamed.getId()));
+        assertThat(next).containsExactly(Math.max(unnamed.getId(), alsoUnnamed.getId()), named.getId());
+    }
+
     @Test
     void findById_ExistingRecipe_ReturnsRecipe() {
         // Given
@@ -180,8 +249,8 @@ public class RecipeRepositoryTest {
         }
         entityManager.flush();
 
-        Page<Recipe> page1 = recipeRepository.findByCourse_Id(courseId, PageRequest.of(0, 2));
-        Page<Recipe> page2 = recipeRepository.findByCourse_Id(courseId, PageRequest.of(1, 2));
+        Page<Integer> page1 = recipeRepository.findIdsByCourseId(courseId, PageRequest.of(0, 2));
+        Page<Integer> page2 = recipeRepository.findIdsByCourseId(courseId, PageRequest.of(1, 2));
 
         assertThat(page1.getContent().size()).isEqualTo(2);
         assertThat(page2.getContent().size()).isEqualTo(1);
@@ -191,7 +260,7 @@ public class RecipeRepositoryTest {
     void findByCourseId_whenNone_shouldReturnEmptyPage() {
         int nonExistingCourseId = 99999;
 
-        Page<Recipe> page = recipeRepository.findByCourse_Id(nonExistingCourseId, PageRequest.of(0, 10));
+        Page<Integer> page = recipeRepository.findIdsByCourseId(nonExistingCourseId, PageRequest.of(0, 10));
 
         assertThat(page.getContent()).isEmpty();
         assertThat(page.getTotalElements()).isEqualTo(0);
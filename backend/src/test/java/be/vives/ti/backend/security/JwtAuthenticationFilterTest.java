@@ -0,0 +1,133 @@
+package be.vives.ti.backend.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+// The filter authenticates from the token's claims: no user lookup, and one signature check per distinct token
+class JwtAuthenticationFilterTest {
+
+    private JwtUtil jwtUtil;
+    private UserDetailsService userDetailsService;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtil = spy(new JwtUtil("test-secret-key-that-is-long-enough-for-hmac-sha256", "k1", List.of(), "", Duration.ZERO, 3_600_000L));
+        userDetailsService = mock(UserDetailsService.class);
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void validToken_authenticatesFromTheRoleClaimWithoutLoadingTheUser() throws Exception {
+        JwtAuthenticationFilter filter = filter(10_000, false);
+
+        Authentication authentication = authenticate(filter, jwtUtil.generateToken("admin@example.com", "ADMIN"));
+
+        assertThat(authentication.getName()).isEqualTo("admin@example.com");
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_ADMIN");
+        verifyNoInteractions(userDetailsService);
+    }
+
+    @Test
+    void invalidToken_leavesTheRequestUnauthenticated() throws Exception {
+        JwtAuthenticationFilter filter = filter(10_000, false);
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+
+        assertThat(authenticate(filter, token.substring(0, token.length() - 2) + "xx")).isNull();
+        assertThat(authenticate(filter, "not-a-jwt")).isNull();
+    }
+
+    @Test
+    void repeatedToken_isVerifiedOnce() throws Exception {
+        JwtAuthenticationFilter filter = filter(10_000, false);
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(authenticate(filter, token)).isNotNull();
+        }
+
+        verify(jwtUtil, times(1)).parseClaims(token);
+    }
+
+    @Test
+    void verifyUser_rejectsDeletedUsersAndChangedRoles() throws Exception {
+        JwtAuthenticationFilter filter = filter(0, true);
+        when(userDetailsService.loadUserByUsername("user@example.com"))
+                .thenReturn(new User("user@example.com", "x", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        when(userDetailsService.loadUserByUsername("gone@example.com"))
+                .thenThrow(new UsernameNotFoundException("gone"));
+
+        assertThat(authenticate(filter, jwtUtil.generateToken("user@example.com", "USER"))).isNotNull();
+        assertThat(authenticate(filter, jwtUtil.generateToken("user@example.com", "ADMIN"))).isNull();
+        assertThat(authenticate(filter, jwtUtil.generateToken("gone@example.com", "USER"))).isNull();
+    }
+
+    @Test
+    void userLookup_onlyWithVerifyUserAndOnlyOncePerToken() throws Exception {
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+        when(userDetailsService.loadUserByUsername("user@example.com"))
+                .thenReturn(new User("user@example.com", "x", List.of(new SimpleGrantedAuthority("ROLE_USER"))));
+        JwtAuthenticationFilter claimsOnly = filter(10_000, false);
+        JwtAuthenticationFilter verifying = filter(10_000, true);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(authenticate(claimsOnly, token)).isNotNull();
+            assertThat(authenticate(verifying, token)).isNotNull();
+        }
+
+        verify(userDetailsService, times(1)).loadUserByUsername("user@example.com");
+    }
+
+    @Test
+    void droppedKey_forgetsTheTokensVerifiedWithIt(@TempDir Path dir) throws Exception {
+        String oldSecret = "old-secret-key-that-is-long-enough-for-hmac-sha256";
+        String newSecret = "new-secret-key-that-is-long-enough-for-hmac-sha256";
+        Path keys = dir.resolve("jwt-keys.properties");
+        Files.writeString(keys, "jwt.key-id=k1\njwt.secret=" + oldSecret + "\n");
+        jwtUtil = new JwtUtil("unused", "unused", List.of(), keys.toString(), Duration.ZERO, 3_600_000L);
+        JwtAuthenticationFilter filter = filter(10_000, false);
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+        assertThat(authenticate(filter, token)).isNotNull();
+
+        Files.writeString(keys, "jwt.key-id=k2\njwt.secret=" + newSecret + "\n");
+        Files.setLastModifiedTime(keys, FileTime.fromMillis(Files.getLastModifiedTime(keys).toMillis() + 1000));
+
+        assertThat(authenticate(filter, token)).isNull();
+    }
+
+    private JwtAuthenticationFilter filter(long cacheMaxSize, boolean verifyUser) {
+        return new JwtAuthenticationFilter(jwtUtil, userDetailsService, cacheMaxSize, Duration.ofMinutes(10), verifyUser);
+    }
+
+    private Authentication authenticate(JwtAuthenticationFilter filter, String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader("Authorization", "Bearer " + token);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
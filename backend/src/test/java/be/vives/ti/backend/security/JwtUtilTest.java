@@ -0,0 +1,125 @@
+package be.vives.ti.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Tokens carry the id of the key that signed them, so keys can be rotated without invalidating issued tokens
+class JwtUtilTest {
+
+    private static final String OLD_SECRET = "old-secret-key-that-is-long-enough-for-hmac-sha256";
+    private static final String NEW_SECRET = "new-secret-key-that-is-long-enough-for-hmac-sha256";
+
+    @Test
+    void token_carriesTheCurrentKeyIdAndItsClaims() {
+        JwtUtil jwtUtil = new JwtUtil(OLD_SECRET, "k1", List.of(), "", Duration.ZERO, 60_000L);
+
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+
+        assertThat(Jwts.parser().verifyWith(Keys.hmacShaKeyFor(OLD_SECRET.getBytes(StandardCharsets.UTF_8))).build()
+                .parseSignedClaims(token).getHeader().getKeyId()).isEqualTo("k1");
+        assertThat(jwtUtil.parseClaims(token).getSubject()).isEqualTo("user@example.com");
+        assertThat(jwtUtil.parseClaims(token).get("role", String.class)).isEqualTo("USER");
+    }
+
+    @Test
+    void rotation_acceptsTokensSignedWithAPreviousKey() {
+        JwtUtil before = new JwtUtil(OLD_SECRET, "k1", List.of(), "", Duration.ZERO, 60_000L);
+        JwtUtil after = new JwtUtil(NEW_SECRET, "k2", List.of("k1:" + OLD_SECRET), "", Duration.ZERO, 60_000L);
+        String oldToken = before.generateToken("user@example.com", "USER");
+
+        assertThat(after.parseClaims(oldToken).getSubject()).isEqualTo("user@example.com");
+        // a replica that hasn't got the new key yet rejects the new tokens
+        assertThatThrownBy(() -> before.parseClaims(after.generateToken("user@example.com", "USER")))
+                .isInstanceOf(JwtException.class);
+    }
+
+    @Test
+    void tokenWithUnknownKeyIdOrWithoutKeyId() {
+        JwtUtil jwtUtil = new JwtUtil(NEW_SECRET, "k2", List.of(), "", Duration.ZERO, 60_000L);
+        String unknownKeyId = new JwtUtil(NEW_SECRET, "k9", List.of(), "", Duration.ZERO, 60_000L).generateToken("user@example.com", "USER");
+        // issued before tokens had a key id
+        String withoutKeyId = Jwts.builder().subject("user@example.com")
+                .signWith(Keys.hmacShaKeyFor(NEW_SECRET.getBytes(StandardCharsets.UTF_8))).compact();
+
+        assertThatThrownBy(() -> jwtUtil.parseClaims(unknownKeyId)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.parseClaims(withoutKeyId).getSubject()).isEqualTo("user@example.com");
+    }
+
+    @Test
+    void sharedParser_verifiesConcurrently() throws Exception {
+        JwtUtil jwtUtil = new JwtUtil(OLD_SECRET, "k1", List.of(), "", Duration.ZERO, 60_000L);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<String>> tasks = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String username = "user" + i + "@example.com";
+                String token = jwtUtil.generateToken(username, "USER");
+                tasks.add(() -> jwtUtil.parseClaims(token).getSubject());
+            }
+            List<Future<String>> usernames = executor.invokeAll(tasks);
+            for (int i = 0; i < usernames.size(); i++) {
+                assertThat(usernames.get(i).get()).isEqualTo("user" + i + "@example.com");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void keysFile_changesAreUsedWithoutARestart(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("jwt-keys.properties");
+        writeKeys(file, "jwt.key-id=k1\njwt.secret=" + OLD_SECRET + "\n", 1);
+        JwtUtil jwtUtil = new JwtUtil("unused", "unused", List.of(), file.toString(), Duration.ZERO, 60_000L);
+        AtomicInteger changes = new AtomicInteger();
+        jwtUtil.onKeysChanged(changes::incrementAndGet);
+        String oldToken = jwtUtil.generateToken("user@example.com", "USER");
+
+        // the new key becomes current, the old one is still accepted
+        writeKeys(file, "jwt.key-id=k2\njwt.secret=" + NEW_SECRET + "\njwt.previous-keys=k1:" + OLD_SECRET + "\n", 2);
+        String newToken = jwtUtil.generateToken("user@example.com", "USER");
+        assertThat(jwtUtil.parseClaims(oldToken).getSubject()).isEqualTo("user@example.com");
+
+        // the old key is dropped
+        writeKeys(file, "jwt.key-id=k2\njwt.secret=" + NEW_SECRET + "\n", 3);
+        assertThatThrownBy(() -> jwtUtil.parseClaims(oldToken)).isInstanceOf(JwtException.class);
+        assertThat(jwtUtil.parseClaims(newToken).getSubject()).isEqualTo("user@example.com");
+        assertThat(changes).hasValue(2);
+    }
+
+    @Test
+    void keysFile_thatCantBeUsed_keepsTheCurrentKeys(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("jwt-keys.properties");
+        writeKeys(file, "jwt.key-id=k1\njwt.secret=" + OLD_SECRET + "\n", 1);
+        JwtUtil jwtUtil = new JwtUtil("unused", "unused", List.of(), file.toString(), Duration.ZERO, 60_000L);
+        String token = jwtUtil.generateToken("user@example.com", "USER");
+
+        writeKeys(file, "jwt.key-id=k2\n", 2);
+
+        assertThat(jwtUtil.parseClaims(token).getSubject()).isEqualTo("user@example.com");
+    }
+
+    // the file time moves on explicitly, two writes within the file system's time resolution would look unchanged
+    private static void writeKeys(Path file, String content, int version) throws Exception {
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(version * 1000L));
+    }
+}
@@ -0,0 +1,92 @@
+package be.vives.ti.backend.security;
+
+import be.vives.ti.backend.dto.LoginRequest;
+import be.vives.ti.backend.model.Role;
+import be.vives.ti.backend.model.User;
+import be.vives.ti.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A login that finds the hashing pool and its queue full is answered with a 503 and Retry-After instead of waiting
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"auth.hashing.threads=1", "auth.hashing.queue-capacity=1"})
+@ActiveProfiles("dev")
+public class LoginBulkheadIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHashingBulkhead bulkhead;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void cleanup() {
+        release.countDown();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void login_whenTheHashingPoolIsFull_returns503WithRetryAfter() throws Exception {
+        var user = new User();
+        user.setUserName("busy");
+        user.setEmail("busy@example.com");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+        var login = new LoginRequest("busy@example.com", "secret");
+
+        // occupy the only hashing thread and the only queue slot
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> bulkhead.call(() -> {
+            started.countDown();
+            return await();
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> bulkhead.call(this::await));
+        while (bulkhead.stats().queued() == 0) {
+            Thread.sleep(1);
+        }
+
+        ResponseEntity<String> busy = restTemplate.postForEntity("/api/auth/login", login, String.class);
+
+        assertThat(busy.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(busy.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        assertThat(restTemplate.postForEntity("/api/auth/login", login, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.OK);
+    }
+
+    private String await() {
+        try {
+            release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "hash";
+    }
+}
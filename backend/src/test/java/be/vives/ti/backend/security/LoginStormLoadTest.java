@@ -0,0 +1,113 @@
+package be.vives.ti.backend.security;
+
+import be.vives.ti.backend.dto.LoginRequest;
+import be.vives.ti.backend.model.Role;
+import be.vives.ti.backend.model.User;
+import be.vives.ti.backend.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A burst of logins is confined to the hashing pool: excess logins get a fast 503 and catalog reads keep their latency.
+// The latencies depend on the machine, they are published to the test report; LoginBulkheadIntegrationTest checks the
+// 503 itself
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"auth.hashing.threads=1", "auth.hashing.queue-capacity=4"})
+@ActiveProfiles("dev")
+public class LoginStormLoadTest {
+
+    private static final int CATALOG_REQUESTS = 200;
+    private static final int LOGIN_CLIENTS = 24;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @AfterEach
+    public void cleanup() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    public void catalogLatency_duringALoginStorm(TestReporter reporter) throws Exception {
+        var user = new User();
+        user.setUserName("storm");
+        user.setEmail("storm@example.com");
+        user.setPassword(passwordEncoder.encode("secret"));
+        user.setRole(Role.USER);
+        userRepository.save(user);
+
+        // warm up, then measure without logins
+        catalogLatencies(50);
+        long baselineP99 = p99(catalogLatencies(CATALOG_REQUESTS));
+
+        AtomicBoolean storming = new AtomicBoolean(true);
+        Set<HttpStatusCode> loginStatuses = ConcurrentHashMap.newKeySet();
+        ExecutorService logins = Executors.newFixedThreadPool(LOGIN_CLIENTS);
+        for (int i = 0; i < LOGIN_CLIENTS; i++) {
+            logins.submit(() -> {
+                while (storming.get()) {
+                    loginStatuses.add(restTemplate.postForEntity("/api/auth/login",
+                            new LoginRequest("storm@example.com", "secret"), String.class).getStatusCode());
+                }
+            });
+        }
+        long stormP99;
+        try {
+            Thread.sleep(200);
+            stormP99 = p99(catalogLatencies(CATALOG_REQUESTS));
+        } finally {
+            storming.set(false);
+            logins.shutdown();
+            logins.awaitTermination(30, TimeUnit.SECONDS);
+        }
+
+        reporter.publishEntry("catalog p99 without logins", baselineP99 + " ms");
+        reporter.publishEntry("catalog p99 during " + LOGIN_CLIENTS + " login clients", stormP99 + " ms");
+        reporter.publishEntry("login statuses", loginStatuses.toString());
+        assertThat(loginStatuses)
+                .allMatch(status -> status.equals(HttpStatus.OK) || status.equals(HttpStatus.SERVICE_UNAVAILABLE));
+    }
+
+    private List<Long> catalogLatencies(int requests) {
+        List<Long> latencies = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            long start = System.nanoTime();
+            assertThat(restTemplate.getForEntity("/api/crops", String.class).getStatusCode()).isEqualTo(HttpStatus.OK);
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+        return latencies;
+    }
+
+    private static long p99(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(sorted.size() * 0.99) - 1);
+    }
+}
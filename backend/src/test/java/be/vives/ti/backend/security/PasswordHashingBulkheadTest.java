@@ -0,0 +1,76 @@
+package be.vives.ti.backend.security;
+
+import be.vives.ti.backend.exceptions.ServiceBusyException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingBulkheadTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private PasswordHashingBulkhead bulkhead;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        bulkhead.shutdown();
+    }
+
+    @Test
+    void call_returnsTheResultAndRethrowsFailures() {
+        bulkhead = new PasswordHashingBulkhead(1, 1, Duration.ofSeconds(5));
+
+        assertThat(bulkhead.call(() -> "hash")).isEqualTo("hash");
+        assertThatThrownBy(() -> bulkhead.call(() -> {
+            throw new IllegalArgumentException("bad");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad");
+        assertThat(bulkhead.stats().completed()).isEqualTo(2);
+    }
+
+    @Test
+    void call_rejectsAtOnceWhenThePoolAndQueueAreFull() throws Exception {
+        bulkhead = new PasswordHashingBulkhead(1, 1, Duration.ofSeconds(5));
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture.runAsync(() -> bulkhead.call(() -> {
+            started.countDown();
+            return await();
+        }));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture.runAsync(() -> bulkhead.call(this::await));
+        while (bulkhead.stats().queued() == 0) {
+            Thread.sleep(1);
+        }
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> bulkhead.call(() -> "hash"))
+                .isInstanceOf(ServiceBusyException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+        assertThat(bulkhead.stats().rejected()).isEqualTo(1);
+        assertThat(bulkhead.stats().active()).isEqualTo(1);
+    }
+
+    @Test
+    void call_givesUpAfterTheTimeout() {
+        bulkhead = new PasswordHashingBulkhead(1, 1, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> bulkhead.call(this::await)).isInstanceOf(ServiceBusyException.class);
+        assertThat(bulkhead.stats().timedOut()).isEqualTo(1);
+    }
+
+    private String await() {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "hash";
+    }
+}
@@ -3,16 +3,25 @@ package be.vives.ti.backend.service;
 import be.vives.ti.backend.dto.request.CreateCropRequest;
 import be.vives.ti.backend.dto.request.UpdateCropRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
+import be.vives.ti.backend.dto.response.CursorPage;
 import be.vives.ti.backend.exceptions.CropException;
+import be.vives.ti.backend.exceptions.GardeningappException;
 import be.vives.ti.backend.mapper.CropMapper;
 import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.model.CropActivity;
+import be.vives.ti.backend.model.CropLocation;
 import be.vives.ti.backend.repository.CropRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -21,10 +30,12 @@ import org.springframework.data.domain.Pageable;
 import java.time.Month;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -37,6 +48,13 @@ class CropServiceTest {
     @Mock
     private CropMapper cropMapper;
 
+    @Mock
+    private CropSearchIndex cropSearchIndex;
+
+    @Spy
+    private JsonMergePatch jsonMergePatch = new JsonMergePatch(new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator());
+
     @InjectMocks
     private CropService cropService;
 
@@ -59,12 +77,12 @@ class CropServiceTest {
                 "Carrot",
                 null, null, null, null, null, null,
                 false, false, false, false,
-                null, null, null);
+                null, null, null, null);
         resp2 = new CropResponse(2,
                 "Potato",
                 null, null, null, null, null, null,
                 false, false, false, false,
-                null, null, null);
+                null, null, null, null);
     }
 
     @Test
@@ -116,9 +134,9 @@ class CropServiceTest {
     @Test
     void findByNameContaining_returnsMappedResponses() {
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Crop> page = new PageImpl<>(List.of(crop1));
 
-        when(cropRepository.findByNameContainingIgnoreCase("car", pageable)).thenReturn(page);
+        when(cropSearchIndex.search("car", pageable)).thenReturn(new PageImpl<>(List.of(1), pageable, 1));
+        when(cropRepository.findAllById(List.of(1))).thenReturn(List.of(crop1));
         when(cropMapper.toResponse(crop1)).thenReturn(resp1);
 
         Page<CropResponse> result = cropService.findByNameContaining("car", pageable);
@@ -127,10 +145,49 @@ class CropServiceTest {
         assertEquals(1, result.getTotalElements());
         assertThat(result.getContent()).containsExactly(resp1);
 
-        verify(cropRepository).findByNameContainingIgnoreCase("car", pageable);
+        verify(cropSearchIndex).search("car", pageable);
         verify(cropMapper).toResponse(crop1);
     }
 
+    @Test
+    void findByNameContaining_keepsTheOrderOfTheIndex() {
+        Pageable pageable = PageRequest.of(0, 5);
+
+        when(cropSearchIndex.search("o", pageable)).thenReturn(new PageImpl<>(List.of(2, 1), pageable, 2));
+        when(cropRepository.findAllById(List.of(2, 1))).thenReturn(List.of(crop1, crop2));
+        when(cropMapper.toResponse(crop1)).thenReturn(resp1);
+        when(cropMapper.toResponse(crop2)).thenReturn(resp2);
+
+        Page<CropResponse> result = cropService.findByNameContaining("o", pageable);
+
+        assertThat(result.getContent()).containsExactly(resp2, resp1);
+    }
+
+    @Test
+    void findByCalendar_onlySetsTheBitsOfTheRequestedActivityAndLocations() {
+        Pageable pageable = PageRequest.of(0, 5);
+        int march = 1 << 2;
+        int locations = CropLocation.POTS.bit() | CropLocation.GREENHOUSE.bit();
+
+        when(cropRepository.findByCalendar(0, 0, march, locations, pageable)).thenReturn(new PageImpl<>(List.of(crop1)));
+        when(cropMapper.toResponse(crop1)).thenReturn(resp1);
+
+        Page<CropResponse> result = cropService.findByCalendar(Month.MARCH, CropActivity.HARVEST,
+                List.of(CropLocation.POTS, CropLocation.GREENHOUSE), pageable);
+
+        assertThat(result.getContent()).containsExactly(resp1);
+    }
+
+    @Test
+    void findByCalendar_withoutActivity_matchesAnyActivity() {
+        Pageable pageable = PageRequest.of(0, 5);
+        int march = 1 << 2;
+
+        when(cropRepository.findByCalendar(march, march, march, 0, pageable)).thenReturn(Page.empty());
+
+        assertThat(cropService.findByCalendar(Month.MARCH, null, null, pageable)).isEmpty();
+    }
+
     @Test
     void create_success_returnsResponse() {
         CreateCropRequest req = new CreateCropRequest(
@@ -152,7 +209,7 @@ class CropServiceTest {
                 "Cucumber",
                 null, null, null, null, null, null,
                 false, false, false, false,
-                null, null, null);
+                null, null, null, null);
 
         when(cropRepository.findByNameIgnoreCase("Cucumber")).thenReturn(Optional.empty());
         when(cropMapper.toEntity(req)).thenReturn(toSave);
@@ -168,6 +225,7 @@ class CropServiceTest {
         verify(cropRepository).findByNameIgnoreCase("Cucumber");
         verify(cropMapper).toEntity(req);
         verify(cropRepository).save(toSave);
+        verify(cropSearchIndex).index(saved);
         verify(cropMapper).toResponse(saved);
     }
 
@@ -213,7 +271,7 @@ class CropServiceTest {
                 "NewName",
                 null, null, null, null, null, null,
                 false, false, false, false,
-                null, null, null);
+                null, null, null, null);
 
         when(cropRepository.findById(5)).thenReturn(Optional.of(existing));
         // cropMapper.updateEntity should be called; we don't need it to modify the object for the test
@@ -236,6 +294,7 @@ class CropServiceTest {
         verify(cropRepository).findById(5);
         verify(cropMapper).updateEntity(eq(req), eq(existing));
         verify(cropRepository).save(existing);
+        verify(cropSearchIndex).index(updated);
         verify(cropMapper).toResponse(updated);
     }
 
@@ -259,6 +318,54 @@ class CropServiceTest {
         verifyNoInteractions(cropMapper);
     }
 
+    @Test
+    void patch_changesOnlyThePatchedFields() throws Exception {
+        UpdateCropRequest current = new UpdateCropRequest("Carrot",
+                Month.MARCH, Month.MAY, null, null, Month.JULY, Month.OCTOBER,
+                false, true, true, false, "orange", "thin out", "carrot.png");
+        when(cropRepository.findById(1)).thenReturn(Optional.of(crop1));
+        when(cropMapper.toUpdateRequest(crop1)).thenReturn(current);
+        when(cropRepository.saveAndFlush(crop1)).thenReturn(crop1);
+        when(cropMapper.toResponse(crop1)).thenReturn(resp1);
+
+        Optional<CropResponse> result = cropService.patch(1,
+                new ObjectMapper().readTree("{\"sowingStart\": \"APRIL\", \"cropTips\": null}"), null);
+
+        assertThat(result).contains(resp1);
+        verify(cropMapper).updateEntity(new UpdateCropRequest("Carrot",
+                Month.APRIL, Month.MAY, null, null, Month.JULY, Month.OCTOBER,
+                false, true, true, false, "orange", null, "carrot.png"), crop1);
+        verify(cropSearchIndex).index(crop1);
+    }
+
+    @Test
+    void patch_staleVersion_throwsWithoutWriting() throws Exception {
+        when(cropRepository.findById(1)).thenReturn(Optional.of(crop1));
+
+        assertThatThrownBy(() -> cropService.patch(1, new ObjectMapper().readTree("{\"name\": \"Parsnip\"}"), Set.of(4L)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+        verify(cropRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(cropMapper);
+    }
+
+    @Test
+    void patch_invalidValue_throwsGardeningappException() throws Exception {
+        when(cropRepository.findById(1)).thenReturn(Optional.of(crop1));
+        when(cropMapper.toUpdateRequest(crop1)).thenReturn(new UpdateCropRequest("Carrot",
+                null, null, null, null, null, null, null, null, null, null, null, null, null));
+
+        assertThatThrownBy(() -> cropService.patch(1, new ObjectMapper().readTree("{\"sowingStart\": \"SPRING\"}"), null))
+                .isInstanceOf(GardeningappException.class);
+        verify(cropRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patch_notFound_returnsEmptyOptional() throws Exception {
+        when(cropRepository.findById(999)).thenReturn(Optional.empty());
+
+        assertTrue(cropService.patch(999, new ObjectMapper().readTree("{}"), null).isEmpty());
+    }
+
     @Test
     void delete_exists_returnsTrue_andDeletes() {
         when(cropRepository.existsById(3)).thenReturn(true);
@@ -268,6 +375,7 @@ class CropServiceTest {
         assertTrue(deleted);
         verify(cropRepository).existsById(3);
         verify(cropRepository).deleteById(3);
+        verify(cropSearchIndex).remove(3);
     }
 
     @Test
@@ -280,4 +388,41 @@ class CropServiceTest {
         verify(cropRepository).existsById(42);
         verify(cropRepository, never()).deleteById(anyInt());
     }
+
+    @Test
+    void findAllAfter_returnsCursorOfLastCropWhenThereIsANextSlice() {
+        Crop crop3 = new Crop();
+        crop3.setId(3);
+        crop3.setName("Radish");
+        when(cropRepository.findFirstByName(Limit.of(3))).thenReturn(List.of(crop1, crop2, crop3));
+        when(cropMapper.toResponse(crop1)).thenReturn(resp1);
+        when(cropMapper.toResponse(crop2)).thenReturn(resp2);
+
+        CursorPage<CropResponse> result = cropService.findAllAfter("", 2);
+
+        assertThat(result.content()).containsExactly(resp1, resp2);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(result.next())).isEqualTo(new KeysetCursor("Potato", 2));
+        verify(cropMapper, never()).toResponse(crop3);
+    }
+
+    @Test
+    void findAllAfter_decodesCursorAndStopsOnLastSlice() {
+        String after = new KeysetCursor("Carrot", 1).encode();
+        when(cropRepository.findNextByName("Carrot", 1, Limit.of(3))).thenReturn(List.of(crop2));
+        when(cropMapper.toResponse(crop2)).thenReturn(resp2);
+
+        CursorPage<CropResponse> result = cropService.findAllAfter(after, 2);
+
+        assertThat(result.content()).containsExactly(resp2);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.next()).isNull();
+    }
+
+    @Test
+    void findAllAfter_invalidCursor_throwsGardeningappException() {
+        assertThatThrownBy(() -> cropService.findAllAfter("not a cursor", 2))
+                .isInstanceOf(GardeningappException.class);
+        verifyNoInteractions(cropRepository);
+    }
 }
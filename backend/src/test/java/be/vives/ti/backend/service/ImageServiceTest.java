@@ -0,0 +1,137 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.exceptions.GardeningappException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImageServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private ImageService imageService;
+
+    @BeforeEach
+    void setUp() {
+        imageService = new ImageService(storageDir.toString(), List.of(160, 480), 40_000_000, 1, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageService.shutdown();
+    }
+
+    @Test
+    void store_keepsIdenticalContentOnce() throws Exception {
+        byte[] png = image(800, 600, "png");
+
+        ImageService.StoredImage first = imageService.store(new ByteArrayInputStream(png));
+        ImageService.StoredImage second = imageService.store(new ByteArrayInputStream(png));
+
+        assertThat(first.duplicate()).isFalse();
+        assertThat(second.duplicate()).isTrue();
+        assertThat(second.hash()).isEqualTo(first.hash()).hasSize(64);
+        assertThat(first.format()).isEqualTo(ImageFormat.PNG);
+        assertThat(first.size()).isEqualTo(png.length);
+        assertThat(imageService.findImage(first.hash(), "png")).get()
+                .satisfies(path -> assertThat(Files.readAllBytes(path)).isEqualTo(png));
+        // no temporary files left behind
+        try (Stream<Path> files = Files.list(storageDir)) {
+            assertThat(files.filter(Files::isRegularFile)).hasSize(1);
+        }
+    }
+
+    @Test
+    void store_typeComesFromTheContent() throws Exception {
+        ImageService.StoredImage jpeg = imageService.store(new ByteArrayInputStream(image(40, 30, "jpg")));
+
+        assertThat(jpeg.format()).isEqualTo(ImageFormat.JPEG);
+        assertThat(imageService.findImage(jpeg.hash(), "jpg")).isPresent();
+        assertThat(imageService.findImage(jpeg.hash(), "png")).isEmpty();
+        assertThatThrownBy(() -> imageService.store(new ByteArrayInputStream("<svg/>".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(GardeningappException.class)
+                .hasMessageContaining("JPEG, PNG and GIF");
+        assertThatThrownBy(() -> imageService.store(new ByteArrayInputStream(new byte[0])))
+                .isInstanceOf(GardeningappException.class);
+    }
+
+    @Test
+    void store_refusesImagesWithTooManyPixels() throws Exception {
+        ImageService small = new ImageService(storageDir.resolve("small").toString(), List.of(160), 10_000, 1, 10);
+        try {
+            assertThatThrownBy(() -> small.store(new ByteArrayInputStream(image(200, 100, "png"))))
+                    .isInstanceOf(GardeningappException.class)
+                    .hasMessageContaining("too large");
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void thumbnails_areWrittenInTheBackgroundAndNeverEnlarged() throws Exception {
+        ImageService.StoredImage large = imageService.store(new ByteArrayInputStream(image(2000, 1000, "png")));
+        ImageService.StoredImage small = imageService.store(new ByteArrayInputStream(image(300, 400, "jpg")));
+
+        Path thumbnail = storageDir.resolve("thumbnails/480/" + large.hash() + ".jpg");
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!Files.exists(thumbnail) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(dimensions(thumbnail)).containsExactly(480, 240);
+        assertThat(dimensions(imageService.findThumbnail(large.hash(), 160).orElseThrow())).containsExactly(160, 80);
+        assertThat(dimensions(imageService.findThumbnail(small.hash(), 480).orElseThrow())).containsExactly(300, 400);
+        assertThat(dimensions(imageService.findThumbnail(small.hash(), 160).orElseThrow())).containsExactly(120, 160);
+    }
+
+    @Test
+    void findThumbnail_createsMissingThumbnailsOnRequest() throws Exception {
+        ImageService.StoredImage image = imageService.store(new ByteArrayInputStream(image(1000, 1000, "png")));
+        imageService.shutdown();
+        // as if the background pool had never got to it
+        try (Stream<Path> thumbnails = Files.walk(storageDir.resolve("thumbnails"))) {
+            for (Path path : thumbnails.filter(Files::isRegularFile).toList()) {
+                Files.delete(path);
+            }
+        }
+
+        assertThat(dimensions(imageService.findThumbnail(image.hash(), 160).orElseThrow())).containsExactly(160, 160);
+        assertThat(imageService.findThumbnail(image.hash(), 100)).isEmpty();
+        assertThat(imageService.findThumbnail("0".repeat(64), 160)).isEmpty();
+        assertThat(imageService.findThumbnail("../" + image.hash(), 160)).isEmpty();
+    }
+
+    private static byte[] image(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+
+    private static List<Integer> dimensions(Path file) throws IOException {
+        BufferedImage image = ImageIO.read(file.toFile());
+        return List.of(image.getWidth(), image.getHeight());
+    }
+}
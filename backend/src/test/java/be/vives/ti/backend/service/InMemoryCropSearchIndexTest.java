@@ -0,0 +1,79 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.repository.CropName;
+import be.vives.ti.backend.repository.CropRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryCropSearchIndexTest {
+
+    @Mock
+    private CropRepository cropRepository;
+
+    @InjectMocks
+    private InMemoryCropSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(cropRepository.findAllNames()).thenReturn(List.of(
+                new CropName(1, "Sweet pea"),
+                new CropName(2, "Pea"),
+                new CropName(3, "Peanut"),
+                new CropName(4, "Carrot"),
+                new CropName(5, "Chickpea")));
+    }
+
+    @Test
+    void search_ranksExactThenPrefixThenContains() {
+        Page<Integer> result = index.search("PEA", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(2, 3, 5, 1);
+        assertThat(result.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void search_shortTermsAndMisses() {
+        assertThat(index.search("ca", PageRequest.of(0, 10)).getContent()).containsExactly(4);
+        assertThat(index.search("tomato", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void search_blankTerm_returnsEveryCropByName() {
+        assertThat(index.search(" ", PageRequest.of(0, 10)).getContent()).containsExactly(4, 5, 2, 3, 1);
+    }
+
+    @Test
+    void search_pagesTheRankedResult() {
+        Page<Integer> second = index.search("pea", PageRequest.of(1, 3));
+
+        assertThat(second.getContent()).containsExactly(1);
+        assertThat(second.getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    void indexAndRemove_keepTheLoadedIndexInSync() {
+        index.search("pea", PageRequest.of(0, 10));
+
+        Crop renamed = new Crop("Snow pea");
+        renamed.setId(4);
+        index.index(renamed);
+        index.remove(3);
+
+        assertThat(index.search("pea", PageRequest.of(0, 10)).getContent()).containsExactly(2, 5, 4, 1);
+        assertThat(index.search("carrot", PageRequest.of(0, 10)).getContent()).isEmpty();
+        verify(cropRepository, times(1)).findAllNames();
+    }
+}
@@ -0,0 +1,89 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.RecipeStep;
+import be.vives.ti.backend.repository.RecipeRepository;
+import be.vives.ti.backend.repository.RecipeText;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryRecipeSearchIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @InjectMocks
+    private InMemoryRecipeSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(recipeRepository.findNameTexts()).thenReturn(List.of(
+                new RecipeText(1, "Tomato soup"),
+                new RecipeText(2, "Pasta al pomodoro"),
+                new RecipeText(3, "Leek pie")));
+        lenient().when(recipeRepository.findIngredientTexts()).thenReturn(List.of(
+                new RecipeText(2, "Tomato"),
+                new RecipeText(2, "Basil"),
+                new RecipeText(3, "Leek")));
+        lenient().when(recipeRepository.findDescriptionTexts()).thenReturn(List.of(
+                new RecipeText(1, "A warm soup"),
+                new RecipeText(3, null)));
+        lenient().when(recipeRepository.findStepTexts()).thenReturn(List.of(
+                new RecipeText(3, "Serve with a tomato salad")));
+    }
+
+    @Test
+    void search_ranksNameMatchesBeforeIngredientAndTextMatches() {
+        Page<Integer> result = index.search("tomato", PageRequest.of(0, 10));
+
+        assertThat(result.getContent()).containsExactly(1, 2, 3);
+        assertThat(result.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void search_requiresEveryWordAndMatchesPrefixes() {
+        assertThat(index.search("Tom bas", PageRequest.of(0, 10)).getContent()).containsExactly(2);
+        assertThat(index.search("tomato cucumber", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    void search_pagesTheRankedResult() {
+        Page<Integer> second = index.search("tomato", PageRequest.of(1, 2));
+
+        assertThat(second.getContent()).containsExactly(3);
+        assertThat(second.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void search_blankQuery_returnsEmptyPageWithoutLoading() {
+        assertThat(index.search("  ", PageRequest.of(0, 10))).isEmpty();
+        verifyNoInteractions(recipeRepository);
+    }
+
+    @Test
+    void indexAndRemove_keepTheLoadedIndexInSync() {
+        index.search("tomato", PageRequest.of(0, 10));
+
+        Recipe recipe = new Recipe("Courgette bake", null, "Oven dish", "10m", "40m", null, null, null);
+        recipe.setId(1);
+        recipe.addStep(new RecipeStep(1, "Slice the courgette", recipe));
+        index.index(recipe);
+        index.remove(3);
+
+        assertThat(index.search("tomato", PageRequest.of(0, 10)).getContent()).containsExactly(2);
+        assertThat(index.search("courg", PageRequest.of(0, 10)).getContent()).containsExactly(1);
+        verify(recipeRepository, times(1)).findNameTexts();
+    }
+}
@@ -1,10 +1,8 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.response.MeasurementResponse;
-import be.vives.ti.backend.mapper.MeasurementMapper;
 import be.vives.ti.backend.model.IngredientMeasurement;
-import be.vives.ti.backend.repository.IngredientMeasurementRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,70 +11,58 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.List;
 
-import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class MeasurementServiceTest {
 
     @Mock
-    private IngredientMeasurementRepository measurementRepository;
-
-    @Mock
-    private MeasurementMapper measurementMapper;
+    private ReferenceDataRegistry referenceDataRegistry;
 
     @InjectMocks
     private MeasurementService measurementService;
 
-    @BeforeEach
-    void setUp() {
-        // Mockito will initialize mocks and inject them into measurementService
-    }
-
     @Test
-    void findAll_returnsMappedResponses() {
-        // Arrange
-        IngredientMeasurement m1 = new IngredientMeasurement("kg");
-        IngredientMeasurement m2 = new IngredientMeasurement("g");
-
-        MeasurementResponse r1 = new MeasurementResponse(1, "kg");
-        MeasurementResponse r2 = new MeasurementResponse(2, "g");
+    void findAll_returnsTheSnapshotList() {
+        // arrange
+        IngredientMeasurement first = new IngredientMeasurement("kg");
+        first.setId(1);
+        IngredientMeasurement second = new IngredientMeasurement("g");
+        second.setId(2);
+        when(referenceDataRegistry.measurements()).thenReturn(snapshotOf(first, second));
+
+        // act
+        List<MeasurementResponse> result = measurementService.findAll();
 
-        when(measurementRepository.findAll()).thenReturn(List.of(m1, m2));
+        // assert
+        assertThat(result).containsExactly(new MeasurementResponse(1, "kg"), new MeasurementResponse(2, "g"));
+    }
 
-        // Stub the mapper based on the incoming object's name so the test is robust
-        when(measurementMapper.toResponse(any(IngredientMeasurement.class))).thenAnswer(invocation -> {
-            IngredientMeasurement arg = invocation.getArgument(0);
-            if ("kg".equals(arg.getName())) return r1;
-            if ("g".equals(arg.getName())) return r2;
-            return null;
-        });
+    @Test
+    void findAll_returnsEmptyList_whenNoMeasurements() {
+        // arrange
+        when(referenceDataRegistry.measurements()).thenReturn(snapshotOf());
 
-        // Act
+        // act
         List<MeasurementResponse> result = measurementService.findAll();
 
-        // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        // order is not important for this service-level test, assert both responses are present
-        assertTrue(result.contains(r1), "Result should contain kg response");
-        assertTrue(result.contains(r2), "Result should contain g response");
-
-        verify(measurementRepository, times(1)).findAll();
-        verify(measurementMapper, times(2)).toResponse(any(IngredientMeasurement.class));
+        // assert
+        assertThat(result).isNotNull().isEmpty();
     }
 
     @Test
-    void findAll_whenRepositoryThrows_shouldPropagateException() {
-        // Arrange
-        when(measurementRepository.findAll()).thenThrow(new RuntimeException("boom"));
-
-        // Act & Assert
-        RuntimeException ex = assertThrows(RuntimeException.class, () -> measurementService.findAll());
-        assertEquals("boom", ex.getMessage());
+    void snapshot_returnsTheRegistrySnapshot() {
+        // arrange
+        ReferenceData<IngredientMeasurement, MeasurementResponse> snapshot = snapshotOf();
+        when(referenceDataRegistry.measurements()).thenReturn(snapshot);
+
+        // act + assert
+        assertThat(measurementService.snapshot()).isSameAs(snapshot);
+        verify(referenceDataRegistry, times(1)).measurements();
+    }
 
-        verify(measurementRepository, times(1)).findAll();
-        verifyNoInteractions(measurementMapper);
+    private static ReferenceData<IngredientMeasurement, MeasurementResponse> snapshotOf(IngredientMeasurement... rows) {
+        return ReferenceData.of(List.of(rows), row -> new MeasurementResponse(row.getId(), row.getName()), new ObjectMapper());
     }
 }
@@ -0,0 +1,70 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Writing recipe data through JPA moves the collection version in the database on, in the same transaction
+@DataJpaTest
+@Import(RecipeCollectionVersion.class)
+@DirtiesContext // the tests commit their data
+class RecipeCollectionVersionTest {
+
+    @Autowired
+    private RecipeCollectionVersion recipeCollectionVersion;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void changingAnIngredient_movesTheVersionOnOnceWhenCommitted() {
+        long before = Long.parseLong(recipeCollectionVersion.current());
+
+        Ingredient ingredient = entityManager.persistAndFlush(new Ingredient("Tomato"));
+        entityManager.persistAndFlush(new Ingredient("Basil"));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        long added = Long.parseLong(recipeCollectionVersion.current());
+
+        TestTransaction.start();
+        entityManager.find(Ingredient.class, ingredient.getId()).setName("Cherry tomato");
+        entityManager.flush();
+        TestTransaction.flagForRollback();
+        TestTransaction.end();
+
+        assertThat(added).isEqualTo(before + 1);
+        assertThat(recipeCollectionVersion.current()).isEqualTo(String.valueOf(added));
+    }
+
+    @Test
+    void deletingAnAuthor_movesTheVersionOnAndKeepsTheirRecipes() {
+        User author = new User();
+        author.setUserName("cook");
+        author.setEmail("cook@example.com");
+        author.setPassword("password123");
+        entityManager.persist(author);
+        Recipe recipe = entityManager.persist(new Recipe("Soup", author, null, null, null, null, null, null));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        String before = recipeCollectionVersion.current();
+
+        TestTransaction.start();
+        entityManager.remove(entityManager.find(User.class, author.getId()));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(recipeCollectionVersion.current()).isNotEqualTo(before);
+        TestTransaction.start();
+        assertThat(entityManager.find(Recipe.class, recipe.getId()).getAuthorId()).isNull();
+        TestTransaction.end();
+    }
+}
@@ -0,0 +1,82 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.request.RecipeMatchRequest.Mode;
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.Recipe;
+import be.vives.ti.backend.model.RecipeQuantity;
+import be.vives.ti.backend.repository.RecipeIngredientRef;
+import be.vives.ti.backend.repository.RecipeRepository;
+import be.vives.ti.backend.service.RecipeMatchIndex.RecipeMatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeMatchIndexTest {
+
+    @Mock
+    private RecipeRepository recipeRepository;
+
+    @InjectMocks
+    private RecipeMatchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        // recipe 1: tomato(10) + basil(11); recipe 2: tomato + pasta(12) + cheese(13); recipe 3: leek(14)
+        lenient().when(recipeRepository.findIngredientRefs()).thenReturn(List.of(
+                new RecipeIngredientRef(1, 10), new RecipeIngredientRef(1, 11),
+                new RecipeIngredientRef(2, 10), new RecipeIngredientRef(2, 12), new RecipeIngredientRef(2, 13),
+                new RecipeIngredientRef(3, 14)));
+    }
+
+    @Test
+    void ranked_ordersByFewestMissingIngredients() {
+        List<RecipeMatch> matches = index.match(Set.of(10, 11, 12), Mode.RANKED);
+
+        assertThat(matches).extracting(RecipeMatch::recipeId).containsExactly(1, 2);
+        assertThat(matches.get(0).missing()).isZero();
+        assertThat(matches.get(1).matched()).isEqualTo(2);
+        assertThat(matches.get(1).missingIngredientIds()).containsExactly(13);
+    }
+
+    @Test
+    void all_onlyReturnsRecipesThatNeedNothingElse() {
+        assertThat(index.match(Set.of(10, 11, 14), Mode.ALL))
+                .extracting(RecipeMatch::recipeId).containsExactly(1, 3);
+    }
+
+    @Test
+    void any_ordersByMostMatchedIngredients() {
+        assertThat(index.match(Set.of(10, 12, 13), Mode.ANY))
+                .extracting(RecipeMatch::recipeId).containsExactly(2, 1);
+        assertThat(index.match(Set.of(99), Mode.ANY)).isEmpty();
+    }
+
+    @Test
+    void indexAndRemove_updateTheLoadedPostings() {
+        index.match(Set.of(10), Mode.ANY);
+
+        Recipe recipe = new Recipe("Leek soup", null, "d", "5m", "30m", null, null, null);
+        recipe.setId(3);
+        Ingredient potato = new Ingredient("Potato");
+        potato.setId(15);
+        recipe.addQuantity(new RecipeQuantity(recipe, potato, null, BigDecimal.ONE));
+        index.index(recipe);
+        index.remove(1);
+
+        assertThat(index.match(Set.of(10, 11), Mode.ANY)).extracting(RecipeMatch::recipeId).containsExactly(2);
+        assertThat(index.match(Set.of(14), Mode.ANY)).isEmpty();
+        assertThat(index.match(Set.of(15), Mode.ALL)).extracting(RecipeMatch::recipeId).containsExactly(3);
+        verify(recipeRepository, times(1)).findIngredientRefs();
+    }
+}
@@ -0,0 +1,91 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CacheStatsResponse;
+import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeResponse.RecipeQuantityResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecipeResponseCacheTest {
+
+    private final RecipeResponseCache cache = new RecipeResponseCache(100, Duration.ofMinutes(10));
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_countsHitsAndMisses_andDoesNotCacheMissingRecipes() {
+        cache.get(1, () -> Optional.of(recipe(1, 10, 20, 30)));
+        cache.get(1, () -> Optional.of(recipe(1, 10, 20, 30)));
+        cache.get(2, Optional::empty);
+
+        CacheStatsResponse stats = cache.stats();
+        assertThat(stats.size()).isEqualTo(1);
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void evictByReference_onlyRemovesRecipesThatUseIt() {
+        cache.get(1, () -> Optional.of(recipe(1, 10, 20, 30)));
+        cache.get(2, () -> Optional.of(recipe(2, 11, 21, 31)));
+
+        cache.evictByIngredient(30);
+        cache.evictByCourse(11);
+
+        assertThat(cache.get(1, Optional::empty)).isEmpty();
+        assertThat(cache.get(2, Optional::empty)).isEmpty();
+        cache.get(3, () -> Optional.of(recipe(3, 12, 22, 32)));
+        cache.evictByCategory(99);
+        assertThat(cache.get(3, Optional::empty)).isPresent();
+    }
+
+    @Test
+    void evictByAuthor_onlyRemovesTheirRecipes() {
+        cache.get(1, () -> Optional.of(authoredRecipe(1, 7)));
+        cache.get(2, () -> Optional.of(authoredRecipe(2, 8)));
+
+        cache.evictByAuthor(7);
+
+        assertThat(cache.get(1, Optional::empty)).isEmpty();
+        assertThat(cache.get(2, Optional::empty)).isPresent();
+    }
+
+    @Test
+    void evict_insideTransaction_waitsForCompletion() {
+        cache.get(1, () -> Optional.of(recipe(1, 10, 20, 30)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict(1);
+        assertThat(cache.stats().size()).isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        assertThat(cache.get(1, Optional::empty)).isEmpty();
+    }
+
+    private RecipeResponse recipe(int id, int courseId, int categoryId, int ingredientId) {
+        RecipeQuantityResponse quantity = new RecipeQuantityResponse(id,
+                new RecipeQuantityResponse.IngredientResponse(ingredientId, "ingredient"),
+                new RecipeQuantityResponse.MeasurementResponse(1, "grams"), 1.0);
+        return new RecipeResponse(id, "recipe " + id, null, "d", "1m", "1m", null,
+                courseId, categoryId, List.of(quantity), List.of(), null);
+    }
+
+    private RecipeResponse authoredRecipe(int id, int authorId) {
+        return new RecipeResponse(id, "recipe " + id, authorId, "d", "1m", "1m", null,
+                1, 1, List.of(), List.of(), null);
+    }
+}
@@ -0,0 +1,225 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.request.CreateRecipeRequest;
+import be.vives.ti.backend.dto.request.UpdateRecipeRequest;
+import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.mapper.CategoryMapperImpl;
+import be.vives.ti.backend.mapper.CourseMapperImpl;
+import be.vives.ti.backend.mapper.MeasurementMapperImpl;
+import be.vives.ti.backend.mapper.RecipeMapperImpl;
+import be.vives.ti.backend.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Verifies that listing recipes costs the same number of statements whatever the page size (no N+1 in the mapper)
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({RecipeService.class, RecipeMapperImpl.class, RecipeResponseCache.class, RecipeCollectionVersion.class, InMemoryRecipeSearchIndex.class, RecipeMatchIndex.class,
+        JsonMergePatch.class, JacksonAutoConfiguration.class, ValidationAutoConfiguration.class,
+        ReferenceDataRegistry.class, CategoryMapperImpl.class, CourseMapperImpl.class, MeasurementMapperImpl.class})
+public class RecipeServiceQueryCountTest {
+
+    @Autowired
+    private RecipeService recipeService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    private Category category;
+    private Course course;
+
+    @BeforeEach
+    void setUp() {
+        category = entityManager.persist(new Category("dinner"));
+        course = entityManager.persist(new Course("Main"));
+        User author = new User("author", "author@example.com", Role.USER);
+        author.setPassword("secret");
+        entityManager.persist(author);
+        IngredientMeasurement grams = entityManager.persist(new IngredientMeasurement("grams"));
+
+        for (int i = 0; i < 30; i++) {
+            Crop crop = entityManager.persist(new Crop("Crop " + i));
+            Ingredient ingredient = entityManager.persist(new Ingredient("Ingredient " + i, crop));
+            Recipe recipe = new Recipe("Recipe " + i, author, "desc", "5m", "10m", null, course, category);
+            for (int q = 0; q < 3; q++) {
+                recipe.addQuantity(new RecipeQuantity(recipe, ingredient, grams, BigDecimal.ONE));
+            }
+            for (int s = 1; s <= 4; s++) {
+                recipe.addStep(new RecipeStep(s, "step " + s, recipe));
+            }
+            entityManager.persist(recipe);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // the test data is never committed, so load the reference data from this transaction
+        referenceDataRegistry.refresh();
+    }
+
+    @Test
+    void findAll_usesSameNumberOfStatementsForSmallAndLargePages() {
+        long small = countStatements(() -> recipeService.findAll(PageRequest.of(0, 2, Sort.by("recipeName"))));
+        long large = countStatements(() -> recipeService.findAll(PageRequest.of(0, 25, Sort.by("recipeName"))));
+
+        // ids, count, recipes with quantities, steps
+        assertThat(small).isEqualTo(4);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void findAll_mapsTheFullGraph() {
+        Page<RecipeResponse> page = recipeService.findAll(PageRequest.of(0, 25, Sort.by("id")));
+
+        assertThat(page.getTotalElements()).isEqualTo(30);
+        assertThat(page.getContent()).hasSize(25);
+        assertThat(page.getContent().get(0).recipeQuantities()).hasSize(3);
+        assertThat(page.getContent().get(0).recipeStepResponses()).hasSize(4);
+        assertThat(page.getContent().get(0).recipeQuantities().get(0).measurementResponse().name()).isEqualTo("grams");
+    }
+
+    @Test
+    void findByCatIdAndCourseId_useSameNumberOfStatementsForSmallAndLargePages() {
+        long smallCat = countStatements(() -> recipeService.findByCatId(category.getId(), PageRequest.of(0, 2)));
+        long largeCat = countStatements(() -> recipeService.findByCatId(category.getId(), PageRequest.of(0, 25)));
+        long smallCourse = countStatements(() -> recipeService.findByCourseId(course.getId(), PageRequest.of(0, 2)));
+        long largeCourse = countStatements(() -> recipeService.findByCourseId(course.getId(), PageRequest.of(0, 25)));
+
+        assertThat(largeCat).isEqualTo(smallCat);
+        assertThat(largeCourse).isEqualTo(smallCourse);
+    }
+
+    @Test
+    void createAll_sendsInsertsInBatches() {
+        IngredientMeasurement grams = entityManager.persist(new IngredientMeasurement("pinch"));
+        Ingredient salt = entityManager.persist(new Ingredient("Salt", null));
+        entityManager.flush();
+        referenceDataRegistry.refresh();
+        List<CreateRecipeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(new CreateRecipeRequest("Imported " + i, null, "desc", "5m", "10m", null,
+                    course.getId(), category.getId(),
+                    List.of(new CreateRecipeRequest.CreateQuantityRequest(salt.getId(), grams.getId(), BigDecimal.ONE),
+                            new CreateRecipeRequest.CreateQuantityRequest(salt.getId(), grams.getId(), BigDecimal.TEN),
+                            new CreateRecipeRequest.CreateQuantityRequest(salt.getId(), grams.getId(), BigDecimal.TWO)),
+                    List.of(new CreateRecipeRequest.CreateRecipeStepRequest(1, "mix"),
+                            new CreateRecipeRequest.CreateRecipeStepRequest(2, "bake"))));
+        }
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        List<Integer> ids = recipeService.createAll(requests);
+        entityManager.flush();
+
+        // 20 recipes, 60 quantities and 40 steps, written with a handful of statements instead of one per row
+        assertThat(ids).hasSize(20).doesNotHaveDuplicates();
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(20);
+    }
+
+    @Test
+    void update_singleStepEdit_touchesOnlyThatRow() {
+        RecipeResponse recipe = recipeService.findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0);
+        List<UpdateRecipeRequest.UpdateQuantityRequest> quantities = recipe.recipeQuantities().stream()
+                .map(q -> new UpdateRecipeRequest.UpdateQuantityRequest(q.id(), q.ingredientResponse().id(),
+                        q.measurementResponse().id(), BigDecimal.valueOf(q.quantity())))
+                .toList();
+        List<UpdateRecipeRequest.UpdateRecipeStepRequest> steps = recipe.recipeStepResponses().stream()
+                .map(step -> new UpdateRecipeRequest.UpdateRecipeStepRequest(step.id(), step.stepNumber(),
+                        step.stepNumber() == 2 ? "stir, don't shake" : step.description()))
+                .toList();
+        UpdateRecipeRequest request = new UpdateRecipeRequest(recipe.name(), recipe.description(), recipe.prepTime(),
+                recipe.cookTime(), recipe.imageURL(), recipe.courseId(), recipe.categoryId(), quantities, steps);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        recipeService.update(recipe.id(), request);
+        entityManager.flush();
+
+        // the step, and the recipe row for its version
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(2);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+    }
+
+    @Test
+    void update_addsAndRemovesOnlyTheChangedLines() {
+        RecipeResponse recipe = recipeService.findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0);
+        var first = recipe.recipeQuantities().get(0);
+        // keep one quantity line, drop the other two; keep steps 1 and 2 (matched by number), drop 3 and 4, add 5
+        UpdateRecipeRequest request = new UpdateRecipeRequest(recipe.name(), recipe.description(), recipe.prepTime(),
+                recipe.cookTime(), recipe.imageURL(), recipe.courseId(), recipe.categoryId(),
+                List.of(new UpdateRecipeRequest.UpdateQuantityRequest(first.id(), first.ingredientResponse().id(),
+                        first.measurementResponse().id(), BigDecimal.valueOf(first.quantity()))),
+                List.of(new UpdateRecipeRequest.UpdateRecipeStepRequest(null, 1, "step 1"),
+                        new UpdateRecipeRequest.UpdateRecipeStepRequest(null, 2, "step 2"),
+                        new UpdateRecipeRequest.UpdateRecipeStepRequest(null, 5, "serve")));
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        RecipeResponse updated = recipeService.update(recipe.id(), request).orElseThrow();
+        entityManager.flush();
+
+        // only the recipe row, for its version
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(1);
+        assertThat(statistics.getEntityDeleteCount()).isEqualTo(4);
+        assertThat(updated.recipeQuantities()).extracting(RecipeResponse.RecipeQuantityResponse::id).containsExactly(first.id());
+        assertThat(updated.recipeStepResponses()).extracting(RecipeResponse.RecipeStepResponse::stepNumber)
+                .containsExactlyInAnyOrder(1, 2, 5);
+    }
+
+    @Test
+    void patch_writesOnlyTheChangedColumnAndBumpsTheVersion() throws Exception {
+        RecipeResponse recipe = recipeService.findAll(PageRequest.of(0, 1, Sort.by("id"))).getContent().get(0);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        RecipeResponse patched = recipeService.patch(recipe.id(),
+                new ObjectMapper().readTree("{\"description\": \"patched\"}"), Set.of(recipe.version())).orElseThrow();
+
+        assertThat(statistics.getEntityUpdateCount()).isEqualTo(1);
+        assertThat(statistics.getEntityInsertCount()).isZero();
+        assertThat(statistics.getEntityDeleteCount()).isZero();
+        assertThat(patched.description()).isEqualTo("patched");
+        assertThat(patched.recipeStepResponses()).hasSize(4);
+        assertThat(patched.version()).isEqualTo(recipe.version() + 1);
+    }
+
+    private long countStatements(Supplier<Page<RecipeResponse>> call) {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+        call.get();
+        return statistics.getPrepareStatementCount();
+    }
+}
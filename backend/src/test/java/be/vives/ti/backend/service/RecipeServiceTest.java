@@ -1,31 +1,47 @@
 package be.vives.ti.backend.service;
 
 import be.vives.ti.backend.dto.request.CreateRecipeRequest;
+import be.vives.ti.backend.dto.request.RecipeMatchRequest;
 import be.vives.ti.backend.dto.request.UpdateRecipeRequest;
+import be.vives.ti.backend.dto.response.CategoryResponse;
+import be.vives.ti.backend.dto.response.CourseResponse;
+import be.vives.ti.backend.dto.response.CursorPage;
+import be.vives.ti.backend.dto.response.MeasurementResponse;
+import be.vives.ti.backend.dto.response.RecipeMatchResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.mapper.RecipeMapper;
 import be.vives.ti.backend.model.Category;
 import be.vives.ti.backend.model.Course;
+import be.vives.ti.backend.model.Ingredient;
+import be.vives.ti.backend.model.IngredientMeasurement;
 import be.vives.ti.backend.model.Recipe;
-import be.vives.ti.backend.repository.CategoryRepository;
-import be.vives.ti.backend.repository.CourseRepository;
-import be.vives.ti.backend.repository.IngredientMeasurementRepository;
 import be.vives.ti.backend.repository.IngredientRepository;
 import be.vives.ti.backend.repository.RecipeRepository;
 import be.vives.ti.backend.repository.UserRepository;
+import be.vives.ti.backend.dto.response.ErrorResponse;
+import be.vives.ti.backend.exceptions.GardeningappException;
+import be.vives.ti.backend.exceptions.InvalidReferenceException;
 import be.vives.ti.backend.exceptions.RecipeException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,19 +58,29 @@ public class RecipeServiceTest {
     private RecipeMapper recipeMapper;
 
     @Mock
-    private CourseRepository courseRepository;
+    private UserRepository userRepository;
 
     @Mock
-    private CategoryRepository categoryRepository;
+    private IngredientRepository ingredientRepository;
 
     @Mock
-    private UserRepository userRepository;
+    private ReferenceDataRegistry referenceDataRegistry;
 
     @Mock
-    private IngredientRepository ingredientRepository;
+    private RecipeSearchIndex recipeSearchIndex;
 
     @Mock
-    private IngredientMeasurementRepository measurementRepository;
+    private RecipeMatchIndex recipeMatchIndex;
+
+    @Spy
+    private RecipeResponseCache recipeResponseCache = new RecipeResponseCache(100, Duration.ofMinutes(10));
+
+    @Mock
+    private RecipeCollectionVersion recipeCollectionVersion;
+
+    @Spy
+    private JsonMergePatch jsonMergePatch = new JsonMergePatch(new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator());
 
     @InjectMocks
     private RecipeService recipeService;
@@ -65,12 +91,13 @@ public class RecipeServiceTest {
         Recipe r1 = new Recipe("R1", null, "desc1", "5m", "10m", null, new Course("C1"), new Category("Cat1"));
         Recipe r2 = new Recipe("R2", null, "desc2", "10m", "20m", null, new Course("C2"), new Category("Cat2"));
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Recipe> page = new PageImpl<>(List.of(r1, r2), pageable, 2);
+        Page<Integer> idPage = new PageImpl<>(List.of(1, 2), pageable, 2);
 
-        RecipeResponse resp1 = new RecipeResponse(1, "R1", null, "desc1", "5m", "10m", null, null, null, List.of(), List.of());
-        RecipeResponse resp2 = new RecipeResponse(2, "R2", null, "desc2", "10m", "20m", null, null, null, List.of(), List.of());
+        RecipeResponse resp1 = new RecipeResponse(1, "R1", null, "desc1", "5m", "10m", null, null, null, List.of(), List.of(), null);
+        RecipeResponse resp2 = new RecipeResponse(2, "R2", null, "desc2", "10m", "20m", null, null, null, List.of(), List.of(), null);
 
-        when(recipeRepository.findAll(pageable)).thenReturn(page);
+        when(recipeRepository.findAllIds(pageable)).thenReturn(idPage);
+        when(recipeRepository.findAllFetchedByIdIn(List.of(1, 2))).thenReturn(List.of(r1, r2));
         // Use argument-based Answer to avoid instance-equality matching issues
         when(recipeMapper.toResponse(any(Recipe.class))).thenAnswer(invocation -> {
             Recipe r = invocation.getArgument(0);
@@ -86,7 +113,8 @@ public class RecipeServiceTest {
         assertNotNull(result);
         assertEquals(2, result.getTotalElements());
         assertThat(result.getContent()).containsExactly(resp1, resp2);
-        verify(recipeRepository, times(1)).findAll(pageable);
+        verify(recipeRepository, times(1)).findAllIds(pageable);
+        verify(recipeRepository, times(1)).findAllFetchedByIdIn(List.of(1, 2));
         verify(recipeMapper, times(2)).toResponse(any(Recipe.class));
     }
 
@@ -96,10 +124,11 @@ public class RecipeServiceTest {
         int catId = 5;
         Recipe r = new Recipe("ByCat", null, "desc", "2m", "5m", null, new Course("C"), new Category("Cat"));
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Recipe> page = new PageImpl<>(List.of(r), pageable, 1);
-        RecipeResponse resp = new RecipeResponse(3, "ByCat", null, "desc", "2m", "5m", null, null, catId, List.of(), List.of());
+        Page<Integer> idPage = new PageImpl<>(List.of(3), pageable, 1);
+        RecipeResponse resp = new RecipeResponse(3, "ByCat", null, "desc", "2m", "5m", null, null, catId, List.of(), List.of(), null);
 
-        when(recipeRepository.findByCategory_Id(catId, pageable)).thenReturn(page);
+        when(recipeRepository.findIdsByCategoryId(catId, pageable)).thenReturn(idPage);
+        when(recipeRepository.findAllFetchedByIdIn(List.of(3))).thenReturn(List.of(r));
         when(recipeMapper.toResponse(any(Recipe.class))).thenReturn(resp);
 
         // Act
@@ -109,7 +138,7 @@ public class RecipeServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertThat(result.getContent()).containsExactly(resp);
-        verify(recipeRepository, times(1)).findByCategory_Id(catId, pageable);
+        verify(recipeRepository, times(1)).findIdsByCategoryId(catId, pageable);
         verify(recipeMapper, times(1)).toResponse(any(Recipe.class));
     }
 
@@ -119,10 +148,11 @@ public class RecipeServiceTest {
         int ingredientId = 7;
         Recipe r = new Recipe("ByIng", null, "descIng", "3m", "6m", null, new Course("C"), new Category("Cat"));
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Recipe> page = new PageImpl<>(List.of(r), pageable, 1);
-        RecipeResponse resp = new RecipeResponse(5, "ByIng", null, "descIng", "3m", "6m", null, null, null, List.of(), List.of());
+        Page<Integer> idPage = new PageImpl<>(List.of(5), pageable, 1);
+        RecipeResponse resp = new RecipeResponse(5, "ByIng", null, "descIng", "3m", "6m", null, null, null, List.of(), List.of(), null);
 
-        when(recipeRepository.findByIngredientID(ingredientId, pageable)).thenReturn(page);
+        when(recipeRepository.findIdsByIngredientId(ingredientId, pageable)).thenReturn(idPage);
+        when(recipeRepository.findAllFetchedByIdIn(List.of(5))).thenReturn(List.of(r));
         when(recipeMapper.toResponse(any(Recipe.class))).thenReturn(resp);
 
         // Act
@@ -132,7 +162,7 @@ public class RecipeServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertThat(result.getContent()).containsExactly(resp);
-        verify(recipeRepository, times(1)).findByIngredientID(ingredientId, pageable);
+        verify(recipeRepository, times(1)).findIdsByIngredientId(ingredientId, pageable);
         verify(recipeMapper, times(1)).toResponse(any(Recipe.class));
     }
 
@@ -155,12 +185,16 @@ public class RecipeServiceTest {
         Recipe entity = new Recipe();
         Recipe saved = new Recipe();
 
-        RecipeResponse expectedResponse = new RecipeResponse(11, "Pancake", null, "Tasty", "5m", "10m", "http://img", 1, 2, List.of(), List.of());
+        RecipeResponse expectedResponse = new RecipeResponse(11, "Pancake", null, "Tasty", "5m", "10m", "http://img", 1, 2, List.of(), List.of(), null);
 
         when(recipeRepository.findByRecipeName("Pancake")).thenReturn(Optional.empty());
         when(recipeMapper.toEntity(request)).thenReturn(entity);
-        when(courseRepository.findById(1)).thenReturn(Optional.of(new Course("Breakfast")));
-        when(categoryRepository.findById(2)).thenReturn(Optional.of(new Category("Dessert")));
+        Course breakfast = new Course("Breakfast");
+        breakfast.setId(1);
+        Category dessert = new Category("Dessert");
+        dessert.setId(2);
+        when(referenceDataRegistry.courses()).thenReturn(courses(breakfast));
+        when(referenceDataRegistry.categories()).thenReturn(categories(dessert));
         when(recipeRepository.save(entity)).thenReturn(saved);
         when(recipeMapper.toResponse(saved)).thenReturn(expectedResponse);
 
@@ -199,16 +233,91 @@ public class RecipeServiceTest {
         verifyNoMoreInteractions(recipeRepository);
     }
 
+    @Test
+    void createAll_whenANameIsTakenOrRepeated_savesNothing() {
+        CreateRecipeRequest soup = new CreateRecipeRequest("Soup", null, "desc", "5m", "5m", null, 1, 1,
+                List.of(new CreateRecipeRequest.CreateQuantityRequest(1, 1, java.math.BigDecimal.ONE)),
+                List.of(new CreateRecipeRequest.CreateRecipeStepRequest(1, "cook")));
+        CreateRecipeRequest pie = new CreateRecipeRequest("Pie", null, "desc", "5m", "5m", null, 1, 1,
+                soup.quantities(), soup.steps());
+        when(recipeRepository.findRecipeNamesIn(List.of("Soup", "Pie", "Pie"))).thenReturn(List.of("Soup"));
+
+        GardeningappException ex = assertThrows(GardeningappException.class,
+                () -> recipeService.createAll(List.of(soup, pie, pie)));
+
+        assertThat(ex.getMessage()).contains("Soup", "Pie");
+        verify(recipeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void createAll_loadsEveryReferenceOnceAndRejectsUnknownIds() {
+        CreateRecipeRequest soup = new CreateRecipeRequest("Soup", null, "desc", "5m", "5m", null, 1, 1,
+                List.of(new CreateRecipeRequest.CreateQuantityRequest(7, 1, java.math.BigDecimal.ONE)),
+                List.of(new CreateRecipeRequest.CreateRecipeStepRequest(1, "cook")));
+        CreateRecipeRequest stew = new CreateRecipeRequest("Stew", null, "desc", "5m", "5m", null, 2, 1,
+                soup.quantities(), soup.steps());
+        Course starter = new Course("Starter");
+        starter.setId(1);
+        Category soups = new Category("Soups");
+        soups.setId(1);
+        when(recipeRepository.findRecipeNamesIn(any())).thenReturn(List.of());
+        when(referenceDataRegistry.courses()).thenReturn(courses(starter));
+        when(referenceDataRegistry.categories()).thenReturn(categories(soups));
+        Ingredient leek = new Ingredient("Leek", null);
+        leek.setId(7);
+        IngredientMeasurement grams = new IngredientMeasurement("grams");
+        grams.setId(1);
+        when(ingredientRepository.findAllById(Set.of(7))).thenReturn(List.of(leek));
+        when(referenceDataRegistry.measurements()).thenReturn(measurements(grams));
+
+        GardeningappException ex = assertThrows(GardeningappException.class,
+                () -> recipeService.createAll(List.of(soup, stew)));
+
+        assertThat(ex).isInstanceOf(InvalidReferenceException.class);
+        assertThat(((InvalidReferenceException) ex).getValidationErrors()).containsExactly(
+                new ErrorResponse.ValidationError("recipes[1].courseId", "Course 2 does not exist"));
+        verify(referenceDataRegistry).courses();
+        verify(recipeRepository, never()).saveAll(any());
+    }
+
+    @Test
+    void create_reportsEveryMissingReferenceAtOnce() {
+        CreateRecipeRequest request = new CreateRecipeRequest("Soup", null, "desc", "5m", "5m", null, 1, 3,
+                List.of(new CreateRecipeRequest.CreateQuantityRequest(7, 1, java.math.BigDecimal.ONE),
+                        new CreateRecipeRequest.CreateQuantityRequest(8, 1, java.math.BigDecimal.ONE),
+                        new CreateRecipeRequest.CreateQuantityRequest(9, 1, java.math.BigDecimal.ONE)),
+                List.of(new CreateRecipeRequest.CreateRecipeStepRequest(1, "cook")));
+        Course starter = new Course("Starter");
+        starter.setId(1);
+        Ingredient leek = new Ingredient("Leek", null);
+        leek.setId(8);
+        IngredientMeasurement grams = new IngredientMeasurement("grams");
+        grams.setId(1);
+        when(recipeRepository.findByRecipeName("Soup")).thenReturn(Optional.empty());
+        when(referenceDataRegistry.courses()).thenReturn(courses(starter));
+        when(referenceDataRegistry.categories()).thenReturn(categories());
+        when(ingredientRepository.findAllById(Set.of(7, 8, 9))).thenReturn(List.of(leek));
+        when(referenceDataRegistry.measurements()).thenReturn(measurements(grams));
+
+        InvalidReferenceException ex = assertThrows(InvalidReferenceException.class, () -> recipeService.create(request));
+
+        assertThat(ex.getValidationErrors()).extracting(ErrorResponse.ValidationError::field)
+                .containsExactly("categoryId", "quantities[0].ingredientId", "quantities[2].ingredientId");
+        verify(ingredientRepository, never()).findById(anyInt());
+        verify(recipeRepository, never()).save(any());
+    }
+
     @Test
     void findByCourseId_returnsMappedResponses() {
         // Arrange
         int courseId = 9;
         Recipe r = new Recipe("ByCourse", null, "descCourse", "4m", "8m", null, new Course("Dinner"), new Category("Cat"));
         Pageable pageable = PageRequest.of(0, 5);
-        Page<Recipe> page = new PageImpl<>(List.of(r), pageable, 1);
-        RecipeResponse resp = new RecipeResponse(6, "ByCourse", null, "descCourse", "4m", "8m", null, courseId, null, List.of(), List.of());
+        Page<Integer> idPage = new PageImpl<>(List.of(6), pageable, 1);
+        RecipeResponse resp = new RecipeResponse(6, "ByCourse", null, "descCourse", "4m", "8m", null, courseId, null, List.of(), List.of(), null);
 
-        when(recipeRepository.findByCourse_Id(courseId, pageable)).thenReturn(page);
+        when(recipeRepository.findIdsByCourseId(courseId, pageable)).thenReturn(idPage);
+        when(recipeRepository.findAllFetchedByIdIn(List.of(6))).thenReturn(List.of(r));
         when(recipeMapper.toResponse(any(Recipe.class))).thenReturn(resp);
 
         // Act
@@ -218,7 +327,7 @@ public class RecipeServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
         assertThat(result.getContent()).containsExactly(resp);
-        verify(recipeRepository, times(1)).findByCourse_Id(courseId, pageable);
+        verify(recipeRepository, times(1)).findIdsByCourseId(courseId, pageable);
         verify(recipeMapper, times(1)).toResponse(any(Recipe.class));
     }
 
@@ -227,9 +336,9 @@ public class RecipeServiceTest {
         // Arrange
         int courseId = 12345; // non-existing course
         Pageable pageable = PageRequest.of(0, 10);
-        Page<Recipe> emptyPage = new PageImpl<>(List.of(), pageable, 0);
+        Page<Integer> emptyPage = new PageImpl<>(List.of(), pageable, 0);
 
-        when(recipeRepository.findByCourse_Id(courseId, pageable)).thenReturn(emptyPage);
+        when(recipeRepository.findIdsByCourseId(courseId, pageable)).thenReturn(emptyPage);
 
         // Act
         Page<RecipeResponse> result = recipeService.findByCourseId(courseId, pageable);
@@ -238,7 +347,7 @@ public class RecipeServiceTest {
         assertNotNull(result);
         assertEquals(0, result.getTotalElements());
         assertThat(result.getContent()).isEmpty();
-        verify(recipeRepository, times(1)).findByCourse_Id(courseId, pageable);
+        verify(recipeRepository, times(1)).findIdsByCourseId(courseId, pageable);
         verify(recipeMapper, never()).toResponse(any(Recipe.class));
     }
 
@@ -249,10 +358,10 @@ public class RecipeServiceTest {
         Recipe existing = new Recipe("Old", null, "old", "1m", "1m", null, new Course("C"), new Category("Cat"));
         UpdateRecipeRequest updateReq = new UpdateRecipeRequest("New", "newdesc", "2m", "3m", "img", null, null, List.of(), List.of());
         Recipe saved = new Recipe();
-        RecipeResponse mapped = new RecipeResponse(7, "New", null, "newdesc", "2m", "3m", "img", null, null, List.of(), List.of());
+        RecipeResponse mapped = new RecipeResponse(7, "New", null, "newdesc", "2m", "3m", "img", null, null, List.of(), List.of(), null);
 
         when(recipeRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(recipeRepository.save(existing)).thenReturn(saved);
+        when(recipeRepository.saveAndFlush(existing)).thenReturn(saved);
         when(recipeMapper.toResponse(saved)).thenReturn(mapped);
 
         // Act
@@ -262,10 +371,60 @@ public class RecipeServiceTest {
         assertTrue(result.isPresent());
         assertEquals(mapped, result.get());
         verify(recipeRepository).findById(id);
-        verify(recipeRepository).save(existing);
+        verify(recipeRepository).saveAndFlush(existing);
         verify(recipeMapper).toResponse(saved);
     }
 
+    @Test
+    void patch_mergesIntoCurrentStateAndKeepsOtherFields() throws Exception {
+        // Arrange
+        int id = 7;
+        Recipe existing = new Recipe("Old", null, "old", "1m", "1m", null, null, null);
+        UpdateRecipeRequest current = new UpdateRecipeRequest("Old", "old", "1m", "1m", "img", null, null, List.of(),
+                List.of(new UpdateRecipeRequest.UpdateRecipeStepRequest(3, 1, "mix")));
+        RecipeResponse mapped = new RecipeResponse(7, "New", null, "old", "1m", "1m", null, null, null, List.of(), List.of(), 1L);
+
+        when(recipeRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(recipeMapper.toUpdateRequest(existing)).thenReturn(current);
+        when(recipeRepository.saveAndFlush(existing)).thenReturn(existing);
+        when(recipeMapper.toResponse(existing)).thenReturn(mapped);
+
+        // Act
+        Optional<RecipeResponse> result = recipeService.patch(id,
+                new ObjectMapper().readTree("{\"name\": \"New\", \"imageURL\": null}"), null);
+
+        // Assert
+        assertThat(result).contains(mapped);
+        verify(recipeMapper).updateEntity(new UpdateRecipeRequest("New", "old", "1m", "1m", null, null, null, List.of(),
+                List.of(new UpdateRecipeRequest.UpdateRecipeStepRequest(3, 1, "mix"))), existing);
+    }
+
+    @Test
+    void patch_staleVersion_throwsWithoutWriting() throws Exception {
+        // Arrange
+        Recipe existing = new Recipe("Old", null, "old", "1m", "1m", null, null, null);
+        when(recipeRepository.findById(7)).thenReturn(Optional.of(existing));
+
+        // Act + Assert: the recipe was never saved, so it is at version null and 3 is stale
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> recipeService.patch(7, new ObjectMapper().readTree("{\"name\": \"New\"}"), Set.of(3L)));
+        verify(recipeRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void patch_invalidQuantity_throwsConstraintViolation() throws Exception {
+        // Arrange
+        Recipe existing = new Recipe("Old", null, "old", "1m", "1m", null, null, null);
+        when(recipeRepository.findById(7)).thenReturn(Optional.of(existing));
+        when(recipeMapper.toUpdateRequest(existing)).thenReturn(
+                new UpdateRecipeRequest("Old", "old", "1m", "1m", null, null, null, List.of(), List.of()));
+
+        // Act + Assert
+        assertThrows(ConstraintViolationException.class, () -> recipeService.patch(7, new ObjectMapper().readTree(
+                "{\"quantities\": [{\"ingredientId\": 1, \"measurementId\": 1, \"quantity\": -1}]}"), null));
+        verify(recipeRepository, never()).saveAndFlush(any());
+    }
+
     @Test
     void update_notFound_returnsEmpty() {
         // Arrange
@@ -299,7 +458,7 @@ public class RecipeServiceTest {
     void findById_found_and_notFound() {
         // Arrange
         Recipe r = new Recipe("X", null, "d", "1m", "1m", null, new Course("C"), new Category("Cat"));
-        RecipeResponse resp = new RecipeResponse(42, "X", null, "d", "1m", "1m", null, null, null, List.of(), List.of());
+        RecipeResponse resp = new RecipeResponse(42, "X", null, "d", "1m", "1m", null, null, null, List.of(), List.of(), null);
         when(recipeRepository.findById(42)).thenReturn(Optional.of(r));
         when(recipeMapper.toResponse(r)).thenReturn(resp);
 
@@ -311,4 +470,95 @@ public class RecipeServiceTest {
         when(recipeRepository.findById(99)).thenReturn(Optional.empty());
         assertTrue(recipeService.findById(99).isEmpty());
     }
+
+    @Test
+    void findById_secondCallIsServedFromCacheUntilDeleted() {
+        Recipe r = new Recipe("X", null, "d", "1m", "1m", null, new Course("C"), new Category("Cat"));
+        RecipeResponse resp = new RecipeResponse(42, "X", null, "d", "1m", "1m", null, null, null, List.of(), List.of(), null);
+        when(recipeRepository.findById(42)).thenReturn(Optional.of(r));
+        when(recipeMapper.toResponse(r)).thenReturn(resp);
+        when(recipeRepository.existsById(42)).thenReturn(true);
+
+        assertEquals(resp, recipeService.findById(42).orElseThrow());
+        assertEquals(resp, recipeService.findById(42).orElseThrow());
+        verify(recipeRepository, times(1)).findById(42);
+
+        recipeService.delete(42);
+        recipeService.findById(42);
+        verify(recipeRepository, times(2)).findById(42);
+        verify(recipeResponseCache).evict(42);
+    }
+
+    @Test
+    void search_returnsSummariesInIndexOrder() {
+        Pageable pageable = PageRequest.of(0, 10);
+        RecipeSummaryResponse first = new RecipeSummaryResponse(7, "Tomato soup", null, "5m", "20m", 1, 1, null);
+        RecipeSummaryResponse second = new RecipeSummaryResponse(3, "Pasta", null, "5m", "10m", 1, 1, null);
+        when(recipeSearchIndex.search("tomato", pageable)).thenReturn(new PageImpl<>(List.of(7, 3), pageable, 2));
+        when(recipeRepository.findSummariesByIdIn(List.of(7, 3))).thenReturn(List.of(second, first));
+
+        Page<RecipeSummaryResponse> result = recipeService.search("tomato", pageable);
+
+        assertThat(result.getContent()).containsExactly(first, second);
+        assertThat(result.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void findAllSummariesAfter_returnsSummariesInKeysetOrderWithTheNextCursor() {
+        RecipeSummaryResponse pasta = new RecipeSummaryResponse(3, "Pasta", null, "5m", "10m", 1, 1, null);
+        RecipeSummaryResponse soup = new RecipeSummaryResponse(7, "Tomato soup", null, "5m", "20m", 1, 1, null);
+        when(recipeRepository.findFirstIdsByName(any())).thenReturn(List.of(3, 7, 9));
+        when(recipeRepository.findSummariesByIdIn(List.of(3, 7))).thenReturn(List.of(soup, pasta));
+
+        CursorPage<RecipeSummaryResponse> result = recipeService.findAllSummariesAfter("", 2);
+
+        assertThat(result.content()).containsExactly(pasta, soup);
+        assertThat(result.hasNext()).isTrue();
+        assertThat(KeysetCursor.decode(result.next())).isEqualTo(new KeysetCursor("Tomato soup", 7));
+        verify(recipeRepository, never()).findAllFetchedByIdIn(any());
+    }
+
+    @Test
+    void delete_removesRecipeFromSearchIndex() {
+        when(recipeRepository.existsById(5)).thenReturn(true);
+
+        recipeService.delete(5);
+
+        verify(recipeSearchIndex).remove(5);
+    }
+
+    @Test
+    void match_addsCropIngredientsAndReturnsRequestedPage() {
+        Pageable pageable = PageRequest.of(0, 1);
+        RecipeSummaryResponse soup = new RecipeSummaryResponse(7, "Tomato soup", null, "5m", "20m", 1, 1, null);
+        when(ingredientRepository.findIdsByCropIdIn(List.of(3))).thenReturn(List.of(10));
+        when(recipeMatchIndex.match(Set.of(10, 11), RecipeMatchRequest.Mode.RANKED)).thenReturn(List.of(
+                new RecipeMatchIndex.RecipeMatch(7, 2, List.of()),
+                new RecipeMatchIndex.RecipeMatch(8, 1, List.of(12))));
+        when(recipeRepository.findSummariesByIdIn(List.of(7))).thenReturn(List.of(soup));
+
+        Page<RecipeMatchResponse> result = recipeService.match(new RecipeMatchRequest(List.of(11), List.of(3), null), pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).containsExactly(new RecipeMatchResponse(soup, 2, 0, List.of()));
+    }
+
+    @Test
+    void match_withoutIngredientsOrCrops_throwsGardeningappException() {
+        assertThrows(GardeningappException.class,
+                () -> recipeService.match(new RecipeMatchRequest(List.of(), null, RecipeMatchRequest.Mode.ANY), PageRequest.of(0, 10)));
+        verifyNoInteractions(recipeMatchIndex);
+    }
+
+    private static ReferenceData<Course, CourseResponse> courses(Course... rows) {
+        return ReferenceData.of(List.of(rows), row -> new CourseResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
+
+    private static ReferenceData<Category, CategoryResponse> categories(Category... rows) {
+        return ReferenceData.of(List.of(rows), row -> new CategoryResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
+
+    private static ReferenceData<IngredientMeasurement, MeasurementResponse> measurements(IngredientMeasurement... rows) {
+        return ReferenceData.of(List.of(rows), row -> new MeasurementResponse(row.getId(), row.getName()), new ObjectMapper());
+    }
 }
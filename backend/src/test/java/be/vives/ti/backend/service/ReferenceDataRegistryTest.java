@@ -0,0 +1,82 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CategoryResponse;
+import be.vives.ti.backend.mapper.CategoryMapperImpl;
+import be.vives.ti.backend.mapper.CourseMapperImpl;
+import be.vives.ti.backend.mapper.MeasurementMapperImpl;
+import be.vives.ti.backend.model.Category;
+import be.vives.ti.backend.model.Course;
+import be.vives.ti.backend.model.IngredientMeasurement;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reference data is served from memory and rebuilt only after a committed change
+@DataJpaTest
+@Import({ReferenceDataRegistry.class, CategoryMapperImpl.class, CourseMapperImpl.class, MeasurementMapperImpl.class,
+        JacksonAutoConfiguration.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // the tests commit their data
+class ReferenceDataRegistryTest {
+
+    @Autowired
+    private ReferenceDataRegistry referenceDataRegistry;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void snapshots_holdTheRowsAsResponsesJsonAndLookups() {
+        Category fruit = entityManager.persist(new Category("Fruit"));
+        Course main = entityManager.persist(new Course("Main"));
+        IngredientMeasurement grams = entityManager.persist(new IngredientMeasurement("grams"));
+        entityManager.flush();
+        referenceDataRegistry.refresh();
+
+        ReferenceData<Category, CategoryResponse> categories = referenceDataRegistry.categories();
+
+        assertThat(categories.list()).containsExactly(new CategoryResponse(fruit.getId(), "Fruit"));
+        assertThat(new String(categories.json(), StandardCharsets.UTF_8)).contains("\"Fruit\"");
+        assertThat(categories.etag()).startsWith("\"").endsWith("\"");
+        assertThat(referenceDataRegistry.courses().findAllById(List.of(main.getId(), main.getId() + 100)))
+                .extracting(Course::getName).containsExactly("Main");
+        assertThat(referenceDataRegistry.measurements().size()).isEqualTo(1);
+        assertThat(referenceDataRegistry.measurements().findAllById(List.of(grams.getId()))).hasSize(1);
+    }
+
+    @Test
+    void change_isPickedUpOnlyAfterCommit() {
+        entityManager.persist(new Category("Fruit"));
+        entityManager.flush();
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        ReferenceData<Category, CategoryResponse> before = referenceDataRegistry.categories();
+
+        TestTransaction.start();
+        entityManager.persist(new Category("Nuts"));
+        entityManager.flush();
+        // not committed yet, readers keep the snapshot they had
+        assertThat(referenceDataRegistry.categories()).isSameAs(before);
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+        ReferenceData<Category, CategoryResponse> after = referenceDataRegistry.categories();
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.list()).extracting(CategoryResponse::name).contains("Fruit", "Nuts");
+        assertThat(after.etag()).isNotEqualTo(before.etag());
+        // the previous snapshot is never modified
+        assertThat(before.list()).extracting(CategoryResponse::name).contains("Fruit").doesNotContain("Nuts");
+        // nothing changed since, so the same snapshot is served again
+        assertThat(referenceDataRegistry.categories()).isSameAs(after);
+    }
+}
@@ -0,0 +1,115 @@
+package be.vives.ti.backend.service;
+
+import be.vives.ti.backend.dto.response.CropSummaryResponse;
+import be.vives.ti.backend.exceptions.ResourceNotFoundException;
+import be.vives.ti.backend.mapper.CropMapperImpl;
+import be.vives.ti.backend.mapper.RecipeMapperImpl;
+import be.vives.ti.backend.mapper.UserMapperImpl;
+import be.vives.ti.backend.model.Crop;
+import be.vives.ti.backend.model.Role;
+import be.vives.ti.backend.model.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Favorites never load the user's collection: toggling costs the same statements with 1 or 500 favorites,
+// and listing them selects summaries or ids straight from the join table
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({UserService.class, UserMapperImpl.class, CropMapperImpl.class, RecipeMapperImpl.class})
+public class UserServiceFavoritesQueryCountTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void toggle_usesSameNumberOfStatementsForSmallAndLargeFavoriteSets() {
+        long small = toggleCost(1);
+        long large = toggleCost(500);
+
+        // one insert and one delete, nothing loaded
+        assertThat(small).isEqualTo(2);
+        assertThat(large).isEqualTo(small);
+    }
+
+    @Test
+    void add_isIdempotent() {
+        User user = userWithFavorites(3);
+        Crop crop = entityManager.persist(new Crop("Extra"));
+        entityManager.flush();
+
+        userService.addFavoriteCrop(user.getId(), crop.getId());
+        userService.addFavoriteCrop(user.getId(), crop.getId());
+        entityManager.clear();
+
+        assertThat(userService.findFavoriteCrops(user.getId())).hasSize(4);
+    }
+
+    @Test
+    void add_unknownCrop_throwsNotFound() {
+        User user = userWithFavorites(1);
+
+        assertThatThrownBy(() -> userService.addFavoriteCrop(user.getId(), user.getId() + 1000))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("Crop");
+    }
+
+    @Test
+    void summariesAndIds_comeStraightFromTheJoinTable() {
+        User user = userWithFavorites(5);
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        Page<CropSummaryResponse> page = userService.findFavoriteCropSummaries(user.getId(),
+                PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "name")));
+        List<Integer> ids = userService.findFavoriteCropIds(user.getId());
+
+        // page, count and ids; no entities loaded
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(CropSummaryResponse::name).containsExactly("Crop 5-4", "Crop 5-3");
+        assertThat(ids).hasSize(5);
+    }
+
+    private long toggleCost(int favorites) {
+        User user = userWithFavorites(favorites);
+        Crop crop = entityManager.persist(new Crop("Toggled " + favorites));
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        entityManager.clear();
+        statistics.clear();
+
+        userService.addFavoriteCrop(user.getId(), crop.getId());
+        userService.removeFavoriteCrop(user.getId(), crop.getId());
+        return statistics.getPrepareStatementCount();
+    }
+
+    private User userWithFavorites(int favorites) {
+        User user = new User("user" + favorites, "user" + favorites + "@example.com", Role.USER);
+        user.setPassword("secret");
+        for (int i = 0; i < favorites; i++) {
+            user.addFavoriteCrop(entityManager.persist(new Crop("Crop " + favorites + "-" + i)));
+        }
+        entityManager.persist(user);
+        entityManager.flush();
+        return user;
+    }
+}
@@ -4,6 +4,7 @@ import be.vives.ti.backend.dto.request.CreateUserRequest;
 import be.vives.ti.backend.dto.request.UpdateUserRequest;
 import be.vives.ti.backend.dto.response.CropResponse;
 import be.vives.ti.backend.dto.response.RecipeResponse;
+import be.vives.ti.backend.dto.response.RecipeSummaryResponse;
 import be.vives.ti.backend.dto.response.UserResponse;
 import be.vives.ti.backend.exceptions.ResourceNotFoundException;
 import be.vives.ti.backend.mapper.CropMapper;
@@ -19,11 +20,10 @@ import be.vives.ti.backend.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -35,6 +35,7 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -61,9 +62,6 @@ public class UserServiceTest {
     @InjectMocks
     private UserService userService;
 
-    @Captor
-    private ArgumentCaptor<User> userCaptor;
-
     private User user1;
     private User user2;
 
@@ -167,7 +165,7 @@ public class UserServiceTest {
         crop.setId(10);
         user1.addFavoriteCrop(crop);
         when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(cropMapper.toResponse(crop)).thenReturn(new CropResponse(10, "Tomato", null, null, null, null, null, null, null, null, null, null, null, null, null));
+        when(cropMapper.toResponse(crop)).thenReturn(new CropResponse(10, "Tomato", null, null, null, null, null, null, null, null, null, null, null, null, null, null));
 
         var list = userService.findFavoriteCrops(1);
 
@@ -183,50 +181,80 @@ public class UserServiceTest {
 
     @Test
     void addFavoriteCrop_success() {
-        Crop crop = new Crop("Lettuce");
-        crop.setId(11);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(cropRepository.findById(11)).thenReturn(Optional.of(crop));
+        when(userRepository.insertFavoriteCrop(1, 11)).thenReturn(1);
+
+        userService.addFavoriteCrop(1, 11);
+
+        verify(userRepository).insertFavoriteCrop(1, 11);
+        verify(userRepository, never()).findById(anyInt());
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(cropRepository);
+    }
+
+    @Test
+    void addFavoriteCrop_alreadyFavorite_doesNothing() {
+        when(userRepository.insertFavoriteCrop(1, 11)).thenReturn(0);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(cropRepository.existsById(11)).thenReturn(true);
+
+        userService.addFavoriteCrop(1, 11);
+
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void addFavoriteCrop_addedConcurrently_doesNothing() {
+        when(userRepository.insertFavoriteCrop(1, 11)).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(cropRepository.existsById(11)).thenReturn(true);
 
         userService.addFavoriteCrop(1, 11);
 
-        verify(userRepository).save(userCaptor.capture());
-        User saved = userCaptor.getValue();
-        assertThat(saved.getFavoriteCrops()).extracting(Crop::getName).contains("Lettuce");
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void addFavoriteCrop_userNotFound_throws() {
-        when(userRepository.findById(99)).thenReturn(Optional.empty());
+        when(userRepository.insertFavoriteCrop(99, 11)).thenReturn(0);
+        when(userRepository.existsById(99)).thenReturn(false);
         assertThatThrownBy(() -> userService.addFavoriteCrop(99, 11)).isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
     void addFavoriteCrop_cropNotFound_throws() {
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(cropRepository.findById(999)).thenReturn(Optional.empty());
+        when(userRepository.insertFavoriteCrop(1, 999)).thenReturn(0);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(cropRepository.existsById(999)).thenReturn(false);
         assertThatThrownBy(() -> userService.addFavoriteCrop(1, 999)).isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
     void removeFavoriteCrop_success() {
-        Crop crop = new Crop("Pea");
-        crop.setId(12);
-        user1.addFavoriteCrop(crop);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(cropRepository.findById(12)).thenReturn(Optional.of(crop));
+        when(userRepository.deleteFavoriteCrop(1, 12)).thenReturn(1);
 
         userService.removeFavoriteCrop(1, 12);
 
-        verify(userRepository).save(userCaptor.capture());
-        User saved = userCaptor.getValue();
-        assertThat(saved.getFavoriteCrops()).doesNotContain(crop);
+        verify(userRepository).deleteFavoriteCrop(1, 12);
+        verify(userRepository, never()).findById(anyInt());
+        verifyNoInteractions(cropRepository);
+    }
+
+    @Test
+    void removeFavoriteCrop_notAFavorite_doesNothing() {
+        when(userRepository.deleteFavoriteCrop(1, 12)).thenReturn(0);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(cropRepository.existsById(12)).thenReturn(true);
+
+        userService.removeFavoriteCrop(1, 12);
+
+        verify(userRepository, never()).save(any());
     }
 
     @Test
     void removeFavoriteCrop_cropNotFound_throws() {
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(cropRepository.findById(9999)).thenReturn(Optional.empty());
+        when(userRepository.deleteFavoriteCrop(1, 9999)).thenReturn(0);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(cropRepository.existsById(9999)).thenReturn(false);
 
         assertThatThrownBy(() -> userService.removeFavoriteCrop(1, 9999)).isInstanceOf(ResourceNotFoundException.class);
     }
@@ -236,9 +264,10 @@ public class UserServiceTest {
         Recipe r = new Recipe();
         r.setId(20);
         r.setRecipeName("R1");
-        user1.addFavoriteRecipe(r);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(recipeMapper.toResponse(r)).thenReturn(new RecipeResponse(20, "R1", null, "desc", null, null, null, null, null, List.of(), List.of()));
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(userRepository.findFavoriteRecipeIds(1)).thenReturn(List.of(20));
+        when(recipeRepository.findAllFetchedByIdIn(List.of(20))).thenReturn(List.of(r));
+        when(recipeMapper.toResponse(r)).thenReturn(new RecipeResponse(20, "R1", null, "desc", null, null, null, null, null, List.of(), List.of(), null));
 
         var list = userService.getFavoriteRecipes(1);
         assertThat(list).hasSize(1);
@@ -247,52 +276,81 @@ public class UserServiceTest {
 
     @Test
     void getFavoriteRecipes_userNotFound_throws() {
-        when(userRepository.findById(404)).thenReturn(Optional.empty());
+        when(userRepository.existsById(404)).thenReturn(false);
         assertThatThrownBy(() -> userService.getFavoriteRecipes(404)).isInstanceOf(ResourceNotFoundException.class);
     }
 
+    @Test
+    void findFavoriteCropIds_returnsIdsWithoutLoadingTheUser() {
+        when(userRepository.findFavoriteCropIds(1)).thenReturn(List.of(3, 8));
+
+        assertThat(userService.findFavoriteCropIds(1)).containsExactly(3, 8);
+        verify(userRepository, never()).findById(anyInt());
+        verify(userRepository, never()).existsById(anyInt());
+    }
+
+    @Test
+    void findFavoriteCropIds_noFavorites_userNotFound_throws() {
+        when(userRepository.findFavoriteCropIds(99)).thenReturn(List.of());
+        when(userRepository.existsById(99)).thenReturn(false);
+
+        assertThatThrownBy(() -> userService.findFavoriteCropIds(99)).isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void findFavoriteRecipeSummaries_returnsThePage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<RecipeSummaryResponse> page = new PageImpl<>(
+                List.of(new RecipeSummaryResponse(20, "R1", null, null, null, null, null, null)), pageable, 1);
+        when(recipeRepository.findFavoriteSummaries(1, pageable)).thenReturn(page);
+
+        assertThat(userService.findFavoriteRecipeSummaries(1, pageable)).isSameAs(page);
+        verify(userRepository, never()).existsById(anyInt());
+    }
+
+    @Test
+    void findFavoriteRecipeSummaries_noFavorites_userExists_returnsEmptyPage() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(recipeRepository.findFavoriteSummaries(1, pageable)).thenReturn(Page.empty(pageable));
+        when(userRepository.existsById(1)).thenReturn(true);
+
+        assertThat(userService.findFavoriteRecipeSummaries(1, pageable).getContent()).isEmpty();
+    }
+
     @Test
     void addFavoriteRecipe_success() {
-        Recipe r = new Recipe();
-        r.setId(21);
-        r.setRecipeName("R2");
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(recipeRepository.findById(21)).thenReturn(Optional.of(r));
+        when(userRepository.insertFavoriteRecipe(1, 21)).thenReturn(1);
 
         userService.addFavoriteRecipe(1, 21);
 
-        verify(userRepository).save(userCaptor.capture());
-        User saved = userCaptor.getValue();
-        assertThat(saved.getFavoriteRecipes()).extracting(Recipe::getRecipeName).contains("R2");
+        verify(userRepository).insertFavoriteRecipe(1, 21);
+        verify(userRepository, never()).save(any());
+        verifyNoInteractions(recipeRepository);
     }
 
     @Test
     void addFavoriteRecipe_userNotFound_throws() {
-        when(userRepository.findById(99)).thenReturn(Optional.empty());
+        when(userRepository.insertFavoriteRecipe(99, 21)).thenReturn(0);
+        when(userRepository.existsById(99)).thenReturn(false);
         assertThatThrownBy(() -> userService.addFavoriteRecipe(99, 21)).isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
     void addFavoriteRecipe_recipeNotFound_throws() {
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(recipeRepository.findById(9999)).thenReturn(Optional.empty());
+        when(userRepository.insertFavoriteRecipe(1, 9999)).thenReturn(0);
+        when(userRepository.existsById(1)).thenReturn(true);
+        when(recipeRepository.existsById(9999)).thenReturn(false);
         assertThatThrownBy(() -> userService.addFavoriteRecipe(1, 9999)).isInstanceOf(ResourceNotFoundException.class);
     }
 
     @Test
     void removeFavoriteRecipe_success() {
-        Recipe r = new Recipe();
-        r.setId(30);
-        r.setRecipeName("R3");
-        user1.addFavoriteRecipe(r);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(recipeRepository.findById(30)).thenReturn(Optional.of(r));
+        when(userRepository.deleteFavoriteRecipe(1, 30)).thenReturn(1);
 
         userService.removeFavoriteRecipe(1, 30);
 
-        verify(userRepository).save(userCaptor.capture());
-        User saved = userCaptor.getValue();
-        assertThat(saved.getFavoriteRecipes()).doesNotContain(r);
+        verify(userRepository).deleteFavoriteRecipe(1, 30);
+        verifyNoInteractions(recipeRepository);
     }
 
     @Test
@@ -30,7 +30,17 @@ DROP TABLE IF EXISTS courses;
 DROP TABLE IF EXISTS categories;
 DROP TABLE IF EXISTS crops;
 DROP TABLE IF EXISTS users;
-
+DROP TABLE IF EXISTS collection_versions;
+
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS crops_seq;
+DROP SEQUENCE IF EXISTS categories_seq;
+DROP SEQUENCE IF EXISTS courses_seq;
+DROP SEQUENCE IF EXISTS ingredient_measurements_seq;
+DROP SEQUENCE IF EXISTS ingredients_seq;
+DROP SEQUENCE IF EXISTS recipes_seq;
+DROP SEQUENCE IF EXISTS recipe_quantities_seq;
+DROP SEQUENCE IF EXISTS recipe_steps_seq;
 
 -- Users table
 CREATE TABLE users (
@@ -38,7 +48,8 @@ CREATE TABLE users (
   user_name varchar(100) NOT NULL,
   user_email varchar(255) NOT NULL,
   password varchar(255) NOT NULL,
-  role varchar(20) NOT NULL
+  role varchar(20) NOT NULL,
+  last_modified timestamp(6) with time zone
 );
 
 -- Crops
@@ -57,25 +68,35 @@ CREATE TABLE crops (
   in_greenhouse boolean,
   crop_description text,
   crop_tips text,
-  image varchar(1024)
+  image varchar(1024),
+  sow_mask integer,
+  plant_mask integer,
+  harvest_mask integer,
+  location_mask integer,
+  last_modified timestamp(6) with time zone,
+  -- optimistic lock, bumped by Hibernate on every update
+  version bigint NOT NULL DEFAULT 0
 );
 
 -- Categories
 CREATE TABLE categories (
   id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-  category_name varchar(255)
+  category_name varchar(255),
+  last_modified timestamp(6) with time zone
 );
 
 -- Courses
 CREATE TABLE courses (
   id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-  course_name varchar(255)
+  course_name varchar(255),
+  last_modified timestamp(6) with time zone
 );
 
 -- Ingredient measurements
 CREATE TABLE ingredient_measurements (
   id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
-  measurement_name varchar(255)
+  measurement_name varchar(255),
+  last_modified timestamp(6) with time zone
 );
 
 -- Ingredients
@@ -83,6 +104,7 @@ CREATE TABLE ingredients (
   id integer GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   ingredient_name varchar(255),
   crop_id integer,
+  last_modified timestamp(6) with time zone,
   CONSTRAINT fk_ingredients_crop FOREIGN KEY (crop_id) REFERENCES crops(id) ON DELETE SET NULL
 );
 
@@ -97,6 +119,11 @@ CREATE TABLE recipes (
   image varchar(1024),
   course_id integer,
   category_id integer,
+  last_modified timestamp(6) with time zone,
+  -- optimistic lock for the whole recipe, including its quantities and steps
+  version bigint NOT NULL DEFAULT 0,
+  -- full-text search document, maintained by the application (not mapped on the entity)
+  search_vector tsvector,
   CONSTRAINT fk_recipes_author FOREIGN KEY (author) REFERENCES users(id) ON DELETE SET NULL,
   CONSTRAINT fk_recipes_course FOREIGN KEY (course_id) REFERENCES courses(id) ON DELETE SET NULL,
   CONSTRAINT fk_recipes_category FOREIGN KEY (category_id) REFERENCES categories(id) ON DELETE SET NULL
@@ -109,6 +136,7 @@ CREATE TABLE recipe_quantities (
   ingredient_id integer,
   measurement_id integer,
   quantity numeric(38,2),
+  last_modified timestamp(6) with time zone,
   CONSTRAINT fk_rq_recipe FOREIGN KEY (recipe_id) REFERENCES recipes(id) ON DELETE CASCADE,
   CONSTRAINT fk_rq_ingredient FOREIGN KEY (ingredient_id) REFERENCES ingredients(id) ON DELETE CASCADE,
   CONSTRAINT fk_rq_measurement FOREIGN KEY (measurement_id) REFERENCES ingredient_measurements(id) ON DELETE SET NULL
@@ -120,6 +148,7 @@ CREATE TABLE recipe_steps (
   step_number integer,
   step_description text,
   recipe_id integer,
+  last_modified timestamp(6) with time zone,
   CONSTRAINT fk_rs_recipe FOREIGN KEY (recipe_id) REFERENCES recipes(id) ON DELETE CASCADE
 );
 
@@ -141,10 +170,38 @@ CREATE TABLE user_recipes (
   CONSTRAINT fk_userrecipes_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
 
+-- Versions of collections whose ETags can't be read cheaply from their own tables (see RecipeCollectionVersion)
+CREATE TABLE collection_versions (
+  name varchar(50) PRIMARY KEY,
+  version bigint NOT NULL
+);
+INSERT INTO collection_versions (name, version) VALUES ('recipes', 0);
+
+-- Id sequences (one per table, blocks of 50 ids per call, see BaseEntity)
+CREATE SEQUENCE users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE crops_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE categories_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE courses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ingredient_measurements_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE ingredients_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE recipes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE recipe_quantities_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE recipe_steps_seq START WITH 1 INCREMENT BY 50;
+
 -- Indexes
 CREATE INDEX idx_recipes_author ON recipes(author);
 CREATE INDEX idx_recipe_quantities_recipe ON recipe_quantities(recipe_id);
+CREATE INDEX idx_recipe_quantities_ingredient ON recipe_quantities(ingredient_id);
 CREATE INDEX idx_recipe_steps_recipe ON recipe_steps(recipe_id);
 CREATE INDEX idx_ingredients_crop ON ingredients(crop_id);
+-- keyset pagination seeks on (name, id), a null name sorting as ''
+CREATE INDEX idx_crops_name_id ON crops((COALESCE(cropname, '')), id);
+CREATE INDEX idx_ingredients_name_id ON ingredients((COALESCE(ingredient_name, '')), id);
+CREATE INDEX idx_recipes_name_id ON recipes((COALESCE(recipe_name, '')), id);
+-- full-text recipe search
+CREATE INDEX idx_recipes_search ON recipes USING GIN (search_vector);
+-- case-insensitive "name contains" crop search (LIKE '%term%' on lower(cropname))
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX idx_crops_name_trgm ON crops USING GIN (lower(cropname) gin_trgm_ops);
 
 -- End of schema
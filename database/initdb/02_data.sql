@@ -221,5 +221,16 @@ SELECT setval(pg_get_serial_sequence('recipes','id'), COALESCE((SELECT MAX(id) F
 SELECT setval(pg_get_serial_sequence('recipe_quantities','id'), COALESCE((SELECT MAX(id) FROM recipe_quantities), 1));
 SELECT setval(pg_get_serial_sequence('recipe_steps','id'), COALESCE((SELECT MAX(id) FROM recipe_steps), 1));
 
+-- Entity ids come from the <table>_seq sequences; a sequence value is the first id of a block of 50
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+SELECT setval('crops_seq', COALESCE((SELECT MAX(id) FROM crops), 0) + 1, false);
+SELECT setval('categories_seq', COALESCE((SELECT MAX(id) FROM categories), 0) + 1, false);
+SELECT setval('courses_seq', COALESCE((SELECT MAX(id) FROM courses), 0) + 1, false);
+SELECT setval('ingredient_measurements_seq', COALESCE((SELECT MAX(id) FROM ingredient_measurements), 0) + 1, false);
+SELECT setval('ingredients_seq', COALESCE((SELECT MAX(id) FROM ingredients), 0) + 1, false);
+SELECT setval('recipes_seq', COALESCE((SELECT MAX(id) FROM recipes), 0) + 1, false);
+SELECT setval('recipe_quantities_seq', COALESCE((SELECT MAX(id) FROM recipe_quantities), 0) + 1, false);
+SELECT setval('recipe_steps_seq', COALESCE((SELECT MAX(id) FROM recipe_steps), 0) + 1, false);
+
 -- End of data
 -- copy your data.sql (mock data) contents from backend resources here
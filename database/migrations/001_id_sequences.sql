@@ -0,0 +1,27 @@
+-- Switch entity ids from IDENTITY to sequences (needed for JDBC insert batching).
+-- For databases created before the <table>_seq sequences existed; new databases get them from initdb/01_schema.sql.
+-- The id columns stay GENERATED BY DEFAULT AS IDENTITY, Hibernate now always supplies the id itself.
+-- Run once: psql -f 001_id_sequences.sql
+
+BEGIN;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS crops_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('crops_seq', COALESCE((SELECT MAX(id) FROM crops), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('categories_seq', COALESCE((SELECT MAX(id) FROM categories), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS courses_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('courses_seq', COALESCE((SELECT MAX(id) FROM courses), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS ingredient_measurements_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('ingredient_measurements_seq', COALESCE((SELECT MAX(id) FROM ingredient_measurements), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS ingredients_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('ingredients_seq', COALESCE((SELECT MAX(id) FROM ingredients), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS recipes_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('recipes_seq', COALESCE((SELECT MAX(id) FROM recipes), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS recipe_quantities_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('recipe_quantities_seq', COALESCE((SELECT MAX(id) FROM recipe_quantities), 0) + 1, false);
+CREATE SEQUENCE IF NOT EXISTS recipe_steps_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('recipe_steps_seq', COALESCE((SELECT MAX(id) FROM recipe_steps), 0) + 1, false);
+
+COMMIT;
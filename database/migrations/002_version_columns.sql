@@ -0,0 +1,10 @@
+-- Optimistic locking for crops and recipes (@Version, used by the PATCH endpoints to detect concurrent edits).
+-- For databases created before the version columns existed; new databases get them from initdb/01_schema.sql.
+-- Run once: psql -f 002_version_columns.sql
+
+BEGIN;
+
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS version bigint NOT NULL DEFAULT 0;
+
+COMMIT;
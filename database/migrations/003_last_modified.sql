@@ -0,0 +1,18 @@
+-- Last change of every row (BaseEntity.lastModified, set by Spring Data auditing), used for the ETags of the list
+-- endpoints. For databases created before the last_modified columns existed; new databases get them from
+-- initdb/01_schema.sql. Existing rows keep NULL until they are next saved.
+-- Run once: psql -f 003_last_modified.sql
+
+BEGIN;
+
+ALTER TABLE users ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE categories ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE courses ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE ingredient_measurements ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE ingredients ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE recipe_quantities ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+ALTER TABLE recipe_steps ADD COLUMN IF NOT EXISTS last_modified timestamp(6) with time zone;
+
+COMMIT;
@@ -0,0 +1,14 @@
+-- Month and location bit masks of crops, queried by GET /api/crops/calendar (see CropCalendar).
+-- For databases created before the mask columns existed; new databases get them from initdb/01_schema.sql.
+-- The columns are left NULL here: the application computes them for every crop without masks when it starts
+-- (CropService.fillMissingCalendarMasks).
+-- Run once: psql -f 004_crop_calendar_masks.sql
+
+BEGIN;
+
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS sow_mask integer;
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS plant_mask integer;
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS harvest_mask integer;
+ALTER TABLE crops ADD COLUMN IF NOT EXISTS location_mask integer;
+
+COMMIT;
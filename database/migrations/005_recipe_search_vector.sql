@@ -0,0 +1,12 @@
+-- Full-text recipe search (GET /api/recipes/search, PostgresRecipeSearchIndex).
+-- For databases created before the search_vector column existed; new databases get it from initdb/01_schema.sql.
+-- The column is not mapped on the entity, so schema validation doesn't notice it missing; without it the first search
+-- or recipe save fails. It is left NULL here: the application fills every missing vector when it starts.
+-- Run once: psql -f 005_recipe_search_vector.sql
+
+BEGIN;
+
+ALTER TABLE recipes ADD COLUMN IF NOT EXISTS search_vector tsvector;
+CREATE INDEX IF NOT EXISTS idx_recipes_search ON recipes USING GIN (search_vector);
+
+COMMIT;
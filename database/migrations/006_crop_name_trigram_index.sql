@@ -0,0 +1,11 @@
+-- Case-insensitive "name contains" crop search (LIKE '%term%' on lower(cropname), PostgresCropSearchIndex).
+-- For databases created before the trigram index existed; new databases get it from initdb/01_schema.sql.
+-- pg_trgm is a trusted extension from PostgreSQL 13 on: a role with CREATE on the database can install it.
+-- Run once: psql -f 006_crop_name_trigram_index.sql
+
+BEGIN;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_crops_name_trgm ON crops USING GIN (lower(cropname) gin_trgm_ops);
+
+COMMIT;
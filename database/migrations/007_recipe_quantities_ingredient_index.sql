@@ -0,0 +1,5 @@
+-- Recipes by ingredient (GET /api/recipes/ingredient/{id}) look up recipe_quantities by ingredient_id.
+-- For databases created before the index existed; new databases get it from initdb/01_schema.sql.
+-- Run once: psql -f 007_recipe_quantities_ingredient_index.sql
+
+CREATE INDEX IF NOT EXISTS idx_recipe_quantities_ingredient ON recipe_quantities(ingredient_id);
@@ -0,0 +1,16 @@
+-- Keyset pagination (GET /api/crops, /api/ingredients and /api/recipes with a cursor) seeks on (COALESCE(name, ''), id),
+-- so rows without a name are not skipped.
+-- For databases created before these indexes existed, or with the earlier (name, id) ones; new databases get them from
+-- initdb/01_schema.sql.
+-- Run once: psql -f 008_keyset_name_indexes.sql
+
+BEGIN;
+
+DROP INDEX IF EXISTS idx_crops_name_id;
+DROP INDEX IF EXISTS idx_ingredients_name_id;
+DROP INDEX IF EXISTS idx_recipes_name_id;
+CREATE INDEX idx_crops_name_id ON crops((COALESCE(cropname, '')), id);
+CREATE INDEX idx_ingredients_name_id ON ingredients((COALESCE(ingredient_name, '')), id);
+CREATE INDEX idx_recipes_name_id ON recipes((COALESCE(recipe_name, '')), id);
+
+COMMIT;
@@ -0,0 +1,14 @@
+-- Version of the recipe list for its ETags (RecipeCollectionVersion), incremented by every transaction that changes
+-- recipe data instead of being computed from the recipe tables on each request.
+-- For databases created before collection_versions existed; new databases get it from initdb/01_schema.sql.
+-- Run once: psql -f 009_collection_versions.sql
+
+BEGIN;
+
+CREATE TABLE IF NOT EXISTS collection_versions (
+  name varchar(50) PRIMARY KEY,
+  version bigint NOT NULL
+);
+INSERT INTO collection_versions (name, version) VALUES ('recipes', 0) ON CONFLICT (name) DO NOTHING;
+
+COMMIT;
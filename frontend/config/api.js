@@ -121,6 +121,15 @@ export const getUserFavoriteRecipes = async (userId) => {
     return await request(`/api/users/${userId}/favorite-recipes`);
 };
 
+// ids only, enough to mark hearts or count favorites
+export const getUserFavoriteCropIds = async (userId) => {
+    return await request(`/api/users/${userId}/favorite-crops?fields=id`);
+};
+
+export const getUserFavoriteRecipeIds = async (userId) => {
+    return await request(`/api/users/${userId}/favorite-recipes?fields=id`);
+};
+
 export const addFavoriteCrop = async (userId, cropId) => {
     return await request(`/api/users/${userId}/favorite-crops/${cropId}`, { method: 'POST' });
 };
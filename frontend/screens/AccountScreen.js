@@ -6,7 +6,7 @@ import AppHeader from '../components/AppHeader';
 import { getItem, logout } from '../auth/storage';
 import useTranslation from '../hooks/useTranslation';
 import commonStyles from '../themes/styles';
-import { getUserById, getUserFavoriteCrops, getUserFavoriteRecipes, getRecipes, deleteUser } from '../config/api';
+import { getUserById, getUserFavoriteCropIds, getUserFavoriteRecipeIds, getRecipes, deleteUser } from '../config/api';
 import { useIsFocused } from '@react-navigation/native';
 
 export default function AccountScreen({ navigation }) {
@@ -39,8 +39,8 @@ export default function AccountScreen({ navigation }) {
       setUser(u);
 
       const [crops, recipes, allRecipes] = await Promise.all([
-        getUserFavoriteCrops(userId).catch(() => []),
-        getUserFavoriteRecipes(userId).catch(() => []),
+        getUserFavoriteCropIds(userId).catch(() => []),
+        getUserFavoriteRecipeIds(userId).catch(() => []),
         getRecipes().catch(() => []),
       ]);
       if (!mounted) return;
@@ -4,7 +4,7 @@ import { useNavigation, useRoute, CommonActions } from '@react-navigation/native
 import { useTheme } from '../themes/ThemeContext';
 import AppHeader from '../components/AppHeader';
 import useCropDetail from '../hooks/useCropDetail';
-import { addFavoriteCrop, removeFavoriteCrop, getUserFavoriteCrops } from '../config/api';
+import { addFavoriteCrop, removeFavoriteCrop, getUserFavoriteCropIds } from '../config/api';
 import { getItem } from '../auth/storage';
 import MONTHS, { isInRange } from '../lib/months';
 import FallbackImage from '../components/FallbackImage';
@@ -62,8 +62,8 @@ export default function CropDetailScreen() {
       try {
         const userId = await getItem('user_id');
         if (!userId || !cropId) return;
-        const res = await getUserFavoriteCrops(userId);
-        const ids = Array.isArray(res) ? res.map(r => r.id) : (res?.map ? res.map(r => r.id) : []);
+        const res = await getUserFavoriteCropIds(userId);
+        const ids = Array.isArray(res) ? res : [];
         if (mounted) setFavSaved(ids.includes(cropId));
       } catch (err) {
       }
@@ -3,7 +3,7 @@ import { View, Text, ScrollView, Image, StyleSheet, TouchableOpacity, TextInput,
 import { Ionicons } from '@expo/vector-icons';
 import { useNavigation, useIsFocused } from '@react-navigation/native';
 import { getItem } from '../auth/storage';
-import { getUserFavoriteCrops, addFavoriteCrop, removeFavoriteCrop } from '../config/api';
+import { getUserFavoriteCropIds, addFavoriteCrop, removeFavoriteCrop } from '../config/api';
 import { useTheme } from '../themes/ThemeContext';
 import AppHeader from '../components/AppHeader';
 import useTranslation from '../hooks/useTranslation';
@@ -32,8 +32,8 @@ export default function CropScreen() {
 			try {
 				const userId = await getItem('user_id');
 				if (!userId) return;
-				const res = await getUserFavoriteCrops(userId);
-				const ids = Array.isArray(res) ? res.map(r => r.id) : (res?.map ? res.map(r => r.id) : []);
+				const res = await getUserFavoriteCropIds(userId);
+				const ids = Array.isArray(res) ? res : [];
 				if (mounted) setFavoritesIds(new Set(ids));
 			} catch (err) {
 				console.warn('Failed to load favorite crops', err);
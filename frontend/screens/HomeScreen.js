@@ -13,7 +13,7 @@ import useTranslation from '../hooks/useTranslation';
 import { useIsFocused } from '@react-navigation/native';
 import AppHeader from '../components/AppHeader';
 import { getJwtToken, getItem, saveItem } from '../auth/storage';
-import { getUserById, getUserFavoriteCrops, getUserFavoriteRecipes } from '../config/api';
+import { getUserById, getUserFavoriteCropIds, getUserFavoriteRecipeIds } from '../config/api';
 import commonStyles from '../themes/styles';
 
 export default function HomeScreen({ navigation }) {
@@ -80,8 +80,8 @@ export default function HomeScreen({ navigation }) {
         const userId = Number(userIdStr);
         if (!userId) return;
         const [crops, recipes] = await Promise.all([
-          getUserFavoriteCrops(userId).catch(() => []),
-          getUserFavoriteRecipes(userId).catch(() => []),
+          getUserFavoriteCropIds(userId).catch(() => []),
+          getUserFavoriteRecipeIds(userId).catch(() => []),
         ]);
         if (!mounted) return;
         setFavoriteCropsCount(Array.isArray(crops) ? crops.length : (crops?.length ?? 0));
@@ -7,7 +7,7 @@ import unitConverter, { UnitSystem } from '../lib/unitConverter';
 import useUnitPreference from '../hooks/useUnitPreference';
 import useTranslation from '../hooks/useTranslation';
 
-import { getRecipeById, addFavoriteRecipe, removeFavoriteRecipe, getUserFavoriteRecipes } from '../config/api';
+import { getRecipeById, addFavoriteRecipe, removeFavoriteRecipe, getUserFavoriteRecipeIds } from '../config/api';
 import { getItem } from '../auth/storage';
 import { navigationRef } from '../config/AppNavigator';
 import FallbackImage from '../components/FallbackImage';
@@ -80,8 +80,8 @@ export default function RecipeDetailScreen({ route, navigation }){
       try {
         const userId = await getItem('user_id');
         if (!userId || !recipe?.id) return;
-        const res = await getUserFavoriteRecipes(userId);
-        const ids = Array.isArray(res) ? res.map(r => r.id) : (res?.map ? res.map(r => r.id) : []);
+        const res = await getUserFavoriteRecipeIds(userId);
+        const ids = Array.isArray(res) ? res : [];
         if (mounted) setFavSaved(ids.includes(recipe.id));
       } catch (err) {
         
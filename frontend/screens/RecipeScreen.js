@@ -18,7 +18,7 @@ import useRecipes from '../hooks/useRecipes';
 import useTranslation from '../hooks/useTranslation';
 import { getItem } from '../auth/storage';
 import { getIngredients } from '../config/api';
-import { getUserFavoriteRecipes, addFavoriteRecipe, removeFavoriteRecipe } from '../config/api';
+import { getUserFavoriteRecipeIds, addFavoriteRecipe, removeFavoriteRecipe } from '../config/api';
 import { useIsFocused } from '@react-navigation/native';
 import { filterRecipe } from '../lib/recipeFilters';
 import FallbackImage from '../components/FallbackImage';
@@ -110,8 +110,8 @@ export default function RecipeScreen({ navigation }) {
       try {
         const userId = await getItem('user_id');
         if (!userId) return;
-        const res = await getUserFavoriteRecipes(userId);
-        const ids = Array.isArray(res) ? res.map(r => r.id) : (res?.map ? res.map(r => r.id) : []);
+        const res = await getUserFavoriteRecipeIds(userId);
+        const ids = Array.isArray(res) ? res : [];
         if (mounted) setFavoritesIds(new Set(ids));
       } catch (err) {
         console.warn('Failed to load favorite recipes', err);